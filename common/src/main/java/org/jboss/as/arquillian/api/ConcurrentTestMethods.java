@@ -0,0 +1,38 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.jboss.as.arquillian.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an in-container test class whose test methods are safe to execute concurrently.
+ * <p>
+ * When the {@code testMethodConcurrency} property of the {@code jmx-as7} protocol is greater than one, the test
+ * methods of the class are submitted to the server as a single batch when the first test method is invoked. The
+ * server executes them concurrently and each result is returned when the test method is invoked by the client. Each
+ * test method is executed on a new instance of the test class, but any state shared between test methods, for
+ * example static fields, must be thread-safe.
+ * </p>
+ * <p>
+ * The batch contains the test methods without parameters which the JUnit Platform selected for execution, for example
+ * after applying tag or method filters. Test methods with an annotation whose name starts with {@code Enabled},
+ * {@code Disabled} or {@code Ignore} are not part of the batch, as the test runner may still exclude them. Any other
+ * test method is executed when it is invoked, once the batch has completed. If the test methods are not executed by
+ * the JUnit Platform, the selection is unknown and no test methods are executed concurrently.
+ * </p>
+ * <p>
+ * The {@code testMethodBatchTimeout} property of the protocol limits the time waited for the test methods of a batch.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Inherited
+public @interface ConcurrentTestMethods {
+}
@@ -26,4 +26,45 @@ public @interface ServerSetup {
 
     Class<? extends ServerSetupTask>[] value();
 
+    /**
+     * Indicates whether the setup tasks should be executed in coordinated mode. In coordinated mode reloads requested
+     * by the setup tasks are merged into a single reload after all setup tasks have been executed, and again after all
+     * tear down tasks have been executed. Operations of
+     * {@linkplain org.jboss.as.arquillian.container.ServerSetupCoordinator.CompositeTask composite tasks} are merged
+     * into a single composite operation.
+     * <p>
+     * This should only be used if the setup tasks do not depend on a reload of a previous setup task.
+     * </p>
+     *
+     * @return {@code true} if the setup tasks should be coordinated, otherwise {@code false}
+     *
+     * @see org.jboss.as.arquillian.container.ServerSetupCoordinator
+     */
+    boolean coordinated() default false;
+
+    /**
+     * The scope of the setup tasks. With {@link Scope#SUITE} the tear down of the setup tasks is deferred after the test
+     * class has completed. If the next test class deployed to the same container has the same ordered list of setup
+     * tasks and the same settings, the setup tasks are shared rather than torn down and executed again. Otherwise, the
+     * setup tasks are torn down before the next deployment, before the container is stopped or once the test suite has
+     * completed.
+     *
+     * @return the scope of the setup tasks
+     */
+    Scope scope() default Scope.CLASS;
+
+    /**
+     * The scope in which setup tasks are executed.
+     */
+    enum Scope {
+        /**
+         * The setup tasks are executed for each test class.
+         */
+        CLASS,
+        /**
+         * The setup tasks are shared with the following test classes that have the same setup tasks.
+         */
+        SUITE,
+    }
+
 }
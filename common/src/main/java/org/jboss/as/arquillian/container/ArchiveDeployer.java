@@ -6,15 +6,42 @@ package org.jboss.as.arquillian.container;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.jboss.arquillian.container.spi.client.container.DeploymentException;
 import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
 import org.jboss.logging.Logger;
 import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
+import org.jboss.shrinkwrap.api.asset.Asset;
+import org.jboss.shrinkwrap.api.exporter.StreamExporter;
 import org.jboss.shrinkwrap.api.exporter.ZipExporter;
+import org.jboss.shrinkwrap.api.exporter.ZipStoredExporter;
 import org.wildfly.plugin.tools.Deployment;
 import org.wildfly.plugin.tools.DeploymentManager;
 import org.wildfly.plugin.tools.DeploymentResult;
@@ -37,7 +64,58 @@ public class ArchiveDeployer {
     private static final Logger log = Logger.getLogger(ArchiveDeployer.class);
 
     private final DeploymentManager deploymentManager;
+    private final ModelControllerClient controllerClient;
     private final ManagementClient client;
+    private final ExportMode exportMode;
+    private final boolean cacheContent;
+    private final Map<String, Path> localContent = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> contentCache = new ConcurrentHashMap<>();
+    // The content hash of enabled deployments deployed with the content cache
+    private final Map<String, String> cachedDeployments = new ConcurrentHashMap<>();
+    // The content hash of deployments which were disabled, rather than removed, when undeployed
+    private final Map<String, String> retainedDeployments = new ConcurrentHashMap<>();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    /**
+     * Defines how an {@link Archive} is exported and sent to the server.
+     */
+    public enum ExportMode {
+        /**
+         * The archive is compressed into a piped stream which is uploaded to the server. This is the default.
+         */
+        STREAM,
+        /**
+         * The archive is compressed into a temporary file which is uploaded to the server.
+         */
+        FILE,
+        /**
+         * The archive is written, without compression, into a temporary file which is uploaded to the server.
+         */
+        FILE_STORED,
+        /**
+         * The archive is written, without compression, into a temporary file which is deployed as unmanaged content.
+         * The content is not uploaded, the server reads the file directly. This can only be used when the server has
+         * access to the local file system. The file is deleted when the archive is undeployed.
+         */
+        LOCAL;
+
+        /**
+         * Parses the mode ignoring case.
+         *
+         * @param value the value to parse, {@code null} or an empty value results in {@link #STREAM}
+         *
+         * @return the export mode
+         *
+         * @throws IllegalArgumentException if the value is not a valid mode
+         */
+        public static ExportMode parse(final String value) {
+            if (value == null || value.isBlank()) {
+                return STREAM;
+            }
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
 
     /**
      * Creates a new deployer for deploying archives.
@@ -53,7 +131,10 @@ public class ArchiveDeployer {
     @Deprecated
     public ArchiveDeployer(ModelControllerClient modelControllerClient) {
         this.deploymentManager = DeploymentManager.Factory.create(modelControllerClient);
+        controllerClient = modelControllerClient;
         client = null;
+        exportMode = ExportMode.STREAM;
+        cacheContent = false;
     }
 
     /**
@@ -62,8 +143,43 @@ public class ArchiveDeployer {
      * @param client the management client to use
      */
     public ArchiveDeployer(ManagementClient client) {
+        this(client, ExportMode.STREAM);
+    }
+
+    /**
+     * Creates a new deployer for deploying archives.
+     *
+     * @param client     the management client to use
+     * @param exportMode the mode used to export and send archives to the server, {@code null} uses
+     *                       {@link ExportMode#STREAM}
+     */
+    public ArchiveDeployer(final ManagementClient client, final ExportMode exportMode) {
+        this(client, exportMode, false);
+    }
+
+    /**
+     * Creates a new deployer for deploying archives.
+     * <p>
+     * If the content cache is enabled, a hash of the contents of each deployed archive is recorded along with the hash
+     * of the content the server stored. Undeploying such an archive only disables the deployment, so the server keeps
+     * the content in its repository. When an archive with identical contents is deployed again, the deployment
+     * references the content already on the server rather than exporting and uploading the archive. If the server no
+     * longer holds the content, the archive is uploaded. The disabled deployments are removed with
+     * {@link #removeRetainedDeployments()}.
+     * </p>
+     *
+     * @param client       the management client to use
+     * @param exportMode   the mode used to export and send archives to the server, {@code null} uses
+     *                         {@link ExportMode#STREAM}
+     * @param cacheContent {@code true} to reuse content already on the server for archives with identical contents
+     */
+    public ArchiveDeployer(final ManagementClient client, final ExportMode exportMode, final boolean cacheContent) {
         this.client = client;
-        this.deploymentManager = DeploymentManager.Factory.create(client.getControllerClient());
+        this.controllerClient = client.getControllerClient();
+        this.deploymentManager = DeploymentManager.Factory.create(controllerClient);
+        this.exportMode = exportMode == null ? ExportMode.STREAM : exportMode;
+        // Unmanaged content is not stored on the server so it cannot be referenced
+        this.cacheContent = cacheContent && this.exportMode != ExportMode.LOCAL;
     }
 
     /**
@@ -92,9 +208,94 @@ public class ArchiveDeployer {
      * @throws IllegalStateException if the client has been closed
      */
     public String deploy(String name, InputStream input) throws DeploymentException {
+        removeRetainedDeployment(name);
         return deployInternal(name, input);
     }
 
+    /**
+     * Deploys the archives to a running container in a single management operation. Either all the archives are
+     * deployed or, if one fails, none of them are.
+     * <p>
+     * The content cache is not used for archives deployed with this method.
+     * </p>
+     *
+     * @param archives the archives to deploy
+     *
+     * @return the runtime names of the deployments in the order of the archives
+     *
+     * @throws DeploymentException   if an error happens during deployment
+     * @throws IllegalStateException if the client has been closed
+     */
+    public List<String> deploy(final Collection<? extends Archive<?>> archives) throws DeploymentException {
+        checkState();
+        final List<String> names = new ArrayList<>(archives.size());
+        final Set<Deployment> deployments = new LinkedHashSet<>();
+        final List<InputStream> streams = new ArrayList<>();
+        final Map<String, Path> files = new LinkedHashMap<>();
+        final long start = System.nanoTime();
+        try {
+            for (Archive<?> archive : archives) {
+                final String name = archive.getName();
+                names.add(name);
+                removeRetainedDeployment(name);
+                if (exportMode == ExportMode.STREAM) {
+                    final InputStream input = archive.as(ZipExporter.class).exportAsInputStream();
+                    streams.add(input);
+                    deployments.add(Deployment.of(input, name));
+                } else {
+                    final Path content = exportFile(archive);
+                    files.put(name, content);
+                    deployments.add(createDeployment(name, content));
+                }
+            }
+            final DeploymentResult result;
+            try {
+                result = deploymentManager.deploy(deployments);
+            } catch (Exception ex) {
+                throw createException("Cannot deploy: " + names, ex);
+            }
+            if (!result.successful()) {
+                throw new DeploymentException(String.format("Cannot deploy %s: %s", names, result.getFailureMessage()));
+            }
+            if (exportMode == ExportMode.LOCAL) {
+                // The server reads unmanaged content from the files, so they must exist until the archives are undeployed
+                files.forEach((name, content) -> deleteContent(localContent.put(name, content)));
+                files.clear();
+            }
+        } finally {
+            for (InputStream input : streams) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    log.warnf(e, "Failed to close resource %s", input);
+                }
+            }
+            files.values().forEach(ArchiveDeployer::deleteContent);
+        }
+        log.debugf("Deployed %s in %s mode in %d ms", names, exportMode,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return names;
+    }
+
+    /**
+     * Returns the number of deployments which referenced content already on the server rather than uploading the
+     * archive.
+     *
+     * @return the number of content cache hits
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Returns the number of deployments, with the content cache enabled, which required the archive to be uploaded.
+     *
+     * @return the number of content cache misses
+     */
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
     /**
      * Removes an archive from the running container.
      * <p>
@@ -107,9 +308,26 @@ public class ArchiveDeployer {
         undeploy(runtimeName, true);
     }
 
+    /**
+     * Removes the deployments which were disabled, rather than removed, when undeployed with the content cache enabled.
+     * Once removed, the server may delete the content of the deployments from its repository.
+     * <p>
+     * All exceptions are caught and logged as a warning. {@link Error Errors} will still be thrown however.
+     * </p>
+     */
+    public void removeRetainedDeployments() {
+        for (String name : Set.copyOf(retainedDeployments.keySet())) {
+            removeRetainedDeployment(name);
+        }
+    }
+
     /**
      * Removes an archive from the running container.
      * <p>
+     * If the archive was deployed with the content cache enabled, the deployment is disabled rather than removed so
+     * the content remains on the server.
+     * </p>
+     * <p>
      * All exceptions are caught and logged as a warning. {@link Error Errors} will still be thrown however.
      * </p>
      *
@@ -120,6 +338,11 @@ public class ArchiveDeployer {
     @SuppressWarnings("SameParameterValue")
     public void undeploy(final String runtimeName, final boolean failOnMissing) {
         checkState();
+        final String hash = cachedDeployments.remove(runtimeName);
+        if (hash != null && disable(runtimeName)) {
+            retainedDeployments.put(runtimeName, hash);
+            return;
+        }
         try {
             final DeploymentResult result = deploymentManager
                     .undeploy(UndeployDescription.of(runtimeName).setFailOnMissing(failOnMissing));
@@ -128,6 +351,8 @@ public class ArchiveDeployer {
             }
         } catch (Exception ex) {
             log.warnf(ex, "Cannot undeploy: %s", runtimeName);
+        } finally {
+            deleteContent(localContent.remove(runtimeName));
         }
     }
 
@@ -147,9 +372,23 @@ public class ArchiveDeployer {
 
     private String deployInternal(Archive<?> archive) throws DeploymentException {
         checkState();
+        if (cacheContent) {
+            return deployCached(archive);
+        }
+        return export(archive);
+    }
+
+    private String export(final Archive<?> archive) throws DeploymentException {
+        if (exportMode != ExportMode.STREAM) {
+            return deployFile(archive);
+        }
+        final long start = System.nanoTime();
         final InputStream input = archive.as(ZipExporter.class).exportAsInputStream();
         try {
-            return deployInternal(archive.getName(), input);
+            final String name = deployInternal(archive.getName(), input);
+            log.debugf("Deployed %s in %s mode: export and deploy in %d ms", name, exportMode,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return name;
         } finally {
             if (input != null)
                 try {
@@ -174,6 +413,227 @@ public class ArchiveDeployer {
         throw new DeploymentException(String.format("Cannot deploy %s: %s", name, result.getFailureMessage()));
     }
 
+    private String deployFile(final Archive<?> archive) throws DeploymentException {
+        final String name = archive.getName();
+        final long exportStart = System.nanoTime();
+        final Path content = exportFile(archive);
+        final long exportMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - exportStart);
+        final long deployStart = System.nanoTime();
+        boolean keepContent = false;
+        try {
+            final DeploymentResult result;
+            try {
+                result = deploymentManager.deploy(createDeployment(name, content));
+            } catch (Exception ex) {
+                throw createException("Cannot deploy: " + name, ex);
+            }
+            if (!result.successful()) {
+                throw new DeploymentException(String.format("Cannot deploy %s: %s", name, result.getFailureMessage()));
+            }
+            if (exportMode == ExportMode.LOCAL) {
+                // The server reads unmanaged content from the file, so it must exist until the archive is undeployed
+                deleteContent(localContent.put(name, content));
+                keepContent = true;
+            }
+        } finally {
+            if (!keepContent) {
+                deleteContent(content);
+            }
+        }
+        log.debugf("Deployed %s in %s mode: export %d bytes in %d ms, deploy in %d ms", name, exportMode, size(content),
+                exportMillis, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - deployStart));
+        return name;
+    }
+
+    private Path exportFile(final Archive<?> archive) throws DeploymentException {
+        final String name = archive.getName();
+        try {
+            // Use a unique directory so the file name can be the deployment name
+            final Path content = Files.createTempDirectory("wildfly-arquillian-").resolve(name);
+            final Class<? extends StreamExporter> exporter = exportMode == ExportMode.FILE ? ZipExporter.class
+                    : ZipStoredExporter.class;
+            try (OutputStream out = Files.newOutputStream(content)) {
+                archive.as(exporter).exportTo(out);
+            }
+            return content;
+        } catch (IOException e) {
+            throw createException("Cannot export: " + name, e);
+        }
+    }
+
+    private Deployment createDeployment(final String name, final Path content) {
+        return (exportMode == ExportMode.LOCAL ? Deployment.local(content) : Deployment.of(content)).setName(name);
+    }
+
+    private static long size(final Path content) {
+        try {
+            return Files.size(content);
+        } catch (IOException ignore) {
+            return -1L;
+        }
+    }
+
+    private String deployCached(final Archive<?> archive) throws DeploymentException {
+        final String name = archive.getName();
+        final String hash = hashContents(archive);
+        final byte[] serverHash = contentCache.get(hash);
+        final String retainedHash = retainedDeployments.remove(name);
+        final ModelNode address = Operations.createAddress(ClientConstants.DEPLOYMENT, name);
+        if (retainedHash != null) {
+            // The deployment is disabled on the server, either enable it or replace its content
+            if (retainedHash.equals(hash)) {
+                if (deployCached(name, hash,
+                        Operations.createOperation(ClientConstants.DEPLOYMENT_DEPLOY_OPERATION, address))) {
+                    return name;
+                }
+            } else if (serverHash != null) {
+                final ModelNode op = Operations.createOperation(ClientConstants.DEPLOYMENT_FULL_REPLACE_OPERATION);
+                op.get(ClientConstants.NAME).set(name);
+                op.get(ClientConstants.CONTENT).add().get("hash").set(serverHash);
+                op.get(ClientConstants.RUNTIME_NAME).set(name);
+                op.get("enabled").set(true);
+                if (deployCached(name, hash, op)) {
+                    return name;
+                }
+            }
+            remove(name);
+        } else if (serverHash != null) {
+            final ModelNode op = Operations.createAddOperation(address);
+            op.get(ClientConstants.CONTENT).add().get("hash").set(serverHash);
+            op.get(ClientConstants.RUNTIME_NAME).set(name);
+            op.get("enabled").set(true);
+            if (deployCached(name, hash, op)) {
+                return name;
+            }
+        }
+        cacheMisses.incrementAndGet();
+        export(archive);
+        cachedDeployments.put(name, hash);
+        try {
+            final ModelNode op = Operations.createReadAttributeOperation(address, ClientConstants.CONTENT);
+            final ModelNode result = controllerClient.execute(op);
+            if (Operations.isSuccessfulOutcome(result)) {
+                for (ModelNode content : Operations.readResult(result).asList()) {
+                    if (content.hasDefined("hash")) {
+                        contentCache.put(hash, content.get("hash").asBytes());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.debugf(e, "Failed to read the content hash for %s", name);
+        }
+        return name;
+    }
+
+    private boolean deployCached(final String name, final String hash, final ModelNode op) throws DeploymentException {
+        try {
+            final ModelNode result = controllerClient.execute(op);
+            if (Operations.isSuccessfulOutcome(result)) {
+                cacheHits.incrementAndGet();
+                cachedDeployments.put(name, hash);
+                log.debugf("Deployed %s from cached content", name);
+                return true;
+            }
+            // Most likely the content has been removed from the server's repository
+            log.debugf("Failed to deploy %s from cached content: %s", name, Operations.getFailureDescription(result));
+            contentCache.remove(hash);
+            return false;
+        } catch (IOException e) {
+            throw createException("Cannot deploy: " + name, e);
+        }
+    }
+
+    private boolean disable(final String name) {
+        try {
+            final ModelNode result = controllerClient.execute(Operations.createOperation(
+                    ClientConstants.DEPLOYMENT_UNDEPLOY_OPERATION, Operations.createAddress(ClientConstants.DEPLOYMENT, name)));
+            if (Operations.isSuccessfulOutcome(result)) {
+                return true;
+            }
+            log.debugf("Failed to disable %s: %s", name, Operations.getFailureDescription(result));
+        } catch (IOException e) {
+            log.debugf(e, "Failed to disable %s", name);
+        }
+        return false;
+    }
+
+    private void removeRetainedDeployment(final String name) {
+        if (retainedDeployments.remove(name) != null) {
+            remove(name);
+        }
+    }
+
+    private void remove(final String name) {
+        try {
+            final DeploymentResult result = deploymentManager
+                    .undeploy(UndeployDescription.of(name).setFailOnMissing(false));
+            if (!result.successful()) {
+                log.warnf("Failed to remove %s: %s", name, result.getFailureMessage());
+            }
+        } catch (Exception ex) {
+            log.warnf(ex, "Cannot remove: %s", name);
+        }
+    }
+
+    /**
+     * Creates a hash of the paths and contents in the archive. Unlike the exported archive, the hash does not depend
+     * on the time the archive was exported.
+     *
+     * @param archive the archive to hash
+     *
+     * @return the hex encoded hash
+     *
+     * @throws DeploymentException if the contents of the archive could not be read
+     */
+    private static String hashContents(final Archive<?> archive) throws DeploymentException {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            hashContents(digest, archive, new byte[8192]);
+            final StringBuilder result = new StringBuilder(40);
+            for (byte b : digest.digest()) {
+                result.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw createException("Cannot hash: " + archive.getName(), e);
+        }
+    }
+
+    private static void hashContents(final MessageDigest digest, final Archive<?> archive, final byte[] buffer)
+            throws IOException {
+        final Map<ArchivePath, Node> contents = archive.getContent();
+        final ArchivePath[] paths = contents.keySet().toArray(new ArchivePath[0]);
+        Arrays.sort(paths, Comparator.comparing(ArchivePath::get));
+        for (ArchivePath path : paths) {
+            digest.update(path.get().getBytes(StandardCharsets.UTF_8));
+            // Separate the path from the contents
+            digest.update((byte) 0);
+            final Asset asset = contents.get(path).getAsset();
+            if (asset instanceof ArchiveAsset) {
+                hashContents(digest, ((ArchiveAsset) asset).getArchive(), buffer);
+            } else if (asset != null) {
+                try (InputStream in = asset.openStream()) {
+                    int len;
+                    while ((len = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, len);
+                    }
+                }
+            }
+            digest.update((byte) 0);
+        }
+    }
+
+    private static void deleteContent(final Path content) {
+        if (content != null) {
+            try {
+                Files.deleteIfExists(content);
+                Files.deleteIfExists(content.getParent());
+            } catch (IOException e) {
+                log.warnf(e, "Failed to delete deployment content %s", content);
+            }
+        }
+    }
+
     private void checkState() {
         // Checks the state
         if (client != null && client.isClosed()) {
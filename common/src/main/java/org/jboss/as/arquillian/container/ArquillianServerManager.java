@@ -17,15 +17,33 @@ import org.wildfly.plugin.tools.server.ServerManager;
 /**
  * A delegating implementation of a {@link ServerManager} which does not allow {@link #shutdown()} attempts. If either
  * shutdown method is invoked, an {@link UnsupportedOperationException} will be thrown.
+ * <p>
+ * If the server process was launched by the container, the container can {@linkplain #restart() restart} it. The
+ * delegate is then replaced by one for the new process.
+ * </p>
  *
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
  */
-class ArquillianServerManager implements ServerManager {
+class ArquillianServerManager implements RestartableServerManager {
 
-    private final ServerManager delegate;
+    /**
+     * Restarts the server process and returns the server manager for the new process.
+     */
+    @FunctionalInterface
+    interface Restarter {
+        ServerManager restart() throws IOException;
+    }
+
+    private final Restarter restarter;
+    private volatile ServerManager delegate;
 
     ArquillianServerManager(ServerManager delegate) {
+        this(delegate, null);
+    }
+
+    ArquillianServerManager(final ServerManager delegate, final Restarter restarter) {
         this.delegate = delegate;
+        this.restarter = restarter;
     }
 
     @Override
@@ -93,6 +111,20 @@ class ArquillianServerManager implements ServerManager {
         throw new UnsupportedOperationException("Cannot shutdown a server managed by Arquillian");
     }
 
+    @Override
+    public boolean isRestartSupported() {
+        return restarter != null;
+    }
+
+    @Override
+    public synchronized void restart() throws IOException {
+        if (restarter == null) {
+            throw new UnsupportedOperationException(
+                    "The server process was not launched by Arquillian and cannot be restarted");
+        }
+        delegate = restarter.restart();
+    }
+
     @Override
     public void executeReload() throws IOException {
         delegate.executeReload();
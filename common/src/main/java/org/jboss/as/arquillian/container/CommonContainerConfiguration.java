@@ -35,6 +35,13 @@ public class CommonContainerConfiguration implements ContainerConfiguration {
      */
     private int connectionTimeout;
 
+    private String archiveExportMode = System.getProperty("wildfly.arquillian.archive.export.mode");
+
+    private boolean cacheDeploymentContent = Boolean
+            .parseBoolean(System.getProperty("wildfly.arquillian.deployment.cache", "false"));
+
+    private boolean residentArquillianService = Boolean.getBoolean("wildfly.arquillian.service.resident");
+
     public CommonContainerConfiguration() {
         managementAddress = "127.0.0.1";
         managementPort = 9990 + Integer.decode(System.getProperty("jboss.socket.binding.port-offset", "0"));
@@ -174,8 +181,77 @@ public class CommonContainerConfiguration implements ContainerConfiguration {
         this.socketBindingName = socketBindingName;
     }
 
+    /**
+     * Returns the mode used to export archives and send them to the server.
+     *
+     * @return the export mode or {@code null} for the default streaming mode
+     */
+    public String getArchiveExportMode() {
+        return archiveExportMode;
+    }
+
+    /**
+     * Sets the mode used to export archives and send them to the server. See {@link ArchiveDeployer.ExportMode} for the
+     * valid values. The {@code local} mode may only be used when the server has access to the local file system.
+     *
+     * @param archiveExportMode the export mode or {@code null} for the default streaming mode
+     */
+    public void setArchiveExportMode(final String archiveExportMode) {
+        this.archiveExportMode = archiveExportMode;
+    }
+
+    /**
+     * Indicates whether content already on the server is reused for archives with identical contents.
+     *
+     * @return {@code true} if deployment content is cached, otherwise {@code false}
+     */
+    public boolean isCacheDeploymentContent() {
+        return cacheDeploymentContent;
+    }
+
+    /**
+     * Sets whether content already on the server is reused for archives with identical contents. When enabled, an
+     * archive whose contents match a previously deployed archive is deployed by referencing the content hash on the
+     * server rather than being uploaded again. To keep the content on the server, archives are undeployed by disabling
+     * the deployment. The disabled deployments are removed when the container is stopped. The default is
+     * {@code false}.
+     *
+     * @param cacheDeploymentContent {@code true} to reuse content already on the server for archives with identical
+     *                                   contents
+     */
+    public void setCacheDeploymentContent(final boolean cacheDeploymentContent) {
+        this.cacheDeploymentContent = cacheDeploymentContent;
+    }
+
+    /**
+     * Indicates whether the Arquillian service deployment is left on the server after the container is stopped.
+     *
+     * @return {@code true} if the Arquillian service deployment is resident, otherwise {@code false}
+     */
+    public boolean isResidentArquillianService() {
+        return residentArquillianService;
+    }
+
+    /**
+     * Sets whether the Arquillian service deployment is left on the server after the container is stopped. When
+     * enabled, the service is only redeployed if the deployment on the server differs from the one the current run
+     * would deploy, in which case the deployment is replaced in place. This is intended for long-lived remote servers
+     * where every client uses the same version of the Arquillian service. A client with a different version replaces
+     * the deployment for all clients. The default is {@code false}.
+     *
+     * @param residentArquillianService {@code true} to leave the Arquillian service deployed
+     */
+    public void setResidentArquillianService(final boolean residentArquillianService) {
+        this.residentArquillianService = residentArquillianService;
+    }
+
     @Override
     public void validate() throws ConfigurationException {
+        try {
+            ArchiveDeployer.ExportMode.parse(archiveExportMode);
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid archive export mode " + archiveExportMode);
+        }
         if (username != null && password == null) {
             throw new ConfigurationException("username has been set, but no password given");
         }
@@ -36,6 +36,7 @@ public class CommonContainerExtension implements LoadableExtension {
         builder.service(AuxiliaryArchiveAppender.class, CommonContainerArchiveAppender.class);
 
         builder.observer(ServerSetupObserver.class);
+        builder.observer(ParallelStartObserver.class);
 
         // WildFlyContainerController
         builder
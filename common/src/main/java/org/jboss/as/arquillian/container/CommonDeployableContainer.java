@@ -8,6 +8,8 @@ import static org.jboss.as.arquillian.container.Authentication.getCallbackHandle
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -92,7 +94,8 @@ public abstract class CommonDeployableContainer<T extends CommonContainerConfigu
         managementClient = client;
         managementClientProducer.set(client);
 
-        archiveDeployer.set(new ArchiveDeployer(client));
+        archiveDeployer.set(new ArchiveDeployer(client, ArchiveDeployer.ExportMode.parse(config.getArchiveExportMode()),
+                config.isCacheDeploymentContent()));
     }
 
     @Override
@@ -151,6 +154,7 @@ public abstract class CommonDeployableContainer<T extends CommonContainerConfigu
     @Override
     public final void stop() throws LifecycleException {
         try {
+            removeRetainedDeployments();
             stopInternal(null);
         } finally {
             safeCloseClient();
@@ -159,6 +163,7 @@ public abstract class CommonDeployableContainer<T extends CommonContainerConfigu
 
     public final void stop(Integer timeout) throws LifecycleException {
         try {
+            removeRetainedDeployments();
             stopInternal(timeout);
         } finally {
             safeCloseClient();
@@ -297,6 +302,20 @@ public abstract class CommonDeployableContainer<T extends CommonContainerConfigu
         return getManagementClient().getProtocolMetaData(runtimeName);
     }
 
+    /**
+     * Deploys the archives in a single management operation. Either all the archives are deployed or, if one fails, none
+     * of them are. The protocol meta-data of all the deployments is then read with a single composite operation.
+     *
+     * @param archives the archives to deploy
+     *
+     * @return the protocol meta-data for each deployment keyed by the runtime name in the order of the archives
+     *
+     * @throws DeploymentException if an error happens during deployment
+     */
+    public Map<String, ProtocolMetaData> deploy(final Collection<? extends Archive<?>> archives) throws DeploymentException {
+        return getManagementClient().getProtocolMetaData(archiveDeployer.get().deploy(archives));
+    }
+
     @Override
     public void undeploy(Archive<?> archive) throws DeploymentException {
         archiveDeployer.get().undeploy(archive.getName());
@@ -312,6 +331,15 @@ public abstract class CommonDeployableContainer<T extends CommonContainerConfigu
         throw new UnsupportedOperationException("not implemented");
     }
 
+    private void removeRetainedDeployments() {
+        final ArchiveDeployer deployer = archiveDeployer.get();
+        final ManagementClient client = managementClient;
+        // Remove the deployments kept for the content cache so they are not left in the server configuration
+        if (deployer != null && client != null && !client.isClosed()) {
+            deployer.removeRetainedDeployments();
+        }
+    }
+
     private void safeCloseClient() {
         try {
             // Reset the client, this should close the internal resources and setup reinitialization
@@ -323,6 +351,7 @@ public abstract class CommonDeployableContainer<T extends CommonContainerConfigu
             Logger.getLogger(getClass()).warn("Caught exception closing ManagementClient", e);
         } finally {
             mccProvider.setDelegate(null);
+            JMXConnectionPool.closeUnused();
         }
     }
 
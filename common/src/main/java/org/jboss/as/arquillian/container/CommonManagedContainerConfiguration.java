@@ -41,6 +41,20 @@ public class CommonManagedContainerConfiguration extends CommonContainerConfigur
 
     private Integer waitForPortsTimeoutInSeconds;
 
+    private boolean detectStartupFromConsole = Boolean
+            .parseBoolean(System.getProperty("wildfly.arquillian.startup.console", "false"));
+
+    private boolean startInParallel = Boolean
+            .parseBoolean(System.getProperty("wildfly.arquillian.start.parallel", "false"));
+
+    private boolean useServerPool = Boolean.parseBoolean(System.getProperty("wildfly.arquillian.server.pool", "false"));
+
+    private int consoleHistoryLines = Integer.getInteger("wildfly.arquillian.console.history", 200);
+
+    private String consoleOutputFile = System.getProperty("wildfly.arquillian.console.file");
+
+    private boolean consoleVirtualThread = Boolean.getBoolean("wildfly.arquillian.console.virtual.thread");
+
     @Override
     public void validate() throws ConfigurationException {
         super.validate();
@@ -112,4 +126,124 @@ public class CommonManagedContainerConfiguration extends CommonContainerConfigur
     public void setWaitForPortsTimeoutInSeconds(final Integer waitForPortsTimeoutInSeconds) {
         this.waitForPortsTimeoutInSeconds = waitForPortsTimeoutInSeconds;
     }
+
+    /**
+     * Indicates whether a started server should be kept running when the container is stopped and handed to the next
+     * container start with the same configuration.
+     *
+     * @return {@code true} if the server should be pooled, otherwise {@code false}
+     */
+    public boolean isUseServerPool() {
+        return useServerPool;
+    }
+
+    /**
+     * Sets whether a started server should be kept running when the container is stopped. Instead of being shutdown,
+     * the server is reloaded with the configuration snapshot taken after it was first booted, the configuration file is
+     * rewritten and the server is then reused by the next container start with the same configuration. Pooled servers
+     * are destroyed when the JVM exits.
+     *
+     * @param useServerPool {@code true} to pool the server
+     */
+    public void setUseServerPool(final boolean useServerPool) {
+        this.useServerPool = useServerPool;
+    }
+
+    /**
+     * Indicates whether the console output of the server is used to detect when the server has started.
+     *
+     * @return {@code true} if the console output is used to detect the server has started
+     */
+    public boolean isDetectStartupFromConsole() {
+        return detectStartupFromConsole;
+    }
+
+    /**
+     * Sets whether the console output of the server is used to detect when the server has started. When enabled, the
+     * server state is read as soon as the boot complete message is written to the console rather than polling for the
+     * state. If the message is not seen, for example if console logging is disabled, the state is polled once a second.
+     *
+     * @param detectStartupFromConsole {@code true} to use the console output to detect the server has started
+     */
+    public void setDetectStartupFromConsole(final boolean detectStartupFromConsole) {
+        this.detectStartupFromConsole = detectStartupFromConsole;
+    }
+
+    /**
+     * Indicates whether the container returns as soon as the server process has been launched, allowing other
+     * containers to be launched while this server boots.
+     *
+     * @return {@code true} if the container should be started in parallel with other containers
+     */
+    public boolean isStartInParallel() {
+        return startInParallel;
+    }
+
+    /**
+     * Sets whether the container returns as soon as the server process has been launched. The server then boots in the
+     * background while other containers are launched. Arquillian waits for all containers which are starting once the
+     * suite or class containers have been launched, and before anything is deployed to the container.
+     *
+     * @param startInParallel {@code true} to start the container in parallel with other containers
+     */
+    public void setStartInParallel(final boolean startInParallel) {
+        this.startInParallel = startInParallel;
+    }
+
+    /**
+     * The number of lines of the console output kept in memory, which are reported if the server fails to start.
+     *
+     * @return the number of console lines to keep
+     */
+    public int getConsoleHistoryLines() {
+        return consoleHistoryLines;
+    }
+
+    /**
+     * Sets the number of lines of the console output kept in memory. The lines are reported if the server fails to
+     * start. A value of {@code 0} disables the history.
+     *
+     * @param consoleHistoryLines the number of console lines to keep
+     */
+    public void setConsoleHistoryLines(final int consoleHistoryLines) {
+        this.consoleHistoryLines = consoleHistoryLines;
+    }
+
+    /**
+     * The file the console output of the server is written to.
+     *
+     * @return the path to the file or {@code null} if the console output is not written to a file
+     */
+    public String getConsoleOutputFile() {
+        return consoleOutputFile;
+    }
+
+    /**
+     * Sets the file the console output of the server is written to. The file is written in the background and is
+     * independent of {@linkplain #isOutputToConsole() writing the output to the console}.
+     *
+     * @param consoleOutputFile the path to the file or {@code null} to not write the console output to a file
+     */
+    public void setConsoleOutputFile(final String consoleOutputFile) {
+        this.consoleOutputFile = consoleOutputFile;
+    }
+
+    /**
+     * Indicates whether the console output of the server is consumed on a virtual thread.
+     *
+     * @return {@code true} if a virtual thread is used, otherwise {@code false}
+     */
+    public boolean isConsoleVirtualThread() {
+        return consoleVirtualThread;
+    }
+
+    /**
+     * Sets whether the console output of the server is consumed on a virtual thread. If the JVM does not support virtual
+     * threads, a daemon thread is used. The default is {@code false}.
+     *
+     * @param consoleVirtualThread {@code true} to use a virtual thread
+     */
+    public void setConsoleVirtualThread(final boolean consoleVirtualThread) {
+        this.consoleVirtualThread = consoleVirtualThread;
+    }
 }
@@ -12,13 +12,23 @@ import java.io.InputStream;
 import java.net.DatagramSocket;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
+import org.jboss.arquillian.container.spi.client.container.DeploymentException;
 import org.jboss.arquillian.container.spi.client.container.LifecycleException;
+import org.jboss.arquillian.container.spi.client.protocol.metadata.ProtocolMetaData;
 import org.jboss.as.controller.client.helpers.Operations;
 import org.jboss.dmr.ModelNode;
 import org.jboss.logging.Logger;
+import org.jboss.shrinkwrap.api.Archive;
 import org.wildfly.core.launcher.CommandBuilder;
 import org.wildfly.core.launcher.Launcher;
 import org.wildfly.plugin.tools.server.ServerManager;
@@ -37,14 +47,21 @@ public abstract class CommonManagedDeployableContainer<T extends CommonManagedCo
 
     private static final int PORT_RANGE_MIN = 1;
     private static final int PORT_RANGE_MAX = 65535;
-    private Thread shutdownThread = null;
-    private Process process = null;
-    private boolean timeoutSupported = false;
+    private static final long STARTUP_POLL_INTERVAL = TimeUnit.SECONDS.toNanos(1L);
+    private volatile Thread shutdownThread = null;
+    private volatile Process process = null;
+    private volatile boolean timeoutSupported = false;
+    private volatile String snapshot = null;
+    private volatile CompletableFuture<Void> pendingStart = null;
+    private final List<Consumer<String>> consoleListeners = new CopyOnWriteArrayList<>();
 
     @Override
     @SuppressWarnings("FeatureEnvy")
     protected void startInternal() throws LifecycleException {
         final T config = getContainerConfiguration();
+        if (config.isUseServerPool() && startPooledServer(config)) {
+            return;
+        }
         if (isServerRunning(config)) {
             if (config.isAllowConnectingToRunningServer()) {
                 // Set up the server manager attempting to discover the process for monitoring purposes. We need the
@@ -68,21 +85,40 @@ public abstract class CommonManagedDeployableContainer<T extends CommonManagedCo
 
             getLogger().info("Starting container with: " + commandBuilder.build());
             final Process process = Launcher.of(commandBuilder).setRedirectErrorStream(true).launch();
-            new Thread(new ConsoleConsumer(process, config.isOutputToConsole())).start();
+            final ConsoleConsumer consoleConsumer = createConsoleConsumer(config, process.getInputStream())
+                    .start("wildfly-arquillian-console-" + process.pid(), config.isConsoleVirtualThread());
             shutdownThread = addShutdownHook(process);
             final StandaloneManager serverManager = ServerManager.builder()
                     .client(getManagementClient().getControllerClient())
                     .process(process)
                     .standalone();
 
-            long startupTimeout = config.getStartupTimeoutInSeconds();
-            if (!serverManager.waitFor(startupTimeout, TimeUnit.SECONDS)) {
-                destroyProcess(process);
-                throw new TimeoutException(String.format("Managed server was not started within [%d] s", startupTimeout));
+            if (config.isStartInParallel()) {
+                // Return once the process has been launched and wait for the server in the background
+                this.process = process;
+                serverManagerProducer.set(new ArquillianServerManager(serverManager, this::restartServer));
+                pendingStart = CompletableFuture.runAsync(() -> {
+                    try {
+                        completeStart(config, process, serverManager, consoleConsumer);
+                    } catch (Exception e) {
+                        failStart(process);
+                        throw new CompletionException(e);
+                    }
+                }, task -> {
+                    final Thread thread = new Thread(task, "wildfly-arquillian-start-" + process.pid());
+                    thread.setDaemon(true);
+                    thread.start();
+                });
+                return;
+            }
+            try {
+                completeStart(config, process, serverManager, consoleConsumer);
+            } catch (Exception e) {
+                failStart(process);
+                throw e;
             }
-            timeoutSupported = isOperationAttributeSupported("shutdown", "timeout");
             this.process = process;
-            serverManagerProducer.set(new ArquillianServerManager(serverManager));
+            serverManagerProducer.set(new ArquillianServerManager(serverManager, this::restartServer));
 
         } catch (LifecycleException e) {
             throw e;
@@ -91,6 +127,211 @@ public abstract class CommonManagedDeployableContainer<T extends CommonManagedCo
         }
     }
 
+    /**
+     * Waits for a container started with {@linkplain CommonManagedContainerConfiguration#isStartInParallel() parallel
+     * start} enabled to finish booting. If the container is not starting this returns immediately.
+     *
+     * @throws LifecycleException if the container failed to start
+     */
+    public void awaitStart() throws LifecycleException {
+        final CompletableFuture<Void> pendingStart = this.pendingStart;
+        if (pendingStart != null) {
+            try {
+                pendingStart.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LifecycleException("Interrupted while waiting for the container to start", e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof LifecycleException) {
+                    throw (LifecycleException) cause;
+                }
+                throw new LifecycleException("Could not start container", cause);
+            } finally {
+                this.pendingStart = null;
+            }
+        }
+    }
+
+    @Override
+    public ProtocolMetaData deploy(final Archive<?> archive) throws DeploymentException {
+        try {
+            awaitStart();
+        } catch (LifecycleException e) {
+            throw new DeploymentException("The container failed to start", e);
+        }
+        return super.deploy(archive);
+    }
+
+    private void completeStart(final T config, final Process process, final StandaloneManager serverManager,
+            final ConsoleConsumer consoleConsumer) throws Exception {
+        long startupTimeout = config.getStartupTimeoutInSeconds();
+        final boolean started;
+        if (config.isDetectStartupFromConsole()) {
+            started = waitForStart(serverManager, process, consoleConsumer, startupTimeout);
+        } else {
+            started = serverManager.waitFor(startupTimeout, TimeUnit.SECONDS);
+        }
+        if (!started) {
+            throw new TimeoutException(String.format("Managed server was not started within [%d] s%s", startupTimeout,
+                    formatHistory(consoleConsumer)));
+        }
+        timeoutSupported = isOperationAttributeSupported("shutdown", "timeout");
+        if (config.isUseServerPool()) {
+            // Record the boot configuration so the server can be reset before it's returned to the pool
+            snapshot = serverManager.takeSnapshot();
+        }
+    }
+
+    /**
+     * Shuts down the server process launched by this container and launches it again with its current configuration.
+     * A server in the {@code restart-required} state can only be brought back to the {@code running} state this way.
+     *
+     * @return the server manager for the new process
+     *
+     * @throws IOException if the server could not be restarted
+     */
+    private ServerManager restartServer() throws IOException {
+        final T config = getContainerConfiguration();
+        final Process process = this.process;
+        if (process == null) {
+            throw new IOException("No server process was launched by this container");
+        }
+        final long timeout = config.getStartupTimeoutInSeconds();
+        getLogger().infof("Restarting server process %d", process.pid());
+        try {
+            if (process.isAlive()) {
+                final ModelNode result = getModelControllerClient().execute(Operations.createOperation("shutdown"));
+                if (!Operations.isSuccessfulOutcome(result)) {
+                    getLogger().errorf("Failed to shutdown the server: %s",
+                            Operations.getFailureDescription(result).asString());
+                    process.destroyForcibly();
+                }
+            }
+            if (!process.waitFor(timeout, TimeUnit.SECONDS)) {
+                getLogger().warnf("The container process did not exit within %d seconds. Forcibly destroying the process.",
+                        timeout);
+                destroyProcess(process);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the server to shutdown", e);
+        } catch (Exception e) {
+            throw new IOException("Failed to shutdown the server", e);
+        } finally {
+            if (shutdownThread != null) {
+                Runtime.getRuntime().removeShutdownHook(shutdownThread);
+                shutdownThread = null;
+            }
+            this.process = null;
+        }
+        // The boot configuration of a pooled server is taken again once the new process has started
+        ManagedServerPool.deleteSnapshot(snapshot);
+        snapshot = null;
+        try {
+            final CommandBuilder commandBuilder = createCommandBuilder(config);
+            waitOnPorts(config);
+            getLogger().info("Starting container with: " + commandBuilder.build());
+            final Process newProcess = Launcher.of(commandBuilder).setRedirectErrorStream(true).launch();
+            final ConsoleConsumer consoleConsumer = createConsoleConsumer(config, newProcess.getInputStream())
+                    .start("wildfly-arquillian-console-" + newProcess.pid(), config.isConsoleVirtualThread());
+            shutdownThread = addShutdownHook(newProcess);
+            final StandaloneManager serverManager = ServerManager.builder()
+                    .client(getManagementClient().getControllerClient())
+                    .process(newProcess)
+                    .standalone();
+            try {
+                completeStart(config, newProcess, serverManager, consoleConsumer);
+            } catch (Exception e) {
+                failStart(newProcess);
+                throw e;
+            }
+            this.process = newProcess;
+            return serverManager;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to restart the server", e);
+        }
+    }
+
+    /**
+     * Destroys the process of a server which failed to start and removes its shutdown hook.
+     */
+    private void failStart(final Process process) {
+        try {
+            destroyProcess(process);
+        } catch (Exception e) {
+            getLogger().warnf(e, "Failed to destroy the process %d of the server which failed to start", process.pid());
+        } finally {
+            final Thread shutdownThread = this.shutdownThread;
+            if (shutdownThread != null) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(shutdownThread);
+                } catch (IllegalStateException ignore) {
+                    // The JVM is already shutting down
+                }
+                this.shutdownThread = null;
+            }
+            this.process = null;
+        }
+    }
+
+    /**
+     * Adds a listener which is notified of each line the server writes to the console. Listeners are invoked on the
+     * thread consuming the console output and should return quickly. The listener is used for each server launched
+     * after it has been added.
+     *
+     * @param listener the listener to add
+     */
+    public void addConsoleListener(final Consumer<String> listener) {
+        consoleListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener previously {@linkplain #addConsoleListener(Consumer) added}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeConsoleListener(final Consumer<String> listener) {
+        consoleListeners.remove(listener);
+    }
+
+    private ConsoleConsumer createConsoleConsumer(final T config, final InputStream stream) {
+        final String outputFile = config.getConsoleOutputFile();
+        return new ConsoleConsumer(stream, config.isOutputToConsole(), config.getConsoleHistoryLines(),
+                outputFile == null || outputFile.isBlank() ? null : Path.of(outputFile), consoleListeners);
+    }
+
+    private static String formatHistory(final ConsoleConsumer consoleConsumer) {
+        final List<String> history = consoleConsumer.getHistory();
+        if (history.isEmpty()) {
+            return "";
+        }
+        final String lineSeparator = System.lineSeparator();
+        return lineSeparator + "Last " + history.size() + " line(s) of the console output:" + lineSeparator
+                + String.join(lineSeparator, history);
+    }
+
+    /**
+     * Waits for the server to start. The server state is read each time the console reports the server has booted,
+     * otherwise the state is polled once a second in case the message is not written to the console.
+     *
+     * @return {@code true} if the server started, {@code false} if the process died or the timeout was reached
+     */
+    private static boolean waitForStart(final ServerManager serverManager, final Process process,
+            final ConsoleConsumer consoleConsumer, final long timeout) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+        while (!serverManager.isRunning()) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0L || !process.isAlive()) {
+                return false;
+            }
+            consoleConsumer.awaitBootMessage(Math.min(remaining, STARTUP_POLL_INTERVAL), TimeUnit.NANOSECONDS);
+        }
+        return true;
+    }
+
     /**
      * Returns the command builder used to launch the server.
      *
@@ -168,6 +409,23 @@ public abstract class CommonManagedDeployableContainer<T extends CommonManagedCo
 
     @Override
     protected void stopInternal(final Integer timeout) throws LifecycleException {
+        final CompletableFuture<Void> pendingStart = this.pendingStart;
+        if (pendingStart != null) {
+            // Let the boot finish, or fail, so the background wait does not race with the shutdown below
+            this.pendingStart = null;
+            try {
+                pendingStart.get(getContainerConfiguration().getStartupTimeoutInSeconds(), TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                getLogger().debug("The container did not start before it was stopped", e);
+            }
+        }
+        if (getContainerConfiguration().isUseServerPool() && releasePooledServer()) {
+            return;
+        }
+        final String snapshot = this.snapshot;
+        this.snapshot = null;
         if (shutdownThread != null) {
             Runtime.getRuntime().removeShutdownHook(shutdownThread);
             shutdownThread = null;
@@ -220,9 +478,96 @@ public abstract class CommonManagedDeployableContainer<T extends CommonManagedCo
             } catch (Exception ignore) {
             }
             throw new LifecycleException("Could not stop container", e);
+        } finally {
+            ManagedServerPool.deleteSnapshot(snapshot);
         }
     }
 
+    /**
+     * Attempts to take a running server from the {@linkplain ManagedServerPool pool}.
+     *
+     * @param config the container configuration
+     *
+     * @return {@code true} if a pooled server is being used, otherwise {@code false}
+     */
+    private boolean startPooledServer(final T config) {
+        final ManagedServerPool.PooledServer pooled = ManagedServerPool.acquire(ManagedServerPool.createKey(config));
+        if (pooled == null) {
+            return false;
+        }
+        final StandaloneManager serverManager = ServerManager.builder()
+                .client(getManagementClient().getControllerClient())
+                .process(pooled.process)
+                .standalone();
+        if (!pooled.process.isAlive() || !serverManager.isRunning()) {
+            getLogger().warnf("Pooled server process %d is no longer running. A new server will be started.",
+                    pooled.process.pid());
+            Runtime.getRuntime().removeShutdownHook(pooled.shutdownThread);
+            pooled.process.destroyForcibly();
+            ManagedServerPool.deleteSnapshot(pooled.snapshot);
+            return false;
+        }
+        getLogger().infof("Using pooled server process %d", pooled.process.pid());
+        process = pooled.process;
+        shutdownThread = pooled.shutdownThread;
+        snapshot = pooled.snapshot;
+        timeoutSupported = pooled.timeoutSupported;
+        serverManagerProducer.set(new ArquillianServerManager(serverManager, this::restartServer));
+        return true;
+    }
+
+    /**
+     * Resets the running server to the configuration it was booted with and places it in the
+     * {@linkplain ManagedServerPool pool}.
+     *
+     * @return {@code true} if the server was pooled, {@code false} if the server should be stopped
+     */
+    private boolean releasePooledServer() {
+        final Process process = this.process;
+        if (process == null || snapshot == null || !process.isAlive()) {
+            return false;
+        }
+        final Logger logger = getLogger();
+        try {
+            final StandaloneManager serverManager = ServerManager.builder()
+                    .client(getModelControllerClient())
+                    .process(process)
+                    .standalone();
+            final ModelNode op = Operations.createOperation("reload");
+            op.get("server-config").set(snapshot);
+            serverManager.executeReload(op);
+            final long timeout = getContainerConfiguration().getStartupTimeoutInSeconds();
+            if (!serverManager.waitFor(timeout, TimeUnit.SECONDS)) {
+                logger.warnf("Server was not reset within %d seconds and will not be pooled.", timeout);
+                return false;
+            }
+            // The server booted from the snapshot, but the configuration file is only written on the next change. Write
+            // it now so the configuration file no longer contains the changes made by the tests.
+            final ModelNode result = getModelControllerClient().execute(Operations.createOperation("write-config"));
+            if (!Operations.isSuccessfulOutcome(result)) {
+                logger.warnf("Failed to write the reset configuration and the server will not be pooled: %s",
+                        Operations.getFailureDescription(result).asString());
+                return false;
+            }
+            // The snapshot is still the boot configuration, so it is kept for the next reset
+            final ManagedServerPool.PooledServer pooled = new ManagedServerPool.PooledServer(process, shutdownThread,
+                    snapshot, timeoutSupported);
+            if (ManagedServerPool.release(ManagedServerPool.createKey(getContainerConfiguration()), pooled)) {
+                logger.infof("Server process %d has been reset and returned to the pool", process.pid());
+                this.process = null;
+                this.shutdownThread = null;
+                this.snapshot = null;
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while resetting the server. The server will be stopped.", e);
+        } catch (Exception e) {
+            logger.warn("Failed to reset the server. The server will be stopped.", e);
+        }
+        return false;
+    }
+
     private boolean isServerRunning(final T config) {
         Socket socket = null;
         try {
@@ -257,36 +602,4 @@ public abstract class CommonManagedDeployableContainer<T extends CommonManagedCo
                         "set allowConnectingToRunningServer to true in the container configuration",
                         managementPort));
     }
-
-    /**
-     * Runnable that consumes the output of the process. If nothing consumes the output the AS will hang on some platforms
-     *
-     * @author Stuart Douglas
-     */
-    private static class ConsoleConsumer implements Runnable {
-        private final Process process;
-        private final boolean writeOutput;
-
-        private ConsoleConsumer(final Process process, final boolean writeOutput) {
-            this.process = process;
-            this.writeOutput = writeOutput;
-        }
-
-        @Override
-        @SuppressWarnings("UseOfSystemOutOrSystemErr")
-        public void run() {
-            final InputStream stream = process.getInputStream();
-
-            try {
-                byte[] buf = new byte[32];
-                int num;
-                // Do not try reading a line cos it considers '\r' end of line
-                while ((num = stream.read(buf)) != -1) {
-                    if (writeOutput)
-                        System.out.write(buf, 0, num);
-                }
-            } catch (IOException ignore) {
-            }
-        }
-    }
 }
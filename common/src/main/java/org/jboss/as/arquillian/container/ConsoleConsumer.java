@@ -0,0 +1,344 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.jboss.as.arquillian.container;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Consumes the output of the process. If nothing consumes the output the AS will hang on some platforms.
+ * <p>
+ * The output is read in large chunks and written as is to {@link System#out} and the optional output file. Lines are
+ * only framed on {@code '\n'}, as a {@code '\r'} does not end a line in the server output. Each line is added to a
+ * bounded history of the last lines, which can be used for diagnostics, and passed to the listeners. Lines longer than
+ * {@value #MAX_LINE_LENGTH} bytes are truncated for the history and the listeners, but are written in full.
+ * </p>
+ * <p>
+ * The output file is written on a separate thread. If the file cannot be written as fast as the process writes its
+ * output, the output which does not fit in the buffers is dropped from the file rather than blocking the process. The
+ * number of dropped bytes is logged once the process output is closed.
+ * </p>
+ */
+public final class ConsoleConsumer implements Runnable {
+    private static final Logger LOGGER = Logger.getLogger(ConsoleConsumer.class);
+    // WFLYSRV0025 is logged when the server has started, WFLYSRV0026 when it has started with errors
+    private static final String BOOT_MESSAGE_PREFIX = "WFLYSRV002";
+    private static final int BUFFER_SIZE = 16384;
+    private static final int LINE_SIZE = 256;
+    static final int MAX_LINE_LENGTH = 8192;
+    private static final String TRUNCATED = "...";
+
+    private final InputStream stream;
+    private final boolean writeOutput;
+    private final int historySize;
+    private final Path outputFile;
+    private final Collection<Consumer<String>> listeners;
+    private final Semaphore bootMessages = new Semaphore(0);
+    private final ArrayDeque<String> history;
+    private final Charset charset;
+    private byte[] line;
+    private int lineLength;
+    private boolean truncated;
+
+    /**
+     * Creates a new console consumer.
+     *
+     * @param stream      the stream to consume
+     * @param writeOutput {@code true} if the output should be written to {@link System#out}
+     * @param historySize the number of lines to keep for diagnostics
+     * @param outputFile  the file the output is written to or {@code null} if the output should not be written to a
+     *                        file
+     * @param listeners   the listeners notified of each line, the collection must be safe to iterate while it is
+     *                        modified
+     */
+    public ConsoleConsumer(final InputStream stream, final boolean writeOutput, final int historySize, final Path outputFile,
+            final Collection<Consumer<String>> listeners) {
+        this.stream = stream;
+        this.writeOutput = writeOutput;
+        this.historySize = Math.max(historySize, 0);
+        this.outputFile = outputFile;
+        this.listeners = listeners;
+        history = new ArrayDeque<>(Math.min(this.historySize, 1024));
+        charset = Charset.defaultCharset();
+        line = new byte[LINE_SIZE];
+    }
+
+    /**
+     * Starts consuming the output on a new daemon thread.
+     *
+     * @param name the name of the thread
+     *
+     * @return this consumer
+     */
+    public ConsoleConsumer start(final String name) {
+        return start(name, false);
+    }
+
+    /**
+     * Starts consuming the output on a new thread.
+     *
+     * @param name          the name of the thread
+     * @param virtualThread {@code true} to use a virtual thread if the JVM supports them, otherwise a daemon thread is
+     *                          used
+     *
+     * @return this consumer
+     */
+    public ConsoleConsumer start(final String name, final boolean virtualThread) {
+        if (virtualThread) {
+            try {
+                final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                builderType.getMethod("name", String.class).invoke(builder, name);
+                builderType.getMethod("start", Runnable.class).invoke(builder, this);
+                return this;
+            } catch (ReflectiveOperationException e) {
+                LOGGER.debugf("Virtual threads are not supported, a platform thread is used for %s", name);
+            }
+        }
+        final Thread thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Waits for a boot complete message to be written to the console or for the console to be closed.
+     */
+    public void awaitBootMessage(final long timeout, final TimeUnit unit) throws InterruptedException {
+        bootMessages.tryAcquire(timeout, unit);
+    }
+
+    /**
+     * Returns a copy of the last lines written to the console.
+     *
+     * @return the last lines, oldest first
+     */
+    public List<String> getHistory() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseOfSystemOutOrSystemErr")
+    public void run() {
+        final FileSink fileSink = outputFile == null ? null : FileSink.start(outputFile);
+        try {
+            byte[] buf = new byte[BUFFER_SIZE];
+            int num;
+            while ((num = stream.read(buf)) != -1) {
+                if (writeOutput) {
+                    System.out.write(buf, 0, num);
+                    System.out.flush();
+                }
+                frameLines(buf, num);
+                if (fileSink != null) {
+                    // The buffer is handed to the file sink, which returns a free buffer for the next read
+                    buf = fileSink.write(buf, num);
+                }
+            }
+        } catch (IOException ignore) {
+        } finally {
+            if (lineLength > 0) {
+                lineComplete();
+            }
+            if (fileSink != null) {
+                fileSink.close();
+            }
+            // Wake any waiter as no further messages will be written
+            bootMessages.release();
+        }
+    }
+
+    private void frameLines(final byte[] buf, final int len) {
+        int start = 0;
+        for (int i = 0; i < len; i++) {
+            if (buf[i] == '\n') {
+                append(buf, start, i - start);
+                lineComplete();
+                start = i + 1;
+            }
+        }
+        append(buf, start, len - start);
+    }
+
+    private void append(final byte[] buf, final int offset, final int len) {
+        if (len == 0 || truncated) {
+            return;
+        }
+        // Keep one byte more than the limit to detect a trailing '\r' of a line at the limit
+        final int count = Math.min(len, MAX_LINE_LENGTH + 1 - lineLength);
+        if (count < len) {
+            truncated = true;
+        }
+        if (lineLength + count > line.length) {
+            line = Arrays.copyOf(line, Math.min(Math.max(line.length * 2, lineLength + count), MAX_LINE_LENGTH + 1));
+        }
+        System.arraycopy(buf, offset, line, lineLength, count);
+        lineLength += count;
+    }
+
+    private void lineComplete() {
+        int len = lineLength;
+        if (len > 0 && line[len - 1] == '\r') {
+            len--;
+        }
+        final String value;
+        if (truncated || len > MAX_LINE_LENGTH) {
+            value = new String(line, 0, Math.min(len, MAX_LINE_LENGTH), charset) + TRUNCATED;
+        } else {
+            value = new String(line, 0, len, charset);
+        }
+        lineLength = 0;
+        truncated = false;
+        // Release the memory of a long line rather than keeping it for the rest of the process
+        if (line.length > LINE_SIZE * 4) {
+            line = new byte[LINE_SIZE];
+        }
+        final int index = value.indexOf(BOOT_MESSAGE_PREFIX);
+        if (index >= 0 && index + BOOT_MESSAGE_PREFIX.length() < value.length()) {
+            final char c = value.charAt(index + BOOT_MESSAGE_PREFIX.length());
+            if (c == '5' || c == '6') {
+                bootMessages.release();
+            }
+        }
+        if (historySize > 0) {
+            synchronized (history) {
+                if (history.size() == historySize) {
+                    history.removeFirst();
+                }
+                history.addLast(value);
+            }
+        }
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(value);
+            } catch (Throwable t) {
+                LOGGER.debugf(t, "Console listener %s failed", listener);
+            }
+        }
+    }
+
+    /**
+     * Writes the output to a file on a separate thread so a slow disk does not block the process. The buffers are
+     * recycled, so the output is never copied. If no free buffer is available, the output is dropped.
+     */
+    private static class FileSink implements Runnable {
+        // The number of buffers which may be waiting to be written
+        private static final int BUFFERS = 64;
+        private static final Chunk EOF = new Chunk(new byte[0], 0);
+
+        private final Path file;
+        private final BlockingQueue<Chunk> queue;
+        private final BlockingQueue<byte[]> free;
+        // Only updated by the console consumer thread
+        private volatile long dropped;
+
+        private FileSink(final Path file) {
+            this.file = file;
+            // One buffer is always held by the console consumer, so there is always room for the EOF
+            queue = new ArrayBlockingQueue<>(BUFFERS + 1);
+            free = new ArrayBlockingQueue<>(BUFFERS);
+            for (int i = 1; i < BUFFERS; i++) {
+                free.add(new byte[BUFFER_SIZE]);
+            }
+        }
+
+        static FileSink start(final Path file) {
+            final FileSink sink = new FileSink(file);
+            final Thread thread = new Thread(sink, "wildfly-arquillian-console-" + file.getFileName());
+            thread.setDaemon(true);
+            thread.start();
+            return sink;
+        }
+
+        /**
+         * Queues the buffer to be written and returns a free buffer. If no buffer is free, the output is dropped and
+         * the same buffer is returned.
+         */
+        byte[] write(final byte[] buf, final int len) {
+            final byte[] next = free.poll();
+            if (next == null) {
+                dropped += len;
+                return buf;
+            }
+            queue.add(new Chunk(buf, len));
+            return next;
+        }
+
+        void close() {
+            queue.add(EOF);
+        }
+
+        @Override
+        public void run() {
+            try {
+                final Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    Chunk chunk;
+                    while ((chunk = queue.take()) != EOF) {
+                        out.write(chunk.bytes, 0, chunk.length);
+                        free.add(chunk.bytes);
+                        // Only flush once the queued output has been written
+                        if (queue.isEmpty()) {
+                            out.flush();
+                        }
+                    }
+                }
+                if (dropped > 0L) {
+                    LOGGER.warnf("Dropped %d bytes of console output which could not be written to %s in time", dropped,
+                            file);
+                }
+            } catch (IOException e) {
+                LOGGER.warnf(e, "Failed to write the console output to %s", file);
+                drain();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void drain() {
+            // Keep recycling the buffers so the output is discarded
+            try {
+                Chunk chunk;
+                while ((chunk = queue.take()) != EOF) {
+                    free.add(chunk.bytes);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class Chunk {
+        private final byte[] bytes;
+        private final int length;
+
+        private Chunk(final byte[] bytes, final int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+    }
+}
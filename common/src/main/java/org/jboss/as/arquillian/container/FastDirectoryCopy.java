@@ -0,0 +1,193 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.jboss.as.arquillian.container;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Copies and deletes server directories as quickly as the file system allows.
+ * <p>
+ * On Linux a copy is first attempted with {@code cp --reflink=always}, which shares the data blocks on copy-on-write
+ * file systems. If that is not possible, the files are copied in parallel. Files in the content repository are
+ * immutable, so they are hard linked rather than copied when the file system supports it.
+ * </p>
+ * <p>
+ * Directories are deleted by moving them aside and deleting them in a daemon thread. If the JVM exits before a delete
+ * completes, the moved directory is left behind. These directories are deleted the next time a sibling directory is
+ * copied or deleted.
+ * </p>
+ */
+public final class FastDirectoryCopy {
+    private static final Logger LOGGER = Logger.getLogger(FastDirectoryCopy.class);
+    private static final boolean LINUX = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("linux");
+    private static final String CONTENT_DIR = "content";
+    private static final String DELETE_SUFFIX = ".delete-";
+    // The directories currently being deleted by this JVM
+    private static final Set<Path> DELETING = ConcurrentHashMap.newKeySet();
+
+    private FastDirectoryCopy() {
+    }
+
+    /**
+     * Copies the directory. The target directory must not exist.
+     *
+     * @param from the directory to copy
+     * @param to   the target directory
+     *
+     * @throws IOException if the directory could not be copied
+     */
+    public static void copy(final Path from, final Path to) throws IOException {
+        deleteStale(to);
+        if (LINUX && reflink(from, to)) {
+            return;
+        }
+        // Create the directories first, then copy the files concurrently
+        final List<Path> files = new ArrayList<>();
+        Files.walkFileTree(from, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+                Files.copy(dir, to.resolve(from.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        try {
+            files.parallelStream().forEach(file -> {
+                final Path relative = from.relativize(file);
+                final Path target = to.resolve(relative);
+                try {
+                    if (!(relative.startsWith(CONTENT_DIR) && link(file, target))) {
+                        Files.copy(file, target);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Moves the directory aside and deletes it in a background thread.
+     *
+     * @param dir the directory to delete
+     *
+     * @throws IOException if the directory could not be moved
+     */
+    public static void deleteInBackground(final Path dir) throws IOException {
+        final Path toDelete = dir.resolveSibling(dir.getFileName() + DELETE_SUFFIX + System.nanoTime());
+        Files.move(dir, toDelete, StandardCopyOption.ATOMIC_MOVE);
+        delete(toDelete);
+    }
+
+    /**
+     * Deletes, in a background thread, the directories a previous {@link #deleteInBackground(Path)} of the directory
+     * moved aside but did not delete.
+     *
+     * @param dir the directory whose stale copies should be deleted
+     */
+    public static void deleteStale(final Path dir) {
+        final Path parent = dir.toAbsolutePath().getParent();
+        if (parent == null || !Files.isDirectory(parent)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(parent, dir.getFileName() + DELETE_SUFFIX + "*")) {
+            for (Path stale : stream) {
+                if (Files.isDirectory(stale)) {
+                    delete(stale);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debugf(e, "Failed to find stale directories of %s", dir);
+        }
+    }
+
+    private static void delete(final Path toDelete) {
+        if (!DELETING.add(toDelete.toAbsolutePath())) {
+            return;
+        }
+        final Thread thread = new Thread(() -> {
+            try {
+                Files.walkFileTree(toDelete, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) throws IOException {
+                        Files.delete(dir);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                        Files.delete(file);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                LOGGER.warnf(e, "Failed to delete directory %s", toDelete);
+            } finally {
+                DELETING.remove(toDelete.toAbsolutePath());
+            }
+        }, "wildfly-arquillian-delete");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static boolean reflink(final Path from, final Path to) {
+        try {
+            final Process process = new ProcessBuilder("cp", "-R", "--reflink=always", from.toString(), to.toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (process.waitFor(1L, TimeUnit.MINUTES) && process.exitValue() == 0) {
+                return true;
+            }
+            process.destroyForcibly();
+        } catch (IOException e) {
+            LOGGER.debugf(e, "Failed to copy %s with reflinks", from);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Remove anything partially copied before falling back to a regular copy
+        try {
+            if (Files.exists(to)) {
+                deleteInBackground(to);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return false;
+    }
+
+    private static boolean link(final Path file, final Path target) {
+        try {
+            Files.createLink(target, file);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+}
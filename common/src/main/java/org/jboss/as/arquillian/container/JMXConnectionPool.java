@@ -0,0 +1,606 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.container;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.IntrospectionException;
+import javax.management.InvalidAttributeValueException;
+import javax.management.ListenerNotFoundException;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServerConnection;
+import javax.management.NotCompliantMBeanException;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
+import javax.management.ObjectInstance;
+import javax.management.ObjectName;
+import javax.management.QueryExp;
+import javax.management.ReflectionException;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.jboss.logging.Logger;
+
+/**
+ * A JVM wide pool of {@linkplain JMXConnector JMX connectors} keyed by the {@linkplain JMXServiceURL service URL} and
+ * the authentication settings. Each {@linkplain #acquire(JMXServiceURL, Map) acquired} connection shares the
+ * connector, so the remoting handshake and authentication happen once rather than for each user of the connection.
+ * <p>
+ * A connector which has not been used recently is checked before it's handed out, and the returned
+ * {@link MBeanServerConnection} reconnects if the connection is lost, for example after the server has been reloaded.
+ * Only read operations are retried on a new connection. Operations which may change the state of the server, for
+ * example {@code invoke}, throw the {@link IOException} as the server may have already executed them.
+ * Connectors which are no longer referenced are closed once they have been idle for
+ * {@code wildfly.arquillian.jmx.idle.timeout} milliseconds, which defaults to 60 seconds, when the container is
+ * stopped, or when the JVM shuts down.
+ * </p>
+ */
+public final class JMXConnectionPool {
+    private static final Logger LOGGER = Logger.getLogger(JMXConnectionPool.class);
+    private static final long IDLE_TIMEOUT = TimeUnit.MILLISECONDS
+            .toNanos(Long.getLong("wildfly.arquillian.jmx.idle.timeout", 60000L));
+    private static final long VALIDATION_INTERVAL = TimeUnit.SECONDS.toNanos(5L);
+    private static final Map<String, PooledConnector> CONNECTORS = new ConcurrentHashMap<>();
+
+    static {
+        final Thread hook = new Thread(() -> {
+            CONNECTORS.values().forEach(PooledConnector::close);
+            CONNECTORS.clear();
+        }, "jmx-connection-pool-shutdown");
+        Runtime.getRuntime().addShutdownHook(hook);
+    }
+
+    private JMXConnectionPool() {
+    }
+
+    /**
+     * Acquires a connection from the pool. The connection must be {@linkplain Connection#close() closed} to release
+     * it back to the pool.
+     *
+     * @param serviceURL  the service URL to connect to
+     * @param environment the environment used to create the connector, may be {@code null}
+     *
+     * @return the connection
+     *
+     * @throws IOException if a connection could not be made
+     */
+    public static Connection acquire(final JMXServiceURL serviceURL, final Map<String, ?> environment) throws IOException {
+        evictIdle();
+        final String key = createKey(serviceURL, environment);
+        final PooledConnector connector = CONNECTORS.compute(key, (k, current) -> {
+            final PooledConnector result = current == null ? new PooledConnector(serviceURL, environment) : current;
+            result.references++;
+            return result;
+        });
+        try {
+            connector.validate(false);
+            return new Connection(key, connector, new MBeanConnectionProxy(connector));
+        } catch (IOException | RuntimeException e) {
+            release(key, connector);
+            throw e;
+        }
+    }
+
+    private static void release(final String key, final PooledConnector connector) {
+        CONNECTORS.computeIfPresent(key, (k, current) -> {
+            if (current == connector) {
+                current.references--;
+                current.lastUsed = System.nanoTime();
+            }
+            return current;
+        });
+        evictIdle();
+    }
+
+    /**
+     * Closes all connectors which are not currently referenced, regardless of how long they have been idle. This is
+     * invoked when a container is stopped as the pool may not be used again to evict them.
+     */
+    public static void closeUnused() {
+        evict(-1L);
+    }
+
+    private static void evictIdle() {
+        evict(IDLE_TIMEOUT);
+    }
+
+    private static void evict(final long idleTimeout) {
+        final long now = System.nanoTime();
+        CONNECTORS.forEach((key, connector) -> {
+            final PooledConnector[] evicted = new PooledConnector[1];
+            // Remove the connector only if it is still unreferenced and idle
+            CONNECTORS.computeIfPresent(key, (k, current) -> {
+                if (current.references <= 0 && (now - current.lastUsed) > idleTimeout) {
+                    evicted[0] = current;
+                    return null;
+                }
+                return current;
+            });
+            if (evicted[0] != null) {
+                evicted[0].close();
+            }
+        });
+    }
+
+    /**
+     * Creates the key for the pool. String, number and boolean values, URLs and URIs of the environment are used as is.
+     * Other values are keyed on their identity, except for the {@linkplain Authentication#getCallbackHandler() callback
+     * handler} which is created for each connection. A digest of the credentials it supplies is included instead.
+     */
+    private static String createKey(final JMXServiceURL serviceURL, final Map<String, ?> environment) {
+        final StringBuilder key = new StringBuilder(serviceURL.toString());
+        if (environment != null) {
+            final Map<String, ?> sorted = new TreeMap<>(environment);
+            sorted.forEach((name, value) -> {
+                key.append('|').append(name).append('=');
+                if (value instanceof String || value instanceof Number || value instanceof Boolean
+                        || value instanceof URL || value instanceof URI) {
+                    key.append(value);
+                } else if (value instanceof Authentication.CallbackHandler) {
+                    key.append(value.getClass().getName());
+                } else if (value != null) {
+                    key.append(value.getClass().getName()).append('@').append(System.identityHashCode(value));
+                }
+            });
+        }
+        final String username = Authentication.username;
+        if (username != null && !username.isEmpty()) {
+            // Only a digest of the credentials is kept so they do not appear in logs or heap dumps
+            key.append('|').append(digest(username + ':' + Authentication.password));
+        }
+        return key.toString();
+    }
+
+    private static String digest(final String value) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder result = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                result.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A connection acquired from the pool.
+     */
+    public static final class Connection implements Closeable {
+        private final String key;
+        private final PooledConnector connector;
+        private final MBeanServerConnection connection;
+        private boolean closed;
+
+        private Connection(final String key, final PooledConnector connector, final MBeanServerConnection connection) {
+            this.key = key;
+            this.connector = connector;
+            this.connection = connection;
+        }
+
+        /**
+         * Returns the connection to the MBean server. The connection reconnects if the underlying connector is lost.
+         *
+         * @return the connection
+         */
+        public MBeanServerConnection getMBeanServerConnection() {
+            return connection;
+        }
+
+        /**
+         * Releases the connection back to the pool.
+         */
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                release(key, connector);
+            }
+        }
+    }
+
+    private static class PooledConnector {
+        private final JMXServiceURL serviceURL;
+        private final Map<String, ?> environment;
+        // Guarded by the map computation
+        private int references;
+        private volatile long lastUsed;
+        private JMXConnector connector;
+        private long lastValidated;
+        private boolean invalidated;
+
+        private PooledConnector(final JMXServiceURL serviceURL, final Map<String, ?> environment) {
+            this.serviceURL = serviceURL;
+            this.environment = environment;
+            this.lastUsed = System.nanoTime();
+        }
+
+        synchronized MBeanServerConnection getConnection() throws IOException {
+            if (connector == null) {
+                LOGGER.debugf("Connecting JMXConnector to: %s", serviceURL);
+                connector = JMXConnectorFactory.connect(serviceURL, environment);
+                lastValidated = System.nanoTime();
+            }
+            return connector.getMBeanServerConnection();
+        }
+
+        /**
+         * Checks the connection, reconnecting if it has been lost. Unless forced, a connection which was checked
+         * recently is assumed to be valid.
+         *
+         * @param force {@code true} to always check the connection
+         *
+         * @return {@code true} if the connection was valid, {@code false} if a new connection was made
+         *
+         * @throws IOException if a new connection could not be made
+         */
+        synchronized boolean validate(final boolean force) throws IOException {
+            final long now = System.nanoTime();
+            if (connector != null && (force || invalidated || (now - lastValidated) > VALIDATION_INTERVAL)) {
+                invalidated = false;
+                try {
+                    connector.getMBeanServerConnection().getDefaultDomain();
+                    lastValidated = now;
+                    return true;
+                } catch (IOException e) {
+                    LOGGER.debug("JMX connection error.", e);
+                    close();
+                }
+            }
+            final boolean valid = connector != null;
+            getConnection();
+            return valid;
+        }
+
+        /**
+         * Forces the connection to be checked the next time it is {@linkplain #validate(boolean) validated}.
+         */
+        synchronized void invalidate() {
+            invalidated = true;
+        }
+
+        synchronized void close() {
+            if (connector != null) {
+                try {
+                    connector.close();
+                } catch (Throwable ignore) {
+                } finally {
+                    connector = null;
+                }
+            }
+        }
+    }
+
+    private static class MBeanConnectionProxy implements MBeanServerConnection {
+        private final PooledConnector connector;
+        private MBeanServerConnection connection;
+
+        /**
+         * @param connector the pooled connector to delegate to
+         */
+        private MBeanConnectionProxy(final PooledConnector connector) throws IOException {
+            this.connector = connector;
+            this.connection = connector.getConnection();
+        }
+
+        @Override
+        public ObjectInstance createMBean(String className, ObjectName name) throws ReflectionException,
+                InstanceAlreadyExistsException, MBeanException, NotCompliantMBeanException,
+                IOException {
+            checkConnection(false);
+            try {
+                return connection.createMBean(className, name);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public ObjectInstance createMBean(String className, ObjectName name, ObjectName loaderName) throws ReflectionException,
+                InstanceAlreadyExistsException, MBeanException, NotCompliantMBeanException,
+                InstanceNotFoundException, IOException {
+            checkConnection(false);
+            try {
+                return connection.createMBean(className, name, loaderName);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public ObjectInstance createMBean(String className, ObjectName name, Object[] params, String[] signature)
+                throws ReflectionException, InstanceAlreadyExistsException, MBeanException,
+                NotCompliantMBeanException, IOException {
+            checkConnection(false);
+            try {
+                return connection.createMBean(className, name, params, signature);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public ObjectInstance createMBean(String className, ObjectName name, ObjectName loaderName, Object[] params,
+                String[] signature) throws ReflectionException, InstanceAlreadyExistsException,
+                MBeanException, NotCompliantMBeanException, InstanceNotFoundException, IOException {
+            checkConnection(false);
+            try {
+                return connection.createMBean(className, name, loaderName, params, signature);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public void unregisterMBean(ObjectName name) throws InstanceNotFoundException, MBeanRegistrationException, IOException {
+            checkConnection(false);
+            try {
+                connection.unregisterMBean(name);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public ObjectInstance getObjectInstance(ObjectName name) throws InstanceNotFoundException, IOException {
+            try {
+                return connection.getObjectInstance(name);
+            } catch (IOException e) {
+                checkConnection(true);
+                return connection.getObjectInstance(name);
+            }
+        }
+
+        @Override
+        public Set<ObjectInstance> queryMBeans(ObjectName name, QueryExp query) throws IOException {
+            try {
+                return connection.queryMBeans(name, query);
+            } catch (IOException e) {
+                checkConnection(true);
+                return connection.queryMBeans(name, query);
+            }
+        }
+
+        @Override
+        public Set<ObjectName> queryNames(ObjectName name, QueryExp query) throws IOException {
+            try {
+                return connection.queryNames(name, query);
+            } catch (IOException e) {
+                checkConnection(true);
+                return connection.queryNames(name, query);
+            }
+        }
+
+        @Override
+        public boolean isRegistered(ObjectName name) throws IOException {
+            try {
+                return connection.isRegistered(name);
+            } catch (IOException e) {
+                checkConnection(true);
+                return connection.isRegistered(name);
+            }
+        }
+
+        @Override
+        public Integer getMBeanCount() throws IOException {
+            try {
+                return connection.getMBeanCount();
+            } catch (IOException e) {
+                checkConnection(true);
+                return connection.getMBeanCount();
+            }
+        }
+
+        @Override
+        public Object getAttribute(ObjectName name, String attribute) throws MBeanException, AttributeNotFoundException,
+                InstanceNotFoundException, ReflectionException, IOException {
+            try {
+                return connection.getAttribute(name, attribute);
+            } catch (IOException e) {
+                checkConnection(true);
+                return connection.getAttribute(name, attribute);
+            }
+        }
+
+        @Override
+        public AttributeList getAttributes(ObjectName name, String[] attributes) throws InstanceNotFoundException,
+                ReflectionException, IOException {
+            try {
+                return connection.getAttributes(name, attributes);
+            } catch (IOException e) {
+                checkConnection(true);
+                return connection.getAttributes(name, attributes);
+            }
+        }
+
+        @Override
+        public void setAttribute(ObjectName name, Attribute attribute) throws InstanceNotFoundException,
+                AttributeNotFoundException, InvalidAttributeValueException, MBeanException, ReflectionException, IOException {
+            checkConnection(false);
+            try {
+                connection.setAttribute(name, attribute);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public AttributeList setAttributes(ObjectName name, AttributeList attributes) throws InstanceNotFoundException,
+                ReflectionException, IOException {
+            checkConnection(false);
+            try {
+                return connection.setAttributes(name, attributes);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public Object invoke(ObjectName name, String operationName, Object[] params, String[] signature)
+                throws InstanceNotFoundException, MBeanException, ReflectionException, IOException {
+            checkConnection(false);
+            try {
+                return connection.invoke(name, operationName, params, signature);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public String getDefaultDomain() throws IOException {
+            try {
+                return connection.getDefaultDomain();
+            } catch (IOException e) {
+                checkConnection(true);
+                return connection.getDefaultDomain();
+            }
+        }
+
+        @Override
+        public String[] getDomains() throws IOException {
+            try {
+                return connection.getDomains();
+            } catch (IOException e) {
+                checkConnection(true);
+                return connection.getDomains();
+            }
+        }
+
+        @Override
+        public void addNotificationListener(ObjectName name, NotificationListener listener, NotificationFilter filter,
+                Object handback) throws InstanceNotFoundException, IOException {
+            checkConnection(false);
+            try {
+                connection.addNotificationListener(name, listener, filter, handback);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public void addNotificationListener(ObjectName name, ObjectName listener, NotificationFilter filter, Object handback)
+                throws InstanceNotFoundException, IOException {
+            checkConnection(false);
+            try {
+                connection.addNotificationListener(name, listener, filter, handback);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public void removeNotificationListener(ObjectName name, ObjectName listener) throws InstanceNotFoundException,
+                ListenerNotFoundException, IOException {
+            checkConnection(false);
+            try {
+                connection.removeNotificationListener(name, listener);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public void removeNotificationListener(ObjectName name, ObjectName listener, NotificationFilter filter, Object handback)
+                throws InstanceNotFoundException, ListenerNotFoundException, IOException {
+            checkConnection(false);
+            try {
+                connection.removeNotificationListener(name, listener, filter, handback);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public void removeNotificationListener(ObjectName name, NotificationListener listener)
+                throws InstanceNotFoundException, ListenerNotFoundException, IOException {
+            checkConnection(false);
+            try {
+                connection.removeNotificationListener(name, listener);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public void removeNotificationListener(ObjectName name, NotificationListener listener, NotificationFilter filter,
+                Object handback) throws InstanceNotFoundException, ListenerNotFoundException, IOException {
+            checkConnection(false);
+            try {
+                connection.removeNotificationListener(name, listener, filter, handback);
+            } catch (IOException e) {
+                throw invalidate(e);
+            }
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo(ObjectName name) throws InstanceNotFoundException, IntrospectionException,
+                ReflectionException, IOException {
+            try {
+                return connection.getMBeanInfo(name);
+            } catch (IOException e) {
+                checkConnection(true);
+                return connection.getMBeanInfo(name);
+            }
+        }
+
+        @Override
+        public boolean isInstanceOf(ObjectName name, String className) throws InstanceNotFoundException, IOException {
+            try {
+                return connection.isInstanceOf(name, className);
+            } catch (IOException e) {
+                checkConnection(true);
+                return connection.isInstanceOf(name, className);
+            }
+        }
+
+        /**
+         * Checks the connection. A connection validated within the last few seconds is assumed to be valid, so read
+         * operations which fail with an {@link IOException} force a check and are retried once if a new connection was
+         * made. Other operations check the connection before they are invoked.
+         *
+         * @param force {@code true} to always check the connection
+         *
+         * @return {@code true} if the connection was valid, {@code false} if a new connection was made
+         */
+        private boolean checkConnection(final boolean force) throws IOException {
+            final boolean valid = connector.validate(force);
+            this.connection = connector.getConnection();
+            return valid;
+        }
+
+        /**
+         * Marks the connection to be checked before the next call. Operations which change the state of the server are
+         * not retried as an {@link IOException} does not tell whether the server executed the operation.
+         *
+         * @param e the exception of the failed operation
+         *
+         * @return the exception to throw
+         */
+        private IOException invalidate(final IOException e) {
+            connector.invalidate();
+            return e;
+        }
+    }
+}
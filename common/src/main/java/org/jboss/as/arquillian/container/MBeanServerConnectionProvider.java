@@ -10,8 +10,6 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 
 import javax.management.MBeanServerConnection;
-import javax.management.remote.JMXConnector;
-import javax.management.remote.JMXConnectorFactory;
 import javax.management.remote.JMXServiceURL;
 
 import org.jboss.logging.Logger;
@@ -28,7 +26,7 @@ public final class MBeanServerConnectionProvider implements Closeable {
     private final InetAddress hostAddr;
     private final int port;
 
-    private JMXConnector jmxConnector;
+    private JMXConnectionPool.Connection connection;
 
     public static MBeanServerConnectionProvider defaultProvider() throws UnknownHostException {
         return new MBeanServerConnectionProvider(InetAddress.getByName("127.0.0.1"), 9990);
@@ -44,12 +42,12 @@ public final class MBeanServerConnectionProvider implements Closeable {
         String urlString = System.getProperty("jmx.service.url",
                 "service:jmx:remote+http://" + NetworkUtils.formatPossibleIpv6Address(host) + ":" + port);
         try {
-            if (jmxConnector == null) {
-                log.debug("Connecting JMXConnector to: " + urlString);
+            if (connection == null) {
+                log.debug("Acquiring JMX connection to: " + urlString);
                 JMXServiceURL serviceURL = new JMXServiceURL(urlString);
-                jmxConnector = JMXConnectorFactory.connect(serviceURL, null);
+                connection = JMXConnectionPool.acquire(serviceURL, null);
             }
-            return jmxConnector.getMBeanServerConnection();
+            return connection.getMBeanServerConnection();
         } catch (IOException ex) {
             throw new IllegalStateException("Cannot obtain MBeanServerConnection to: " + urlString, ex);
         }
@@ -74,10 +72,9 @@ public final class MBeanServerConnectionProvider implements Closeable {
 
     @Override
     public void close() throws IOException {
-        if (jmxConnector != null)
-            try {
-                jmxConnector.close();
-            } catch (Throwable ignore) {
-            }
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.jboss.as.arquillian.container;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jboss.logging.Logger;
+
+/**
+ * A JVM wide pool of managed server processes. A container which is stopped with pooling enabled resets its server to
+ * the boot configuration and places it in this pool rather than shutting it down. The next container start for the
+ * same key takes the running server from the pool and skips the boot entirely.
+ * <p>
+ * The process shutdown hooks are kept with the pooled server so any server left in the pool is destroyed when the JVM
+ * exits. The snapshots used to reset the pooled servers are deleted when the JVM exits.
+ * </p>
+ */
+final class ManagedServerPool {
+
+    private static final Logger LOGGER = Logger.getLogger(ManagedServerPool.class);
+    private static final Map<String, PooledServer> SERVERS = new ConcurrentHashMap<>();
+    private static final AtomicBoolean CLEANUP_REGISTERED = new AtomicBoolean();
+
+    private ManagedServerPool() {
+    }
+
+    /**
+     * Removes the server associated with the key from the pool.
+     *
+     * @param key the key for the server
+     *
+     * @return the pooled server or {@code null} if there was no server in the pool for the key
+     */
+    static PooledServer acquire(final String key) {
+        return SERVERS.remove(key);
+    }
+
+    /**
+     * Adds the server to the pool.
+     *
+     * @param key    the key for the server
+     * @param server the server to add
+     *
+     * @return {@code true} if the server was added to the pool, {@code false} if a server is already pooled for the key
+     */
+    static boolean release(final String key, final PooledServer server) {
+        if (CLEANUP_REGISTERED.compareAndSet(false, true)) {
+            final Thread cleanup = new Thread(ManagedServerPool::deleteSnapshots, "wildfly-arquillian-pool-cleanup");
+            Runtime.getRuntime().addShutdownHook(cleanup);
+        }
+        return SERVERS.putIfAbsent(key, server) == null;
+    }
+
+    /**
+     * Creates the key for the pool. A pooled server can only be used by a container which would have launched the
+     * same server, so the key consists of every property of the configuration. This includes the management address
+     * and port, the server home and any JVM or server arguments.
+     *
+     * @param config the configuration to create the key for
+     *
+     * @return the key for the pool
+     */
+    static String createKey(final CommonManagedContainerConfiguration config) {
+        final Map<String, String> properties = new TreeMap<>();
+        for (Method method : config.getClass().getMethods()) {
+            if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers())
+                    || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            final String name = method.getName();
+            if ((name.startsWith("get") && name.length() > 3) || (name.startsWith("is") && name.length() > 2)) {
+                properties.put(name, toString(invoke(method, config)));
+            }
+        }
+        return config.getClass().getName() + properties;
+    }
+
+    /**
+     * Deletes the snapshot a server was reset from. The snapshot is only read when the server is reset, so it can be
+     * deleted once the server is no longer running.
+     *
+     * @param snapshot the path to the snapshot, can be {@code null}
+     */
+    static void deleteSnapshot(final String snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Path.of(snapshot));
+        } catch (IOException e) {
+            LOGGER.debugf(e, "Failed to delete snapshot %s", snapshot);
+        }
+    }
+
+    private static void deleteSnapshots() {
+        for (PooledServer server : SERVERS.values()) {
+            deleteSnapshot(server.snapshot);
+        }
+    }
+
+    private static Object invoke(final Method method, final Object config) {
+        try {
+            return method.invoke(config);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Never share a server if the property cannot be read
+            return e;
+        }
+    }
+
+    private static String toString(final Object value) {
+        if (value instanceof Object[]) {
+            return Arrays.deepToString((Object[]) value);
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * A server which is running, but not currently associated with a container.
+     */
+    static final class PooledServer {
+        final Process process;
+        final Thread shutdownThread;
+        final String snapshot;
+        final boolean timeoutSupported;
+
+        PooledServer(final Process process, final Thread shutdownThread, final String snapshot,
+                final boolean timeoutSupported) {
+            this.process = process;
+            this.shutdownThread = shutdownThread;
+            this.snapshot = snapshot;
+            this.timeoutSupported = timeoutSupported;
+        }
+    }
+}
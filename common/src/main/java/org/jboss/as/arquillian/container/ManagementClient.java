@@ -31,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -38,27 +39,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import javax.management.Attribute;
-import javax.management.AttributeList;
-import javax.management.AttributeNotFoundException;
-import javax.management.InstanceAlreadyExistsException;
-import javax.management.InstanceNotFoundException;
-import javax.management.IntrospectionException;
-import javax.management.InvalidAttributeValueException;
-import javax.management.ListenerNotFoundException;
-import javax.management.MBeanException;
-import javax.management.MBeanInfo;
-import javax.management.MBeanRegistrationException;
 import javax.management.MBeanServerConnection;
-import javax.management.NotCompliantMBeanException;
-import javax.management.NotificationFilter;
-import javax.management.NotificationListener;
-import javax.management.ObjectInstance;
-import javax.management.ObjectName;
-import javax.management.QueryExp;
-import javax.management.ReflectionException;
-import javax.management.remote.JMXConnector;
-import javax.management.remote.JMXConnectorFactory;
 import javax.management.remote.JMXServiceURL;
 import javax.security.auth.callback.CallbackHandler;
 
@@ -111,9 +92,9 @@ public class ManagementClient implements Closeable {
     private URI ejbUri;
 
     private ModelNode undertowSubsystem = null;
+    private ModelNode socketBindings = null;
 
-    private MBeanServerConnection connection;
-    private JMXConnector connector;
+    private JMXConnectionPool.Connection connection;
     private boolean undertowSubsystemPresent = false;
     private boolean jmxSubsystemPresent = false;
     private boolean closed = false;
@@ -158,6 +139,7 @@ public class ManagementClient implements Closeable {
     void reset() {
         close();
         initialized = false;
+        socketBindings = null;
         closed = false;
     }
 
@@ -176,11 +158,32 @@ public class ManagementClient implements Closeable {
                 if (!initialized) {
                     initialized = true;
                     try {
-                        ModelNode op = Operations.createReadResourceOperation(UNDERTOW_SUBSYSTEM_ADDRESS, true);
-                        ModelNode result = client.execute(op);
-                        undertowSubsystemPresent = Operations.isSuccessfulOutcome(result);
-                        if (undertowSubsystemPresent) {
-                            undertowSubsystem = Operations.readResult(result);
+                        final ModelNode subsystems;
+                        // Attempt to read everything in a single request, this fails if the undertow subsystem is not
+                        // present in which case each resource is read individually
+                        final ModelNode serverState = readServerState();
+                        if (serverState == null) {
+                            ModelNode op = Operations.createReadResourceOperation(UNDERTOW_SUBSYSTEM_ADDRESS, true);
+                            ModelNode result = client.execute(op);
+                            undertowSubsystemPresent = Operations.isSuccessfulOutcome(result);
+                            if (undertowSubsystemPresent) {
+                                undertowSubsystem = Operations.readResult(result);
+                            }
+                            op = Operations.createOperation(READ_CHILDREN_NAMES_OPERATION);
+                            op.get(CHILD_TYPE).set(SUBSYSTEM);
+                            result = client.execute(op);
+                            if (!Operations.isSuccessfulOutcome(result)) {
+                                throw new RuntimeException("Failed to determine if the JMX subsystem is present: "
+                                        + Operations.getFailureDescription(result).asString());
+                            }
+                            subsystems = Operations.readResult(result);
+                        } else {
+                            undertowSubsystemPresent = true;
+                            undertowSubsystem = Operations.readResult(serverState.get("step-1"));
+                            subsystems = Operations.readResult(serverState.get("step-2"));
+                            if (serverState.has("step-3")) {
+                                socketBindings = Operations.readResult(serverState.get("step-3"));
+                            }
                         }
                         URI webUri;
                         try {
@@ -214,14 +217,7 @@ public class ManagementClient implements Closeable {
                         }
 
                         // Determine if JMX is available
-                        op = Operations.createOperation(READ_CHILDREN_NAMES_OPERATION);
-                        op.get(CHILD_TYPE).set(SUBSYSTEM);
-                        result = client.execute(op);
-                        if (!Operations.isSuccessfulOutcome(result)) {
-                            throw new RuntimeException("Failed to determine if the JMX subsystem is present: "
-                                    + Operations.getFailureDescription(result).asString());
-                        }
-                        jmxSubsystemPresent = Operations.readResult(result)
+                        jmxSubsystemPresent = subsystems
                                 .asList()
                                 .stream()
                                 .map(ModelNode::asString)
@@ -235,6 +231,34 @@ public class ManagementClient implements Closeable {
         });
     }
 
+    /**
+     * Reads the undertow subsystem, the subsystem names and, if required, the socket bindings in a single composite
+     * operation.
+     *
+     * @return the step results or {@code null} if the composite operation failed
+     *
+     * @throws IOException if an error occurs communicating with the server
+     */
+    private ModelNode readServerState() throws IOException {
+        final Operations.CompositeOperationBuilder builder = Operations.CompositeOperationBuilder.create()
+                .addStep(Operations.createReadResourceOperation(UNDERTOW_SUBSYSTEM_ADDRESS, true));
+        final ModelNode op = Operations.createOperation(READ_CHILDREN_NAMES_OPERATION);
+        op.get(CHILD_TYPE).set(SUBSYSTEM);
+        builder.addStep(op);
+        if (config == null || config.getHost() == null || config.getPort() < 0) {
+            final ModelNode bindingsOp = Operations.createReadResourceOperation(
+                    Operations.createAddress("socket-binding-group", "*", "socket-binding", "*"));
+            bindingsOp.get(INCLUDE_RUNTIME).set(true);
+            builder.addStep(bindingsOp);
+        }
+        final ModelNode result = client.execute(builder.build());
+        if (Operations.isSuccessfulOutcome(result)) {
+            return Operations.readResult(result);
+        }
+        logger.debugf("Failed to read the server state in a single operation: %s", Operations.getFailureDescription(result));
+        return null;
+    }
+
     /**
      * @return The base URI or the web susbsystem. Usually http://localhost:8080
      *
@@ -254,25 +278,38 @@ public class ManagementClient implements Closeable {
      */
     public ProtocolMetaData getProtocolMetaData(String deploymentName) {
         init();
-        ProtocolMetaData metaData = new ProtocolMetaData();
-        if (jmxSubsystemPresent) {
-            metaData.addContext(new JMXContext(getConnection()));
+        final Collection<Servlet> servlets;
+        try {
+            servlets = undertowSubsystemPresent ? resolveContexts(deploymentName) : List.of();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
         }
-        if (undertowSubsystemPresent) {
-            URI webURI = getWebUri();
-            HTTPContext context = new HTTPContext(webURI.getHost(), webURI.getPort(),
-                    "https".equalsIgnoreCase(webURI.getScheme()));
-            metaData.addContext(context);
+        return createProtocolMetaData(servlets);
+    }
 
-            try {
-                for (Servlet servlet : resolveContexts(deploymentName)) {
-                    context.add(servlet);
-                }
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+    /**
+     * Gets the meta-data for each of the deployments. The web contexts of all the deployments are read with a single
+     * composite operation.
+     *
+     * @param deploymentNames the runtime names of the deployments
+     *
+     * @return the meta-data keyed by the deployment name in the order of the deployment names
+     *
+     * @throws IllegalStateException if this has been {@linkplain #close() closed}
+     */
+    public Map<String, ProtocolMetaData> getProtocolMetaData(final Collection<String> deploymentNames) {
+        init();
+        final Map<String, Collection<Servlet>> contexts;
+        try {
+            contexts = undertowSubsystemPresent ? resolveContexts(deploymentNames) : Map.of();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
         }
-        return metaData;
+        final Map<String, ProtocolMetaData> result = new LinkedHashMap<>();
+        for (String deploymentName : deploymentNames) {
+            result.put(deploymentName, createProtocolMetaData(contexts.getOrDefault(deploymentName, List.of())));
+        }
+        return result;
     }
 
     /**
@@ -322,12 +359,10 @@ public class ManagementClient implements Closeable {
             } catch (IOException e) {
                 throw new RuntimeException("Could not close connection", e);
             } finally {
-                if (connector != null) {
-                    try {
-                        connector.close();
-                    } catch (IOException e) {
-                        throw new RuntimeException("Could not close JMX connection", e);
-                    }
+                if (connection != null) {
+                    // Release the connection back to the pool
+                    connection.close();
+                    connection = null;
                 }
             }
         }
@@ -350,7 +385,15 @@ public class ManagementClient implements Closeable {
             protocol = config.getProtocol();
         }
         try {
-            if (host == null || port < 0) {
+            final ModelNode cachedBinding = findSocketBinding(socketBinding);
+            if (cachedBinding != null && (host == null || port < 0)) {
+                if (host == null) {
+                    host = formatIP(cachedBinding.get("bound-address").asString());
+                }
+                if (port < 0) {
+                    port = defined(cachedBinding.get("bound-port"), socketBinding + " -> bound-port is undefined").asInt();
+                }
+            } else if (host == null || port < 0) {
                 ModelNode sbgOp = new ModelNode();
                 sbgOp.get(OP).set(READ_CHILDREN_NAMES_OPERATION);
                 sbgOp.get(CHILD_TYPE).set("socket-binding-group");
@@ -378,6 +421,22 @@ public class ManagementClient implements Closeable {
         }
     }
 
+    private ModelNode findSocketBinding(final String socketBinding) {
+        final ModelNode bindings = socketBindings;
+        if (bindings != null && bindings.isDefined()) {
+            // The bindings are from a wildcard read, use the first binding group like the individual read
+            for (ModelNode binding : bindings.asList()) {
+                final ModelNode address = Operations.getOperationAddress(binding);
+                final List<Property> elements = address.asPropertyList();
+                if (!elements.isEmpty() && socketBinding.equals(elements.get(elements.size() - 1).getValue().asString())
+                        && Operations.isSuccessfulOutcome(binding)) {
+                    return Operations.readResult(binding);
+                }
+            }
+        }
+        return null;
+    }
+
     static String formatIP(String ip) {
         // it appears some system can return a binding with the zone specifier on the end
         if (ip.contains(":") && ip.contains("%")) {
@@ -402,16 +461,132 @@ public class ManagementClient implements Closeable {
         return deploymentName.endsWith(POSTFIX_WEB);
     }
 
+    private ProtocolMetaData createProtocolMetaData(final Collection<Servlet> servlets) {
+        ProtocolMetaData metaData = new ProtocolMetaData();
+        if (jmxSubsystemPresent) {
+            metaData.addContext(new JMXContext(getConnection()));
+        }
+        if (undertowSubsystemPresent) {
+            URI webURI = getWebUri();
+            HTTPContext context = new HTTPContext(webURI.getHost(), webURI.getPort(),
+                    "https".equalsIgnoreCase(webURI.getScheme()));
+            metaData.addContext(context);
+            for (Servlet servlet : servlets) {
+                context.add(servlet);
+            }
+        }
+        return metaData;
+    }
+
+    /**
+     * Reads the web contexts of all the deployments with a single composite operation. If the composite operation
+     * fails, the contexts of each deployment are resolved individually.
+     *
+     * @param deploymentNames the names of the deployments
+     *
+     * @return the servlet contexts keyed by the deployment name
+     *
+     * @throws IOException if an error occurs communicating with the server
+     */
+    private Map<String, Collection<Servlet>> resolveContexts(final Collection<String> deploymentNames) throws IOException {
+        final Map<String, Collection<Servlet>> contexts = new LinkedHashMap<>();
+        final Operations.CompositeOperationBuilder builder = Operations.CompositeOperationBuilder.create();
+        final List<String> steps = new ArrayList<>();
+        for (String deploymentName : deploymentNames) {
+            final ModelNode operation;
+            if (isWebArchive(deploymentName)) {
+                operation = Operations
+                        .createReadResourceOperation(Operations.createAddress(DEPLOYMENT, deploymentName, SUBSYSTEM));
+            } else if (isEnterpriseArchive(deploymentName)) {
+                operation = Operations.createReadResourceOperation(
+                        Operations.createAddress(DEPLOYMENT, deploymentName, SUBDEPLOYMENT, "*", SUBSYSTEM, "*"));
+            } else {
+                continue;
+            }
+            operation.get(RECURSIVE_DEPTH).set(2);
+            operation.get(INCLUDE_RUNTIME).set(true);
+            builder.addStep(operation);
+            steps.add(deploymentName);
+        }
+        if (steps.isEmpty()) {
+            return contexts;
+        }
+        final ModelNode result = client.execute(builder.build());
+        if (!Operations.isSuccessfulOutcome(result)) {
+            logger.debugf("Failed to read the contexts of %s in a single operation: %s", steps,
+                    Operations.getFailureDescription(result));
+            for (String deploymentName : steps) {
+                contexts.put(deploymentName, resolveContexts(deploymentName));
+            }
+            return contexts;
+        }
+        final List<Property> stepResults = Operations.readResult(result).asPropertyList();
+        for (int i = 0; i < steps.size(); i++) {
+            final String deploymentName = steps.get(i);
+            final ModelNode stepResult = stepResults.get(i).getValue();
+            contexts.put(deploymentName, resolveServletContexts(isWebArchive(deploymentName)
+                    ? Collections.singletonList(parseResult(stepResult))
+                    : groupWebSubDeployments(stepResult)));
+        }
+        return contexts;
+    }
+
     private Collection<Servlet> resolveContexts(final String deploymentName) throws IOException {
         final Collection<Servlet> contexts = new ArrayList<>();
         if (isWebArchive(deploymentName)) {
             contexts.addAll(resolveServletContexts(readDeploymentNode(deploymentName, null)));
         } else if (isEnterpriseArchive(deploymentName)) {
-            contexts.addAll(resolveServletContexts(readDeploymentNode(deploymentName, findWebDeployments(deploymentName))));
+            contexts.addAll(resolveServletContexts(readWebSubDeployments(deploymentName)));
         }
         return contexts;
     }
 
+    /**
+     * Reads the subsystems of all web subdeployments with a single wildcard operation.
+     *
+     * @param deploymentName the name of the enterprise archive deployment
+     *
+     * @return the undertow and REST subsystem models for each web subdeployment
+     *
+     * @throws IOException if an error occurs communicating with the server
+     */
+    private List<ModelNode> readWebSubDeployments(final String deploymentName) throws IOException {
+        final ModelNode operation = Operations.createReadResourceOperation(
+                Operations.createAddress(DEPLOYMENT, deploymentName, SUBDEPLOYMENT, "*", SUBSYSTEM, "*"));
+        operation.get(RECURSIVE_DEPTH).set(2);
+        operation.get(INCLUDE_RUNTIME).set(true);
+        final ModelNode result = client.execute(operation);
+        if (!Operations.isSuccessfulOutcome(result)) {
+            // Fall back to reading the subdeployment names followed by each subdeployment
+            logger.debugf("Failed to read the subdeployments of %s: %s", deploymentName,
+                    Operations.getFailureDescription(result));
+            return readDeploymentNode(deploymentName, findWebDeployments(deploymentName));
+        }
+        return groupWebSubDeployments(result);
+    }
+
+    private static List<ModelNode> groupWebSubDeployments(final ModelNode result) {
+        // Group the subsystem results by the subdeployment name
+        final Map<String, ModelNode> subDeployments = new LinkedHashMap<>();
+        for (ModelNode subsystemResult : Operations.readResult(result).asList()) {
+            String subDeploymentName = null;
+            for (Property property : Operations.getOperationAddress(subsystemResult).asPropertyList()) {
+                if (SUBDEPLOYMENT.equals(property.getName())) {
+                    subDeploymentName = property.getValue().asString();
+                }
+            }
+            if (subDeploymentName != null && subDeploymentName.endsWith(POSTFIX_WEB)) {
+                final ModelNode subsystems = subDeployments.computeIfAbsent(subDeploymentName, name -> new ModelNode());
+                subsystems.get(RESULT).add(subsystemResult);
+            }
+        }
+        final List<ModelNode> deployments = new ArrayList<>();
+        for (ModelNode subsystems : subDeployments.values()) {
+            deployments.add(parseResult(subsystems));
+        }
+        return deployments;
+    }
+
     private Set<String> findWebDeployments(final String deploymentName) throws IOException {
         final ModelNode op = Operations.createOperation(ClientConstants.READ_CHILDREN_NAMES_OPERATION,
                 Operations.createAddress("deployment", deploymentName));
@@ -568,7 +743,7 @@ public class ManagementClient implements Closeable {
     }
 
     private MBeanServerConnection getConnection() {
-        MBeanServerConnection connection = this.connection;
+        JMXConnectionPool.Connection connection = this.connection;
         if (connection == null) {
             try {
                 final Map<String, Object> env = new HashMap<>();
@@ -579,14 +754,12 @@ public class ManagementClient implements Closeable {
                 if (config.getAuthenticationConfig() != null) {
                     env.put("wildfly.config.url", config.getAuthenticationConfig());
                 }
-                final JMXServiceURL serviceURL = getRemoteJMXURL();
-                final JMXConnector connector = this.connector = JMXConnectorFactory.connect(serviceURL, env);
-                connection = this.connection = new MBeanConnectionProxy(connector.getMBeanServerConnection());
+                connection = this.connection = JMXConnectionPool.acquire(getRemoteJMXURL(), env);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
         }
-        return connection;
+        return connection.getMBeanServerConnection();
     }
 
     public JMXServiceURL getRemoteJMXURL() {
@@ -646,296 +819,4 @@ public class ManagementClient implements Closeable {
             super(message);
         }
     }
-
-    private class MBeanConnectionProxy implements MBeanServerConnection {
-        private MBeanServerConnection connection;
-
-        /**
-         * @param connection connection to delegate to
-         */
-        private MBeanConnectionProxy(MBeanServerConnection connection) {
-            super();
-            this.connection = connection;
-        }
-
-        @Override
-        public ObjectInstance createMBean(String className, ObjectName name) throws ReflectionException,
-                InstanceAlreadyExistsException, MBeanException, NotCompliantMBeanException,
-                IOException {
-            checkConnection();
-            return connection.createMBean(className, name);
-        }
-
-        @Override
-        public ObjectInstance createMBean(String className, ObjectName name, ObjectName loaderName) throws ReflectionException,
-                InstanceAlreadyExistsException, MBeanException, NotCompliantMBeanException,
-                InstanceNotFoundException, IOException {
-            checkConnection();
-            return connection.createMBean(className, name, loaderName);
-        }
-
-        @Override
-        public ObjectInstance createMBean(String className, ObjectName name, Object[] params, String[] signature)
-                throws ReflectionException, InstanceAlreadyExistsException, MBeanException,
-                NotCompliantMBeanException, IOException {
-            checkConnection();
-            return connection.createMBean(className, name, params, signature);
-        }
-
-        @Override
-        public ObjectInstance createMBean(String className, ObjectName name, ObjectName loaderName, Object[] params,
-                String[] signature) throws ReflectionException, InstanceAlreadyExistsException,
-                MBeanException, NotCompliantMBeanException, InstanceNotFoundException, IOException {
-            checkConnection();
-            return connection.createMBean(className, name, loaderName, params, signature);
-        }
-
-        @Override
-        public void unregisterMBean(ObjectName name) throws InstanceNotFoundException, MBeanRegistrationException, IOException {
-            checkConnection();
-            connection.unregisterMBean(name);
-        }
-
-        @Override
-        public ObjectInstance getObjectInstance(ObjectName name) throws InstanceNotFoundException, IOException {
-            try {
-                return connection.getObjectInstance(name);
-            } catch (IOException e) {
-                checkConnection();
-                return connection.getObjectInstance(name);
-            }
-        }
-
-        @Override
-        public Set<ObjectInstance> queryMBeans(ObjectName name, QueryExp query) throws IOException {
-            try {
-                return connection.queryMBeans(name, query);
-            } catch (IOException e) {
-                checkConnection();
-                return connection.queryMBeans(name, query);
-            }
-        }
-
-        @Override
-        public Set<ObjectName> queryNames(ObjectName name, QueryExp query) throws IOException {
-            try {
-                return connection.queryNames(name, query);
-            } catch (IOException e) {
-                checkConnection();
-                return connection.queryNames(name, query);
-            }
-        }
-
-        @Override
-        public boolean isRegistered(ObjectName name) throws IOException {
-            try {
-                return connection.isRegistered(name);
-            } catch (IOException e) {
-                checkConnection();
-                return connection.isRegistered(name);
-            }
-        }
-
-        @Override
-        public Integer getMBeanCount() throws IOException {
-            try {
-                return connection.getMBeanCount();
-            } catch (IOException e) {
-                checkConnection();
-                return connection.getMBeanCount();
-            }
-        }
-
-        @Override
-        public Object getAttribute(ObjectName name, String attribute) throws MBeanException, AttributeNotFoundException,
-                InstanceNotFoundException, ReflectionException, IOException {
-            try {
-                return connection.getAttribute(name, attribute);
-            } catch (IOException e) {
-                checkConnection();
-                return connection.getAttribute(name, attribute);
-            }
-        }
-
-        @Override
-        public AttributeList getAttributes(ObjectName name, String[] attributes) throws InstanceNotFoundException,
-                ReflectionException, IOException {
-            try {
-                return connection.getAttributes(name, attributes);
-            } catch (IOException e) {
-                checkConnection();
-                return connection.getAttributes(name, attributes);
-            }
-        }
-
-        @Override
-        public void setAttribute(ObjectName name, Attribute attribute) throws InstanceNotFoundException,
-                AttributeNotFoundException, InvalidAttributeValueException, MBeanException, ReflectionException, IOException {
-            checkConnection();
-            connection.setAttribute(name, attribute);
-        }
-
-        @Override
-        public AttributeList setAttributes(ObjectName name, AttributeList attributes) throws InstanceNotFoundException,
-                ReflectionException, IOException {
-            checkConnection();
-            return connection.setAttributes(name, attributes);
-        }
-
-        @Override
-        public Object invoke(ObjectName name, String operationName, Object[] params, String[] signature)
-                throws InstanceNotFoundException, MBeanException, ReflectionException, IOException {
-            checkConnection();
-            return connection.invoke(name, operationName, params, signature);
-        }
-
-        @Override
-        public String getDefaultDomain() throws IOException {
-            try {
-                return connection.getDefaultDomain();
-            } catch (IOException e) {
-                checkConnection();
-                return connection.getDefaultDomain();
-            }
-        }
-
-        @Override
-        public String[] getDomains() throws IOException {
-            try {
-                return connection.getDomains();
-            } catch (IOException e) {
-                checkConnection();
-                return connection.getDomains();
-            }
-        }
-
-        @Override
-        public void addNotificationListener(ObjectName name, NotificationListener listener, NotificationFilter filter,
-                Object handback) throws InstanceNotFoundException, IOException {
-            try {
-                connection.addNotificationListener(name, listener, filter, handback);
-            } catch (IOException e) {
-                if (!checkConnection()) {
-                    connection.addNotificationListener(name, listener, filter, handback);
-                } else {
-                    throw e;
-                }
-            }
-        }
-
-        @Override
-        public void addNotificationListener(ObjectName name, ObjectName listener, NotificationFilter filter, Object handback)
-                throws InstanceNotFoundException, IOException {
-            try {
-                connection.addNotificationListener(name, listener, filter, handback);
-            } catch (IOException e) {
-                if (!checkConnection()) {
-                    connection.addNotificationListener(name, listener, filter, handback);
-                } else {
-                    throw e;
-                }
-            }
-        }
-
-        @Override
-        public void removeNotificationListener(ObjectName name, ObjectName listener) throws InstanceNotFoundException,
-                ListenerNotFoundException, IOException {
-            try {
-                connection.removeNotificationListener(name, listener);
-            } catch (IOException e) {
-                if (!checkConnection()) {
-                    connection.removeNotificationListener(name, listener);
-                } else {
-                    throw e;
-                }
-            }
-        }
-
-        @Override
-        public void removeNotificationListener(ObjectName name, ObjectName listener, NotificationFilter filter, Object handback)
-                throws InstanceNotFoundException, ListenerNotFoundException, IOException {
-            try {
-                connection.removeNotificationListener(name, listener, filter, handback);
-            } catch (IOException e) {
-                if (!checkConnection()) {
-                    connection.removeNotificationListener(name, listener, filter, handback);
-                } else {
-                    throw e;
-                }
-            }
-        }
-
-        @Override
-        public void removeNotificationListener(ObjectName name, NotificationListener listener)
-                throws InstanceNotFoundException, ListenerNotFoundException, IOException {
-            try {
-                connection.removeNotificationListener(name, listener);
-            } catch (IOException e) {
-                if (!checkConnection()) {
-                    connection.removeNotificationListener(name, listener);
-                } else {
-                    throw e;
-                }
-            }
-        }
-
-        @Override
-        public void removeNotificationListener(ObjectName name, NotificationListener listener, NotificationFilter filter,
-                Object handback) throws InstanceNotFoundException, ListenerNotFoundException, IOException {
-            try {
-                connection.removeNotificationListener(name, listener, filter, handback);
-            } catch (IOException e) {
-                if (!checkConnection()) {
-                    connection.removeNotificationListener(name, listener, filter, handback);
-                } else {
-                    throw e;
-                }
-            }
-        }
-
-        @Override
-        public MBeanInfo getMBeanInfo(ObjectName name) throws InstanceNotFoundException, IntrospectionException,
-                ReflectionException, IOException {
-            try {
-                return connection.getMBeanInfo(name);
-            } catch (IOException e) {
-                checkConnection();
-                return connection.getMBeanInfo(name);
-            }
-        }
-
-        @Override
-        public boolean isInstanceOf(ObjectName name, String className) throws InstanceNotFoundException, IOException {
-            try {
-                return connection.isInstanceOf(name, className);
-            } catch (IOException e) {
-                checkConnection();
-                return connection.isInstanceOf(name, className);
-            }
-        }
-
-        private boolean checkConnection() {
-            try {
-                this.connection.getDefaultDomain();
-                return true;
-            } catch (IOException ioe) {
-                logger.debug("JMX connection error.", ioe);
-            }
-            this.connection = reconnect();
-            return false;
-        }
-
-        private MBeanServerConnection reconnect() {
-            try {
-                final Map<String, Object> env = new HashMap<>();
-                env.put(CallbackHandler.class.getName(), Authentication.getCallbackHandler());
-                final JMXConnector connector = ManagementClient.this.connector = JMXConnectorFactory.connect(getRemoteJMXURL(),
-                        env);
-                connection = connector.getMBeanServerConnection();
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-            return connection;
-        }
-    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.jboss.as.arquillian.container;
+
+import org.jboss.arquillian.container.spi.Container;
+import org.jboss.arquillian.container.spi.ContainerRegistry;
+import org.jboss.arquillian.container.spi.client.container.DeployableContainer;
+import org.jboss.arquillian.container.spi.event.StartClassContainers;
+import org.jboss.arquillian.container.spi.event.StartSuiteContainers;
+import org.jboss.arquillian.container.spi.event.container.AfterStart;
+import org.jboss.arquillian.container.spi.event.container.BeforeDeploy;
+import org.jboss.arquillian.core.api.Instance;
+import org.jboss.arquillian.core.api.annotation.Inject;
+import org.jboss.arquillian.core.api.annotation.Observes;
+
+/**
+ * Waits for managed containers which were {@linkplain CommonManagedContainerConfiguration#isStartInParallel() started
+ * in parallel} to finish booting. Arquillian launches the containers one after another, each returning once its
+ * process has been launched. This observer then waits for all the servers, which boot concurrently. Containers which
+ * are started manually are waited for as soon as they have been launched.
+ */
+public class ParallelStartObserver {
+
+    @Inject
+    private Instance<ContainerRegistry> containerRegistry;
+
+    /**
+     * Waits for the suite containers after all have been launched.
+     *
+     * @param event the start event
+     *
+     * @throws Exception if a container failed to start
+     */
+    public void awaitSuiteContainers(@Observes(precedence = -100) final StartSuiteContainers event) throws Exception {
+        awaitAll();
+    }
+
+    /**
+     * Waits for the class containers after all have been launched.
+     *
+     * @param event the start event
+     *
+     * @throws Exception if a container failed to start
+     */
+    public void awaitClassContainers(@Observes(precedence = -100) final StartClassContainers event) throws Exception {
+        awaitAll();
+    }
+
+    /**
+     * Waits for a container which is not started with the suite or a test class, for example one started with the
+     * {@link org.jboss.arquillian.container.test.api.ContainerController}. The caller expects the server to be running
+     * once the start returns.
+     *
+     * @param event     the start event
+     * @param container the container which was started
+     *
+     * @throws Exception if the container failed to start
+     */
+    public void awaitManualContainer(@Observes final AfterStart event, final Container container) throws Exception {
+        final String mode = container.getContainerConfiguration().getMode();
+        if (!"suite".equals(mode) && !"class".equals(mode)) {
+            await(event.getDeployableContainer());
+        }
+    }
+
+    /**
+     * Waits for the container before anything, including the server setup tasks, is executed for a deployment. This
+     * covers a deployment made before the start events above have been observed.
+     *
+     * @param event the deploy event
+     *
+     * @throws Exception if the container failed to start
+     */
+    public void awaitDeploymentContainer(@Observes(precedence = 100) final BeforeDeploy event) throws Exception {
+        await(event.getDeployableContainer());
+    }
+
+    private void awaitAll() throws Exception {
+        final ContainerRegistry registry = containerRegistry.get();
+        if (registry != null) {
+            for (Container container : registry.getContainers()) {
+                await(container.getDeployableContainer());
+            }
+        }
+    }
+
+    private static void await(final DeployableContainer<?> deployableContainer) throws Exception {
+        if (deployableContainer instanceof CommonManagedDeployableContainer) {
+            ((CommonManagedDeployableContainer<?>) deployableContainer).awaitStart();
+        }
+    }
+}
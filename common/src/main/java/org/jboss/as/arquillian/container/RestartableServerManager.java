@@ -0,0 +1,38 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.jboss.as.arquillian.container;
+
+import java.io.IOException;
+
+import org.wildfly.plugin.tools.server.ServerManager;
+
+/**
+ * A {@link ServerManager} which can restart the server. A server in the {@code restart-required} state cannot be
+ * brought back to the {@code running} state with a reload, the server process itself needs to be restarted.
+ * <p>
+ * The {@link ServerManager} injected with {@link org.jboss.arquillian.test.api.ArquillianResource @ArquillianResource}
+ * implements this interface. A restart is only {@linkplain #isRestartSupported() supported} if the process of the
+ * server was launched by the container.
+ * </p>
+ */
+public interface RestartableServerManager extends ServerManager {
+
+    /**
+     * Indicates whether the server can be restarted.
+     *
+     * @return {@code true} if the server process was launched by the container and can be restarted
+     */
+    boolean isRestartSupported();
+
+    /**
+     * Shuts down the server process and launches it again with its current configuration. This method returns once the
+     * server has started.
+     *
+     * @throws IOException                   if the server could not be restarted
+     * @throws UnsupportedOperationException if the server {@linkplain #isRestartSupported() cannot be restarted}
+     */
+    void restart() throws IOException;
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.jboss.as.arquillian.container;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.arquillian.api.ServerSetup;
+import org.jboss.as.arquillian.api.ServerSetupTask;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.as.controller.client.helpers.Operations.CompositeOperationBuilder;
+import org.jboss.dmr.ModelNode;
+import org.jboss.logging.Logger;
+import org.wildfly.plugin.tools.OperationExecutionException;
+import org.wildfly.plugin.tools.server.ServerManager;
+
+/**
+ * Coordinates the {@linkplain ServerSetupTask setup tasks} of a test class which is annotated with
+ * {@link ServerSetup#coordinated() @ServerSetup(coordinated = true)}.
+ * <p>
+ * While a coordinated setup or tear down is in progress, the setup tasks provided by this library defer their reloads
+ * to the coordinator. A single {@code reloadIfRequired} is executed once all setup tasks have completed, and again once
+ * all tear down tasks have completed. The restore of a snapshot is deferred as well if the snapshot was taken by the
+ * first setup task. Tear down tasks are executed in the reverse order of the setup tasks, so any other restore must
+ * happen before the tasks which were set up before the snapshot was taken are torn down.
+ * </p>
+ * <p>
+ * Setup tasks implementing {@link CompositeTask} can also {@linkplain #addSteps(Object, ModelNode) add} their
+ * operations to the coordinator. The operations of consecutive composite tasks are merged into a single composite
+ * operation, which is executed before the next task which is not a composite task, or once all tasks have completed.
+ * If the merged operation fails during a tear down, the operations of each task are executed separately, so one failing
+ * task does not prevent the others from being torn down.
+ * </p>
+ */
+public final class ServerSetupCoordinator {
+    private static final Logger LOGGER = Logger.getLogger(ServerSetupCoordinator.class);
+    private static final ThreadLocal<ServerSetupCoordinator> CURRENT = new ThreadLocal<>();
+
+    /**
+     * A marker for setup tasks whose management operations only change the management model and do not depend on the
+     * results of operations executed before them. In coordinated mode, the operations of these tasks are not executed
+     * until the next task which is not a composite task needs to be executed.
+     */
+    public interface CompositeTask extends ServerSetupTask {
+    }
+
+    private final ManagementClient client;
+    private final ServerManager serverManager;
+    // The deferred operations, keyed by the task which added them
+    private final Map<Object, List<ModelNode>> steps;
+    private AutoCloseable restore;
+    private long timeout;
+    private int reloadRequests;
+    private int remainingTearDowns;
+
+    private ServerSetupCoordinator(final ManagementClient client, final ServerManager serverManager) {
+        this.client = client;
+        this.serverManager = serverManager;
+        steps = new LinkedHashMap<>();
+        timeout = 10L;
+    }
+
+    /**
+     * Returns the coordinator for the setup or tear down in progress on the current thread.
+     *
+     * @return the coordinator or {@code null} if the setup tasks are not executed in coordinated mode
+     */
+    public static ServerSetupCoordinator current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Adds the operation to the composite operation which is executed later. If the operation is a composite
+     * operation, its steps are added.
+     *
+     * @param task the task adding the operation
+     * @param op   the operation to add
+     */
+    public void addSteps(final Object task, final ModelNode op) {
+        final List<ModelNode> taskSteps = steps.computeIfAbsent(task, t -> new ArrayList<>());
+        if (ClientConstants.COMPOSITE.equals(Operations.getOperationName(op))) {
+            taskSteps.addAll(op.get(ClientConstants.STEPS).asList());
+        } else {
+            taskSteps.add(op);
+        }
+    }
+
+    /**
+     * Defers a {@code reloadIfRequired} until all setup tasks, or all tear down tasks, have been executed.
+     *
+     * @param timeout the time to wait for the reload to complete
+     * @param unit    the unit for the timeout
+     */
+    public void deferReload(final long timeout, final TimeUnit unit) {
+        this.timeout = Math.max(this.timeout, unit.toSeconds(timeout));
+        reloadRequests++;
+    }
+
+    /**
+     * Defers the restore of a snapshot until all tear down tasks have been executed. The restore can only be deferred
+     * if no task which was set up before the task restoring the snapshot still has to be torn down. Otherwise, the
+     * restore would revert the tear down of these tasks and the caller must restore the snapshot itself.
+     *
+     * @param restore the restore to execute
+     * @param timeout the time to wait for the restore to complete
+     * @param unit    the unit for the timeout
+     *
+     * @return {@code true} if the restore was deferred, {@code false} if the caller must restore the snapshot
+     */
+    public boolean deferRestore(final AutoCloseable restore, final long timeout, final TimeUnit unit) {
+        if (remainingTearDowns > 0 || this.restore != null) {
+            return false;
+        }
+        this.restore = restore;
+        deferReload(timeout, unit);
+        return true;
+    }
+
+    static ServerSetupCoordinator begin(final ManagementClient client, final ServerManager serverManager) {
+        final ServerSetupCoordinator coordinator = new ServerSetupCoordinator(client, serverManager);
+        CURRENT.set(coordinator);
+        return coordinator;
+    }
+
+    /**
+     * Sets the number of tasks which still have to be torn down after the task currently being torn down.
+     *
+     * @param remainingTearDowns the number of tasks set up before the current task
+     */
+    void tearingDown(final int remainingTearDowns) {
+        this.remainingTearDowns = remainingTearDowns;
+    }
+
+    /**
+     * Returns the tasks which added operations that have not yet been executed.
+     *
+     * @return the tasks with pending operations
+     */
+    Set<Object> pendingTasks() {
+        return new LinkedHashSet<>(steps.keySet());
+    }
+
+    /**
+     * Executes the collected operations as a single composite operation.
+     *
+     * @throws IOException                 if an error occurs communicating with the server
+     * @throws OperationExecutionException if the composite operation failed
+     */
+    void flush() throws IOException {
+        final Map<Object, List<ModelNode>> pending = drain();
+        if (pending.isEmpty()) {
+            return;
+        }
+        final List<ModelNode> all = new ArrayList<>();
+        pending.values().forEach(all::addAll);
+        LOGGER.debugf("Executing %d deferred operation(s) from %d setup task(s)", all.size(), pending.size());
+        execute(all);
+    }
+
+    /**
+     * Executes the collected operations of a tear down as a single composite operation. If the composite operation
+     * fails, the operations of each task are executed as a separate composite operation. Failures are logged.
+     */
+    void flushTearDown() {
+        final Map<Object, List<ModelNode>> pending = drain();
+        if (pending.isEmpty()) {
+            return;
+        }
+        final List<ModelNode> all = new ArrayList<>();
+        pending.values().forEach(all::addAll);
+        LOGGER.debugf("Executing %d deferred tear down operation(s) from %d setup task(s)", all.size(), pending.size());
+        try {
+            execute(all);
+        } catch (IOException | RuntimeException e) {
+            if (pending.size() == 1) {
+                LOGGER.errorf(e, "Failed to execute the deferred tear down operations of %s", pending.keySet());
+                return;
+            }
+            LOGGER.debugf(e, "Failed to execute the deferred tear down operations of %s, executing them for each task",
+                    pending.keySet());
+            for (Map.Entry<Object, List<ModelNode>> entry : pending.entrySet()) {
+                try {
+                    execute(entry.getValue());
+                } catch (IOException | RuntimeException t) {
+                    LOGGER.errorf(t, "Failed to execute the deferred tear down operations of %s", entry.getKey());
+                }
+            }
+        }
+    }
+
+    private Map<Object, List<ModelNode>> drain() {
+        final Map<Object, List<ModelNode>> pending = new LinkedHashMap<>(steps);
+        steps.clear();
+        return pending;
+    }
+
+    private void execute(final Collection<ModelNode> steps) throws IOException {
+        final CompositeOperationBuilder builder = CompositeOperationBuilder.create();
+        steps.forEach(builder::addStep);
+        final Operation op = builder.build();
+        final ModelNode outcome = client.getControllerClient().execute(op);
+        if (!Operations.isSuccessfulOutcome(outcome)) {
+            throw new OperationExecutionException(op, outcome);
+        }
+    }
+
+    /**
+     * Executes the collected operations, the deferred snapshot restore and a single {@code reloadIfRequired}.
+     *
+     * @throws Exception if completing the coordinated work fails
+     */
+    void complete() throws Exception {
+        try {
+            flush();
+        } finally {
+            final AutoCloseable restore = this.restore;
+            this.restore = null;
+            try {
+                if (restore != null) {
+                    restore.close();
+                }
+            } finally {
+                if (reloadRequests > 0) {
+                    LOGGER.debugf("Merged %d reload request(s) into a single reload check", reloadRequests);
+                    reloadRequests = 0;
+                    serverManager.reloadIfRequired(timeout, TimeUnit.SECONDS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ends the coordination on the current thread.
+     */
+    void end() {
+        steps.clear();
+        CURRENT.remove();
+    }
+}
@@ -5,9 +5,11 @@
 
 package org.jboss.as.arquillian.container;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.HashMap;
@@ -21,6 +23,7 @@ import org.jboss.arquillian.container.spi.client.deployment.DeploymentDescriptio
 import org.jboss.arquillian.container.spi.context.ContainerContext;
 import org.jboss.arquillian.container.spi.event.container.AfterUnDeploy;
 import org.jboss.arquillian.container.spi.event.container.BeforeDeploy;
+import org.jboss.arquillian.container.spi.event.container.BeforeStop;
 import org.jboss.arquillian.core.api.Event;
 import org.jboss.arquillian.core.api.Instance;
 import org.jboss.arquillian.core.api.annotation.Inject;
@@ -32,14 +35,21 @@ import org.jboss.arquillian.test.spi.event.enrichment.AfterEnrichment;
 import org.jboss.arquillian.test.spi.event.enrichment.BeforeEnrichment;
 import org.jboss.arquillian.test.spi.event.enrichment.EnrichmentEvent;
 import org.jboss.arquillian.test.spi.event.suite.AfterClass;
+import org.jboss.arquillian.test.spi.event.suite.AfterSuite;
 import org.jboss.arquillian.test.spi.event.suite.BeforeClass;
 import org.jboss.as.arquillian.api.ServerSetup;
 import org.jboss.as.arquillian.api.ServerSetupTask;
 import org.jboss.logging.Logger;
+import org.wildfly.plugin.tools.server.ServerManager;
 
 /**
  * Observes the {@link BeforeDeploy}, {@link AfterUnDeploy} and {@link AfterClass} lifecycle events to ensure
  * {@linkplain ServerSetupTask setup tasks} are executed.
+ * <p>
+ * Setup tasks with a {@linkplain ServerSetup.Scope#SUITE suite scope} are kept after the test class has completed and
+ * are torn down once a deployment for a test class with different setup tasks is deployed to the container, the
+ * container is stopped or the {@link AfterSuite} lifecycle event is observed.
+ * </p>
  *
  * @author Stuart Douglas
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
@@ -61,10 +71,14 @@ public class ServerSetupObserver {
     @Inject
     private Instance<ServiceLoader> serviceLoader;
 
+    @Inject
+    private Instance<ServerManager> serverManager;
+
     @Inject
     private Event<EnrichmentEvent> enrichmentEvent;
 
     private final Map<String, ServerSetupTaskHolder> setupTasks = new HashMap<>();
+    private final Map<String, ServerSetupTaskHolder> sharedTasks = new HashMap<>();
     private boolean afterClassRun = false;
 
     /**
@@ -104,6 +118,18 @@ public class ServerSetupObserver {
         final Class<?> currentClass = classContext.getActiveId();
 
         ServerSetup setup = currentClass.getAnnotation(ServerSetup.class);
+
+        // Setup tasks kept from a previous test class are either shared with this test class or torn down
+        final ServerSetupTaskHolder shared = sharedTasks.remove(containerName);
+        if (shared != null) {
+            if (setup != null && shared.isSharedWith(setup)) {
+                log.debugf("Sharing setup tasks %s with %s", Arrays.toString(setup.value()), currentClass.getName());
+                shared.deployments.add(event.getDeployment());
+                setupTasks.put(containerName, shared);
+                return;
+            }
+            shared.tearDown(containerName);
+        }
         if (setup == null) {
             return;
         }
@@ -134,7 +160,7 @@ public class ServerSetupObserver {
             final ServerSetupTaskHolder holder = entry.getValue();
             // Only tearDown if all deployments have been removed from the container
             if (holder.deployments.isEmpty()) {
-                entry.getValue().tearDown(entry.getKey());
+                release(entry.getKey(), holder);
                 iter.remove();
             }
         }
@@ -163,12 +189,50 @@ public class ServerSetupObserver {
             // happened. This should clean up any tasks left from managed deployments or unmanaged deployments that were
             // not undeployed manually.
             if (afterClassRun && holder.deployments.isEmpty()) {
-                holder.tearDown(containerName);
+                release(containerName, holder);
                 setupTasks.remove(containerName);
             }
         }
     }
 
+    /**
+     * Executed before the container is stopped to tear down any shared setup tasks for the container.
+     *
+     * @param event     the lifecycle event
+     * @param container the container the event is being invoked on
+     */
+    public synchronized void handleBeforeStop(@Observes BeforeStop event, final Container container) {
+        final ServerSetupTaskHolder holder = sharedTasks.remove(container.getName());
+        if (holder != null) {
+            holder.tearDown(container.getName());
+        }
+    }
+
+    /**
+     * Executed after the test suite has completed to tear down any remaining shared setup tasks. This is executed
+     * before the containers are stopped.
+     *
+     * @param afterSuite the lifecycle event
+     */
+    public synchronized void afterSuite(@Observes(precedence = 10) AfterSuite afterSuite) {
+        final Iterator<Map.Entry<String, ServerSetupTaskHolder>> iter = sharedTasks.entrySet().iterator();
+        while (iter.hasNext()) {
+            final Map.Entry<String, ServerSetupTaskHolder> entry = iter.next();
+            iter.remove();
+            entry.getValue().tearDown(entry.getKey());
+        }
+    }
+
+    private void release(final String containerName, final ServerSetupTaskHolder holder) {
+        if (holder.serverSetup != null && holder.serverSetup.scope() == ServerSetup.Scope.SUITE && !holder.setupTasks.isEmpty()
+                && !holder.client.isClosed()) {
+            // Defer the tear down, the next test class may share the setup tasks
+            sharedTasks.put(containerName, holder);
+        } else {
+            holder.tearDown(containerName);
+        }
+    }
+
     private void executeSetup(final ServerSetupTaskHolder holder, ServerSetup setup, String containerName,
             DeploymentDescription deployment)
             throws Exception {
@@ -189,12 +253,12 @@ public class ServerSetupObserver {
             try {
                 // Run tearDown on any task that already successfully completed setup
 
-                // The last setup is the one that just failed. We skip calling tearDown on it
-                // by popping it off the holder's setupTasks queue.
+                // The setup that just failed has already been removed from the holder's setupTasks queue, so
+                // tearDown is not called on it.
                 // As noted in the ServerSetupTask.setup javadoc, implementations that
                 // throw assumption failure exceptions should do so before making any changes
                 // that would normally be reversed in a call to tearDown
-                failedSetup = holder.setupTasks.pollLast();
+                failedSetup = holder.failedTask;
 
                 // Tell the holder to do the normal tearDown
                 holder.tearDown(containerName);
@@ -229,7 +293,10 @@ public class ServerSetupObserver {
         private final ManagementClient client;
         private final Deque<ServerSetupTask> setupTasks;
         private final Set<DeploymentDescription> deployments;
-        private final String containerName;;
+        private final String containerName;
+        private boolean coordinated;
+        private Object failedTask;
+        private ServerSetup serverSetup;
 
         private ServerSetupTaskHolder(final ManagementClient client, final String containerName) {
             this.client = client;
@@ -239,14 +306,41 @@ public class ServerSetupObserver {
         }
 
         void setup(final ServerSetup setup, final String containerName) throws Throwable {
-            final Class<? extends ServerSetupTask>[] classes = setup.value();
-            for (Class<? extends ServerSetupTask> clazz : classes) {
-                final Constructor<? extends ServerSetupTask> ctor = clazz.getDeclaredConstructor();
-                ctor.setAccessible(true);
-                final ServerSetupTask task = ctor.newInstance();
-                enrich(task, clazz.getMethod("setup", ManagementClient.class, String.class));
-                setupTasks.add(task);
-                task.setup(client, containerName);
+            final ServerSetupCoordinator coordinator = setup.coordinated() ? beginCoordination() : null;
+            coordinated = coordinator != null;
+            serverSetup = setup;
+            try {
+                final Class<? extends ServerSetupTask>[] classes = setup.value();
+                for (Class<? extends ServerSetupTask> clazz : classes) {
+                    final Constructor<? extends ServerSetupTask> ctor = clazz.getDeclaredConstructor();
+                    ctor.setAccessible(true);
+                    final ServerSetupTask task = ctor.newInstance();
+                    if (coordinator != null && !(task instanceof ServerSetupCoordinator.CompositeTask)) {
+                        // The task may depend on the deferred operations of the previous tasks
+                        flush(coordinator);
+                    }
+                    enrich(task, clazz.getMethod("setup", ManagementClient.class, String.class));
+                    setupTasks.add(task);
+                    try {
+                        task.setup(client, containerName);
+                    } catch (Throwable t) {
+                        failedTask = setupTasks.pollLast();
+                        if (coordinator != null) {
+                            // The deferred operations of the previous composite tasks are never executed, so these
+                            // tasks must not be torn down
+                            setupTasks.removeAll(coordinator.pendingTasks());
+                        }
+                        throw t;
+                    }
+                }
+                if (coordinator != null) {
+                    flush(coordinator);
+                    coordinator.complete();
+                }
+            } finally {
+                if (coordinator != null) {
+                    coordinator.end();
+                }
             }
         }
 
@@ -255,17 +349,39 @@ public class ServerSetupObserver {
                 log.errorf("The container '%s' may have been stopped. The management client has been closed and " +
                         "tearing down setup tasks is not possible.", containerName);
             } else {
-                ServerSetupTask task;
-                while ((task = setupTasks.pollLast()) != null) {
-                    try {
-                        enrich(task, task.getClass().getMethod("tearDown", ManagementClient.class, String.class));
-                        task.tearDown(client, containerName);
-                    } catch (Throwable e) {
-                        // Unlike with setup, here we don't propagate assumption failures.
-                        // Whatever was meant to be turned off by an assumption failure in setup has
-                        // already been turned off; here we want to ensure all tear down work proceeds.
-
-                        log.errorf(e, "Setup task failed during tear down. Offending class '%s'", task);
+                final ServerSetupCoordinator coordinator = coordinated ? beginCoordination() : null;
+                try {
+                    ServerSetupTask task;
+                    while ((task = setupTasks.pollLast()) != null) {
+                        if (coordinator != null) {
+                            if (!(task instanceof ServerSetupCoordinator.CompositeTask)) {
+                                coordinator.flushTearDown();
+                            }
+                            coordinator.tearingDown(setupTasks.size());
+                        }
+                        try {
+                            enrich(task, task.getClass().getMethod("tearDown", ManagementClient.class, String.class));
+                            task.tearDown(client, containerName);
+                        } catch (Throwable e) {
+                            // Unlike with setup, here we don't propagate assumption failures.
+                            // Whatever was meant to be turned off by an assumption failure in setup has
+                            // already been turned off; here we want to ensure all tear down work proceeds.
+
+                            log.errorf(e, "Setup task failed during tear down. Offending class '%s'", task);
+                        }
+                    }
+                    if (coordinator != null) {
+                        coordinator.flushTearDown();
+                        try {
+                            coordinator.complete();
+                        } catch (Throwable e) {
+                            log.errorf(e, "Failed to complete the coordinated tear down for container '%s'",
+                                    containerName);
+                        }
+                    }
+                } finally {
+                    if (coordinator != null) {
+                        coordinator.end();
                     }
                 }
             }
@@ -281,6 +397,39 @@ public class ServerSetupObserver {
                     "]";
         }
 
+        boolean isSharedWith(final ServerSetup setup) {
+            // Annotations are equal if the ordered setup tasks and all other settings are equal
+            return setup.scope() == ServerSetup.Scope.SUITE && setup.equals(serverSetup);
+        }
+
+        private ServerSetupCoordinator beginCoordination() {
+            final ServerManager serverManager;
+            try {
+                containerContext.get().activate(containerName);
+                serverManager = ServerSetupObserver.this.serverManager.get();
+            } finally {
+                containerContext.get().deactivate();
+            }
+            if (serverManager == null) {
+                log.warnf("No ServerManager is available for container '%s'. Setup tasks will not be coordinated.",
+                        containerName);
+                return null;
+            }
+            return ServerSetupCoordinator.begin(client, serverManager);
+        }
+
+        private void flush(final ServerSetupCoordinator coordinator) throws IOException {
+            final Set<Object> pending = coordinator.pendingTasks();
+            try {
+                coordinator.flush();
+            } catch (IOException | RuntimeException e) {
+                // The composite operation was rolled back, the tasks which added the operations must not be torn down
+                setupTasks.removeAll(pending);
+                failedTask = pending.isEmpty() ? null : pending.iterator().next();
+                throw e;
+            }
+        }
+
         private void enrich(final ServerSetupTask task, final Method method) {
             try {
                 containerContext.get().activate(containerName);
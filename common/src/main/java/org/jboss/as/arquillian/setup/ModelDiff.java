@@ -0,0 +1,164 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.jboss.as.arquillian.setup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+
+/**
+ * Computes the operations which revert the persistent management model of a server to a previously read model.
+ * <p>
+ * Resources added since the model was read are removed and changed attributes are written back. Resources which were
+ * removed cannot be added back reliably, as the model does not describe how they have to be added. In that case no
+ * operations are returned and the model needs to be restored in another way.
+ * </p>
+ */
+final class ModelDiff {
+
+    // Deployments are managed by Arquillian and must not be reverted
+    private static final String DEPLOYMENT = "deployment";
+
+    private final ModelControllerClient client;
+    private final List<ModelNode> writes;
+    private final List<ModelNode> removes;
+    private boolean complete;
+
+    private ModelDiff(final ModelControllerClient client) {
+        this.client = client;
+        writes = new ArrayList<>();
+        removes = new ArrayList<>();
+        complete = true;
+    }
+
+    /**
+     * Reads the persistent management model of the server.
+     *
+     * @param client the client used to communicate with the server
+     *
+     * @return the model
+     *
+     * @throws IOException if an error occurs communicating with the server
+     */
+    static ModelNode readModel(final ModelControllerClient client) throws IOException {
+        final ModelNode op = Operations.createReadResourceOperation(new ModelNode().setEmptyList(), true);
+        op.get("include-defaults").set(false);
+        return execute(client, op);
+    }
+
+    /**
+     * Computes the operations which revert the current model to the baseline model.
+     *
+     * @param client   the client used to communicate with the server
+     * @param baseline the model to revert to
+     * @param current  the current model
+     *
+     * @return the operations to execute in order or {@code null} if the model cannot be reverted with operations
+     *
+     * @throws IOException if an error occurs communicating with the server
+     */
+    static List<ModelNode> diff(final ModelControllerClient client, final ModelNode baseline, final ModelNode current)
+            throws IOException {
+        final ModelDiff diff = new ModelDiff(client);
+        diff.diff(new ModelNode().setEmptyList(), baseline, current);
+        if (!diff.complete) {
+            return null;
+        }
+        // Attributes may reference the added resources, so they are written back before the resources are removed
+        final List<ModelNode> result = new ArrayList<>(diff.writes.size() + diff.removes.size());
+        result.addAll(diff.writes);
+        for (int i = diff.removes.size() - 1; i >= 0; i--) {
+            result.add(diff.removes.get(i));
+        }
+        return result;
+    }
+
+    private void diff(final ModelNode address, final ModelNode baseline, final ModelNode current) throws IOException {
+        if (!complete || baseline.equals(current)) {
+            return;
+        }
+        final Set<String> keys = new LinkedHashSet<>();
+        keys.addAll(keys(baseline));
+        keys.addAll(keys(current));
+        Set<String> childTypes = null;
+        for (String key : keys) {
+            final ModelNode baselineValue = baseline.has(key) ? baseline.get(key) : new ModelNode();
+            final ModelNode currentValue = current.has(key) ? current.get(key) : new ModelNode();
+            if (baselineValue.equals(currentValue)) {
+                continue;
+            }
+            // Only query the child types of resources which have changed
+            if (childTypes == null) {
+                childTypes = readChildTypes(address);
+            }
+            if (childTypes.contains(key)) {
+                if (!(address.asList().isEmpty() && DEPLOYMENT.equals(key))) {
+                    diffChildren(address, key, baselineValue, currentValue);
+                }
+            } else if (baselineValue.isDefined()) {
+                writes.add(Operations.createWriteAttributeOperation(address, key, baselineValue));
+            } else {
+                writes.add(Operations.createUndefineAttributeOperation(address, key));
+            }
+            if (!complete) {
+                return;
+            }
+        }
+    }
+
+    private void diffChildren(final ModelNode address, final String type, final ModelNode baseline,
+            final ModelNode current) throws IOException {
+        final Set<String> names = new LinkedHashSet<>();
+        names.addAll(keys(baseline));
+        names.addAll(keys(current));
+        for (String name : names) {
+            final ModelNode childAddress = address.clone().add(type, name);
+            final boolean inBaseline = baseline.has(name);
+            final boolean inCurrent = current.has(name);
+            if (inBaseline && inCurrent) {
+                diff(childAddress, baseline.get(name), current.get(name));
+            } else if (inCurrent) {
+                // Removing the resource removes its children as well
+                removes.add(Operations.createRemoveOperation(childAddress));
+            } else {
+                complete = false;
+            }
+            if (!complete) {
+                return;
+            }
+        }
+    }
+
+    private Set<String> readChildTypes(final ModelNode address) throws IOException {
+        final Set<String> result = new HashSet<>();
+        for (ModelNode type : execute(client, Operations.createOperation("read-children-types", address)).asList()) {
+            result.add(type.asString());
+        }
+        return result;
+    }
+
+    private static Set<String> keys(final ModelNode node) {
+        return node.getType() == ModelType.OBJECT ? node.keys() : Set.of();
+    }
+
+    private static ModelNode execute(final ModelControllerClient client, final ModelNode op) throws IOException {
+        final ModelNode result = client.execute(op);
+        if (!Operations.isSuccessfulOutcome(result)) {
+            throw new RuntimeException(String.format("Failed to execute operation '%s': %s", op.get(ClientConstants.OP)
+                    .asString(), Operations.getFailureDescription(result).asString()));
+        }
+        return Operations.readResult(result);
+    }
+}
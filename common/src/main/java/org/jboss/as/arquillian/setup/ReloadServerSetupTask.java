@@ -5,12 +5,22 @@
 
 package org.jboss.as.arquillian.setup;
 
+import java.util.concurrent.TimeUnit;
+
 import org.jboss.arquillian.test.api.ArquillianResource;
 import org.jboss.as.arquillian.api.ServerSetupTask;
 import org.jboss.as.arquillian.container.ManagementClient;
+import org.jboss.as.arquillian.container.ServerSetupCoordinator;
 import org.wildfly.plugin.tools.server.ServerManager;
 
 /**
+ * A setup task which reloads the server, if required, after the {@link #doSetup(ManagementClient, String)} and
+ * {@link #doTearDown(ManagementClient, String)} have been executed.
+ * <p>
+ * If the setup tasks are {@linkplain org.jboss.as.arquillian.api.ServerSetup#coordinated() coordinated}, the reload is
+ * deferred until all setup tasks, or all tear down tasks, have been executed.
+ * </p>
+ *
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
  */
 @SuppressWarnings({ "unused", "RedundantThrows" })
@@ -24,7 +34,7 @@ public class ReloadServerSetupTask implements ServerSetupTask {
         try {
             doSetup(managementClient, containerId);
         } finally {
-            serverManager.reloadIfRequired();
+            reloadIfRequired();
         }
     }
 
@@ -33,7 +43,16 @@ public class ReloadServerSetupTask implements ServerSetupTask {
         try {
             doTearDown(managementClient, containerId);
         } finally {
+            reloadIfRequired();
+        }
+    }
+
+    private void reloadIfRequired() throws Exception {
+        final ServerSetupCoordinator coordinator = ServerSetupCoordinator.current();
+        if (coordinator == null) {
             serverManager.reloadIfRequired();
+        } else {
+            coordinator.deferReload(10L, TimeUnit.SECONDS);
         }
     }
 
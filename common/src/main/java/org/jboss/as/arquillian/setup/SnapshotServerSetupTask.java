@@ -5,6 +5,8 @@
 
 package org.jboss.as.arquillian.setup;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -12,8 +14,14 @@ import java.util.concurrent.TimeUnit;
 import org.jboss.arquillian.test.api.ArquillianResource;
 import org.jboss.as.arquillian.api.ServerSetupTask;
 import org.jboss.as.arquillian.container.ManagementClient;
+import org.jboss.as.arquillian.container.RestartableServerManager;
+import org.jboss.as.arquillian.container.ServerSetupCoordinator;
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.helpers.ClientConstants;
 import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.as.controller.client.helpers.Operations.CompositeOperationBuilder;
 import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
 import org.jboss.logging.Logger;
 import org.wildfly.plugin.tools.server.ServerManager;
 
@@ -34,12 +42,31 @@ import org.wildfly.plugin.tools.server.ServerManager;
  * If the {@link #doSetup(ManagementClient, String)} fails, the {@link #tearDown(ManagementClient, String)} method will
  * be invoked.
  * </p>
+ * <p>
+ * If the setup tasks are {@linkplain org.jboss.as.arquillian.api.ServerSetup#coordinated() coordinated}, the reload
+ * after the setup and the restore of the snapshot are deferred until all setup tasks, or all tear down tasks, have been
+ * executed. The restore is only deferred if this is the first setup task. Otherwise, the snapshot is restored when this
+ * task is torn down, as the tasks set up before it are torn down afterward.
+ * </p>
+ * <p>
+ * If {@link #incrementalRestore()} returns {@code true}, the management model is read after the snapshot has been
+ * taken. On tear down the current model is compared to it and only the operations reverting the differences are
+ * executed as a single composite operation. The snapshot is only used to reload the server if the differences cannot
+ * be reverted with operations.
+ * </p>
+ * <p>
+ * A reload does not clear the {@code restart-required} state. If the server requires a restart after the configuration
+ * has been restored, the server is restarted when the {@linkplain RestartableServerManager server manager} supports
+ * it.
+ * </p>
  *
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
  */
 @SuppressWarnings({ "unused", "RedundantThrows" })
 public class SnapshotServerSetupTask implements ServerSetupTask {
     private static final Logger LOGGER = Logger.getLogger(SnapshotServerSetupTask.class);
+    private static final String PROCESS_STATE = "process-state";
+    private static final String RESTART_REQUIRED = "restart-required";
 
     private final Map<String, AutoCloseable> snapshots = new ConcurrentHashMap<>();
 
@@ -50,7 +77,12 @@ public class SnapshotServerSetupTask implements ServerSetupTask {
     public final void setup(final ManagementClient managementClient, final String containerId) throws Exception {
         try {
             final String fileName = serverManager.takeSnapshot();
+            final ModelNode baseline = incrementalRestore() ? ModelDiff.readModel(managementClient.getControllerClient())
+                    : null;
             final AutoCloseable restorer = () -> {
+                if (baseline != null && restoreIncrementally(managementClient.getControllerClient(), baseline)) {
+                    return;
+                }
                 final ModelNode op = Operations.createOperation("reload");
                 op.get("server-config").set(fileName);
                 serverManager.executeReload(op);
@@ -62,6 +94,9 @@ public class SnapshotServerSetupTask implements ServerSetupTask {
                             "Failed to write config after restoring from snapshot " + Operations.getFailureDescription(result1)
                                     .asString());
                 }
+                if (RESTART_REQUIRED.equals(serverManager.serverState())) {
+                    restartIfSupported();
+                }
             };
             snapshots.put(containerId, restorer);
             try {
@@ -75,7 +110,12 @@ public class SnapshotServerSetupTask implements ServerSetupTask {
                 throw e;
             }
         } finally {
-            serverManager.reloadIfRequired(timeout(), TimeUnit.SECONDS);
+            final ServerSetupCoordinator coordinator = ServerSetupCoordinator.current();
+            if (coordinator == null) {
+                serverManager.reloadIfRequired(timeout(), TimeUnit.SECONDS);
+            } else {
+                coordinator.deferReload(timeout(), TimeUnit.SECONDS);
+            }
         }
     }
 
@@ -87,7 +127,10 @@ public class SnapshotServerSetupTask implements ServerSetupTask {
             try {
                 final AutoCloseable snapshot = snapshots.remove(containerId);
                 if (snapshot != null) {
-                    snapshot.close();
+                    final ServerSetupCoordinator coordinator = ServerSetupCoordinator.current();
+                    if (coordinator == null || !coordinator.deferRestore(snapshot, timeout(), TimeUnit.SECONDS)) {
+                        snapshot.close();
+                    }
                 }
             } finally {
                 nonManagementCleanUp();
@@ -95,6 +138,91 @@ public class SnapshotServerSetupTask implements ServerSetupTask {
         }
     }
 
+    private boolean restoreIncrementally(final ModelControllerClient client, final ModelNode baseline) throws Exception {
+        final long start = System.currentTimeMillis();
+        // The changes made during the setup may already require a restart
+        boolean restartRequired = RESTART_REQUIRED.equals(serverManager.serverState());
+        if (restartRequired && !isRestartSupported()) {
+            LOGGER.debugf("The server requires a restart after %s and cannot be restarted, the snapshot will be restored",
+                    getClass().getName());
+            return false;
+        }
+        final List<ModelNode> steps;
+        try {
+            steps = ModelDiff.diff(client, baseline, ModelDiff.readModel(client));
+        } catch (RuntimeException e) {
+            LOGGER.debugf(e, "Failed to compare the model for %s, the snapshot will be restored", getClass().getName());
+            return false;
+        }
+        if (steps == null) {
+            LOGGER.debugf("Resources were removed in %s, the snapshot will be restored", getClass().getName());
+            return false;
+        }
+        if (!steps.isEmpty()) {
+            final CompositeOperationBuilder builder = CompositeOperationBuilder.create();
+            steps.forEach(builder::addStep);
+            final ModelNode result = client.execute(builder.build());
+            if (!Operations.isSuccessfulOutcome(result)) {
+                LOGGER.debugf("Failed to revert %d operation(s) for %s, the snapshot will be restored: %s", steps.size(),
+                        getClass().getName(), Operations.getFailureDescription(result));
+                return false;
+            }
+            final String processState = getProcessState(result);
+            if (RESTART_REQUIRED.equals(processState)) {
+                if (!isRestartSupported()) {
+                    LOGGER.debugf("Reverting the changes of %s requires a restart, the snapshot will be restored",
+                            getClass().getName());
+                    return false;
+                }
+                restartRequired = true;
+            } else if (!restartRequired && "reload-required".equals(processState)) {
+                serverManager.reloadIfRequired(timeout(), TimeUnit.SECONDS);
+            }
+        }
+        // The reverted configuration has been persisted, a restart boots the server with it
+        if (restartRequired) {
+            restartIfSupported();
+        }
+        LOGGER.infof("Restored the configuration for %s with %d operation(s) in %d ms", getClass().getName(),
+                steps.size(), System.currentTimeMillis() - start);
+        return true;
+    }
+
+    /**
+     * Returns the process state reported in the response headers of the composite operation or of any of its steps.
+     */
+    static String getProcessState(final ModelNode result) {
+        String processState = result.get(ClientConstants.RESPONSE_HEADERS, PROCESS_STATE).asString("");
+        final ModelNode stepResults = result.get(ClientConstants.RESULT);
+        if (!RESTART_REQUIRED.equals(processState) && stepResults.getType() == ModelType.OBJECT) {
+            for (String step : stepResults.keys()) {
+                final String stepState = stepResults.get(step, ClientConstants.RESPONSE_HEADERS, PROCESS_STATE).asString("");
+                if (RESTART_REQUIRED.equals(stepState)) {
+                    return stepState;
+                }
+                if (processState.isEmpty()) {
+                    processState = stepState;
+                }
+            }
+        }
+        return processState;
+    }
+
+    private boolean isRestartSupported() {
+        return serverManager instanceof RestartableServerManager
+                && ((RestartableServerManager) serverManager).isRestartSupported();
+    }
+
+    private void restartIfSupported() throws IOException {
+        if (isRestartSupported()) {
+            LOGGER.infof("The server requires a restart after restoring the configuration for %s", getClass().getName());
+            ((RestartableServerManager) serverManager).restart();
+        } else {
+            LOGGER.warnf("The server requires a restart after restoring the configuration for %s, but cannot be restarted",
+                    getClass().getName());
+        }
+    }
+
     /**
      * Execute any necessary setup work that needs to happen before the first deployment to the given container.
      * <p>
@@ -141,4 +269,15 @@ public class SnapshotServerSetupTask implements ServerSetupTask {
     protected long timeout() {
         return 10L;
     }
+
+    /**
+     * Indicates whether the configuration should be restored by reverting the differences to the snapshot rather than
+     * by reloading the server with the snapshot.
+     *
+     * @return {@code true} to restore incrementally, the default is the value of the
+     *             {@code wildfly.arquillian.snapshot.incremental} system property
+     */
+    protected boolean incrementalRestore() {
+        return Boolean.getBoolean("wildfly.arquillian.snapshot.incremental");
+    }
 }
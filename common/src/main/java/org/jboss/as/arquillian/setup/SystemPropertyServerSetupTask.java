@@ -7,18 +7,22 @@ package org.jboss.as.arquillian.setup;
 
 import java.util.Map;
 
-import org.jboss.as.arquillian.api.ServerSetupTask;
 import org.jboss.as.arquillian.container.ManagementClient;
+import org.jboss.as.arquillian.container.ServerSetupCoordinator;
 import org.jboss.as.controller.client.helpers.Operations;
 import org.jboss.as.controller.client.helpers.Operations.CompositeOperationBuilder;
 import org.jboss.dmr.ModelNode;
 
 /**
  * A setup task for Arquillian tests which set system properties in WildFly and remove them when the test is complete.
+ * <p>
+ * If the setup tasks are {@linkplain org.jboss.as.arquillian.api.ServerSetup#coordinated() coordinated}, the
+ * operations are merged into the composite operation of the coordinator.
+ * </p>
  *
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
  */
-public abstract class SystemPropertyServerSetupTask implements ServerSetupTask {
+public abstract class SystemPropertyServerSetupTask implements ServerSetupCoordinator.CompositeTask {
 
     private final Map<String, String> properties;
 
@@ -40,6 +44,9 @@ public abstract class SystemPropertyServerSetupTask implements ServerSetupTask {
             op.get("value").set(entry.getValue());
             builder.addStep(op);
         }
+        if (defer(builder)) {
+            return;
+        }
         executeOperation(managementClient, builder.build(),
                 (result) -> String.format("Failed to add system properties %s%n%s", properties,
                         Operations.getFailureDescription(result)
@@ -53,9 +60,21 @@ public abstract class SystemPropertyServerSetupTask implements ServerSetupTask {
             final ModelNode address = Operations.createAddress("system-property", entry.getKey());
             builder.addStep(Operations.createRemoveOperation(address));
         }
+        if (defer(builder)) {
+            return;
+        }
         executeOperation(managementClient, builder.build(),
                 (result) -> String.format("Failed to remove system properties %s%n%s", properties,
                         Operations.getFailureDescription(result)
                                 .asString()));
     }
+
+    private boolean defer(final CompositeOperationBuilder builder) {
+        final ServerSetupCoordinator coordinator = ServerSetupCoordinator.current();
+        if (coordinator == null) {
+            return false;
+        }
+        coordinator.addSteps(this, builder.build().getOperation());
+        return true;
+    }
 }
@@ -0,0 +1,307 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.container;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.as.controller.client.OperationResponse;
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.jboss.threads.AsyncFuture;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the content cache of the {@link ArchiveDeployer}.
+ */
+public class ArchiveDeployerTest {
+
+    private TestServer server;
+    private ArchiveDeployer deployer;
+
+    @Before
+    public void createDeployer() {
+        server = new TestServer();
+        deployer = new ArchiveDeployer(new ManagementClient(server, "localhost", 9990, "remote+http"),
+                ArchiveDeployer.ExportMode.STREAM, true);
+    }
+
+    @Test
+    public void cacheHit() throws Exception {
+        deployer.deploy(createArchive("test.war", "first"));
+        deployer.undeploy("test.war");
+        // The deployment is only disabled, so the server keeps the content
+        Assert.assertEquals(Boolean.FALSE, server.deployments.get("test.war").enabled);
+        Assert.assertEquals(1, server.repository.size());
+        server.executed.clear();
+
+        // Identical contents enable the deployment again without an upload
+        deployer.deploy(createArchive("test.war", "first"));
+        Assert.assertEquals(1L, deployer.getCacheHits());
+        Assert.assertEquals(1L, deployer.getCacheMisses());
+        Assert.assertEquals(List.of(ClientConstants.DEPLOYMENT_DEPLOY_OPERATION), server.executed);
+        Assert.assertEquals(Boolean.TRUE, server.deployments.get("test.war").enabled);
+        Assert.assertEquals(1, server.uploads);
+    }
+
+    @Test
+    public void cacheHitOtherName() throws Exception {
+        deployer.deploy(createArchive("first.war", "contents"));
+        deployer.undeploy("first.war");
+        server.executed.clear();
+
+        // The content is still referenced by the disabled deployment, so it can be referenced by its hash
+        deployer.deploy(createArchive("second.war", "contents"));
+        Assert.assertEquals(1L, deployer.getCacheHits());
+        Assert.assertEquals(List.of(ClientConstants.ADD), server.executed);
+        Assert.assertEquals(Boolean.TRUE, server.deployments.get("second.war").enabled);
+        Assert.assertEquals(1, server.uploads);
+
+        // A retained deployment with other contents is replaced by the content hash
+        deployer.undeploy("second.war");
+        deployer.deploy(createArchive("first.war", "other"));
+        deployer.undeploy("first.war");
+        server.executed.clear();
+        deployer.deploy(createArchive("first.war", "contents"));
+        Assert.assertEquals(2L, deployer.getCacheHits());
+        Assert.assertEquals(List.of(ClientConstants.DEPLOYMENT_FULL_REPLACE_OPERATION), server.executed);
+        Assert.assertEquals(2, server.uploads);
+    }
+
+    @Test
+    public void cacheMiss() throws Exception {
+        deployer.deploy(createArchive("test.war", "first"));
+        deployer.undeploy("test.war");
+        // Different contents must be uploaded, the retained deployment is removed first
+        deployer.deploy(createArchive("test.war", "second"));
+        Assert.assertEquals(0L, deployer.getCacheHits());
+        Assert.assertEquals(2L, deployer.getCacheMisses());
+        Assert.assertEquals(2, server.uploads);
+        Assert.assertEquals(Set.of("test.war"), server.deployments.keySet());
+        Assert.assertEquals(1, server.repository.size());
+    }
+
+    @Test
+    public void contentRemoved() throws Exception {
+        deployer.deploy(createArchive("test.war", "first"));
+        deployer.undeploy("test.war");
+        // The disabled deployment was removed by another client, so the server no longer holds the content
+        server.remove("test.war");
+        Assert.assertTrue(server.repository.isEmpty());
+
+        deployer.deploy(createArchive("test.war", "first"));
+        Assert.assertEquals(0L, deployer.getCacheHits());
+        Assert.assertEquals(2L, deployer.getCacheMisses());
+        Assert.assertEquals(Boolean.TRUE, server.deployments.get("test.war").enabled);
+    }
+
+    @Test
+    public void removeRetainedDeployments() throws Exception {
+        deployer.deploy(createArchive("first.war", "first"));
+        deployer.deploy(createArchive("second.war", "second"));
+        deployer.undeploy("first.war");
+        deployer.removeRetainedDeployments();
+        // Only the disabled deployment is removed
+        Assert.assertEquals(Set.of("second.war"), server.deployments.keySet());
+        Assert.assertEquals(1, server.repository.size());
+    }
+
+    private static WebArchive createArchive(final String name, final String contents) {
+        return ShrinkWrap.create(WebArchive.class, name)
+                .addAsWebInfResource(new StringAsset(contents), "test.txt");
+    }
+
+    private static class TestDeployment {
+        private final String hash;
+        private Boolean enabled;
+
+        private TestDeployment(final String hash, final boolean enabled) {
+            this.hash = hash;
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * A client which behaves like the deployment resources of a server. Content which is no longer referenced by a
+     * deployment is removed from the repository.
+     */
+    private static class TestServer implements ModelControllerClient {
+        private final List<String> executed = new ArrayList<>();
+        private final Map<String, TestDeployment> deployments = new LinkedHashMap<>();
+        private final Set<String> repository = new HashSet<>();
+        private int uploads;
+
+        @Override
+        public ModelNode execute(final ModelNode operation) {
+            final String name = operation.get(ClientConstants.OP).asString();
+            executed.add(name);
+            final Map<String, TestDeployment> previousDeployments = new LinkedHashMap<>(deployments);
+            final Set<String> previousRepository = new HashSet<>(repository);
+            final int previousUploads = uploads;
+            final ModelNode result = execute(name, operation);
+            if (!Operations.isSuccessfulOutcome(result)) {
+                // Roll back
+                deployments.clear();
+                deployments.putAll(previousDeployments);
+                repository.clear();
+                repository.addAll(previousRepository);
+                uploads = previousUploads;
+            }
+            return result;
+        }
+
+        private ModelNode execute(final String name, final ModelNode operation) {
+            final ModelNode address = Operations.getOperationAddress(operation);
+            final String deploymentName = address.asList().isEmpty() ? operation.get(ClientConstants.NAME).asString()
+                    : address.asPropertyList().get(0).getValue().asString();
+            final TestDeployment deployment = deployments.get(deploymentName);
+            switch (name) {
+                case ClientConstants.COMPOSITE: {
+                    final ModelNode stepResults = new ModelNode();
+                    int i = 1;
+                    for (ModelNode step : operation.get(ClientConstants.STEPS).asList()) {
+                        final ModelNode stepResult = execute(step.get(ClientConstants.OP).asString(), step);
+                        if (!Operations.isSuccessfulOutcome(stepResult)) {
+                            return stepResult;
+                        }
+                        stepResults.get("step-" + i++).set(stepResult);
+                    }
+                    return success(stepResults);
+                }
+                case ClientConstants.ADD: {
+                    if (deployment != null) {
+                        return failed("Duplicate resource " + deploymentName);
+                    }
+                    final String hash = resolveContent(operation);
+                    if (hash == null) {
+                        return failed("No deployment content is available");
+                    }
+                    deployments.put(deploymentName, new TestDeployment(hash, operation.get("enabled").asBoolean(false)));
+                    return success(new ModelNode());
+                }
+                case ClientConstants.DEPLOYMENT_FULL_REPLACE_OPERATION: {
+                    final String hash = resolveContent(operation);
+                    if (deployment == null || hash == null) {
+                        return failed("Cannot replace " + deploymentName);
+                    }
+                    deployments.put(deploymentName, new TestDeployment(hash, operation.get("enabled").asBoolean(false)));
+                    removeUnreferencedContent();
+                    return success(new ModelNode());
+                }
+                case ClientConstants.DEPLOYMENT_DEPLOY_OPERATION:
+                case ClientConstants.DEPLOYMENT_UNDEPLOY_OPERATION:
+                    if (deployment == null) {
+                        return failed("Deployment not found " + deploymentName);
+                    }
+                    deployment.enabled = ClientConstants.DEPLOYMENT_DEPLOY_OPERATION.equals(name);
+                    return success(new ModelNode());
+                case ClientConstants.DEPLOYMENT_REMOVE_OPERATION:
+                    if (deployment == null) {
+                        return failed("Deployment not found " + deploymentName);
+                    }
+                    remove(deploymentName);
+                    return success(new ModelNode());
+                case ClientConstants.READ_ATTRIBUTE_OPERATION: {
+                    if (deployment == null) {
+                        return failed("Deployment not found " + deploymentName);
+                    }
+                    final ModelNode content = new ModelNode();
+                    content.add().get("hash").set(deployment.hash.getBytes(StandardCharsets.UTF_8));
+                    return success(content);
+                }
+                case ClientConstants.READ_CHILDREN_NAMES_OPERATION: {
+                    final ModelNode names = new ModelNode().setEmptyList();
+                    deployments.keySet().forEach(names::add);
+                    return success(names);
+                }
+                case ClientConstants.READ_RESOURCE_OPERATION: {
+                    // The description of the server
+                    final ModelNode description = new ModelNode();
+                    description.get("product-name").set("WildFly");
+                    description.get("product-version").set("31.0.0.Final");
+                    description.get("release-version").set("23.0.0.Final");
+                    description.get("launch-type").set("STANDALONE");
+                    return success(description);
+                }
+                default:
+                    return failed("Unsupported operation " + operation);
+            }
+        }
+
+        private String resolveContent(final ModelNode operation) {
+            final ModelNode content = operation.get(ClientConstants.CONTENT).get(0);
+            if (content.hasDefined("hash")) {
+                final String hash = new String(content.get("hash").asBytes(), StandardCharsets.UTF_8);
+                return repository.contains(hash) ? hash : null;
+            }
+            final String hash = "content-" + ++uploads;
+            repository.add(hash);
+            return hash;
+        }
+
+        private void remove(final String deploymentName) {
+            deployments.remove(deploymentName);
+            removeUnreferencedContent();
+        }
+
+        private void removeUnreferencedContent() {
+            repository.removeIf(hash -> deployments.values().stream().noneMatch(d -> d.hash.equals(hash)));
+        }
+
+        private static ModelNode success(final ModelNode result) {
+            final ModelNode response = new ModelNode();
+            response.get(ClientConstants.OUTCOME).set(ClientConstants.SUCCESS);
+            response.get(ClientConstants.RESULT).set(result);
+            return response;
+        }
+
+        private static ModelNode failed(final String description) {
+            final ModelNode result = new ModelNode();
+            result.get(ClientConstants.OUTCOME).set(ClientConstants.FAILED);
+            result.get(ClientConstants.FAILURE_DESCRIPTION).set(description);
+            return result;
+        }
+
+        @Override
+        public ModelNode execute(final Operation operation) {
+            return execute(operation.getOperation());
+        }
+
+        @Override
+        public OperationResponse executeOperation(final Operation operation, final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AsyncFuture<ModelNode> executeAsync(final Operation operation,
+                final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AsyncFuture<OperationResponse> executeOperationAsync(final Operation operation,
+                final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.container;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConsoleConsumerTest {
+
+    @Test
+    public void shouldFrameLinesAndKeepHistory() throws Exception {
+        final String output = "line 1\r\nline 2\rstill line 2\nline 3\nline 4";
+        final List<String> lines = new CopyOnWriteArrayList<>();
+        final List<Consumer<String>> listeners = List.of(lines::add);
+        final ConsoleConsumer consumer = new ConsoleConsumer(new ChunkedInputStream(output, 3), false, 2, null,
+                listeners);
+        consumer.run();
+
+        Assert.assertEquals(List.of("line 1", "line 2\rstill line 2", "line 3", "line 4"), lines);
+        Assert.assertEquals(List.of("line 3", "line 4"), consumer.getHistory());
+    }
+
+    @Test
+    public void shouldTruncateLongLines() throws Exception {
+        final String longLine = "x".repeat(ConsoleConsumer.MAX_LINE_LENGTH * 3);
+        final String limitLine = "y".repeat(ConsoleConsumer.MAX_LINE_LENGTH);
+        final String output = longLine + "\n" + limitLine + "\r\nshort\n";
+        final List<String> lines = new CopyOnWriteArrayList<>();
+        final ConsoleConsumer consumer = new ConsoleConsumer(new ChunkedInputStream(output, 1000), false, 10, null,
+                List.<Consumer<String>> of(lines::add));
+        consumer.run();
+
+        Assert.assertEquals(List.of(longLine.substring(0, ConsoleConsumer.MAX_LINE_LENGTH) + "...", limitLine, "short"),
+                lines);
+        Assert.assertEquals(lines, consumer.getHistory());
+    }
+
+    @Test
+    public void shouldDetectBootMessage() throws Exception {
+        try (PipedOutputStream out = new PipedOutputStream()) {
+            final ConsoleConsumer consumer = new ConsoleConsumer(new PipedInputStream(out), false, 0, null, List.of())
+                    .start("console-consumer-test");
+            out.write("12:00:00,000 INFO  [org.jboss.as] (Controller Boot Thread) WFLYSRV002".getBytes(
+                    Charset.defaultCharset()));
+            out.flush();
+            out.write("5: started\n".getBytes(Charset.defaultCharset()));
+            out.flush();
+            // The console is still open, so only the boot message can wake the waiter
+            final long start = System.nanoTime();
+            consumer.awaitBootMessage(30L, TimeUnit.SECONDS);
+            Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(20L));
+        }
+    }
+
+    @Test
+    public void shouldWriteOutputFile() throws Exception {
+        final Path dir = Files.createTempDirectory("console-consumer");
+        final Path file = dir.resolve("nested").resolve("console.log");
+        try {
+            final StringBuilder output = new StringBuilder();
+            for (int i = 0; i < 10_000; i++) {
+                output.append("line ").append(i).append('\n');
+            }
+            final ConsoleConsumer consumer = new ConsoleConsumer(new ChunkedInputStream(output.toString(), 8192), false,
+                    10, file, List.of());
+            consumer.run();
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+            while (!(Files.exists(file) && Files.size(file) == output.length()) && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(10L);
+            }
+            Assert.assertEquals(output.toString(), Files.readString(file, Charset.defaultCharset()));
+            Assert.assertEquals(10, consumer.getHistory().size());
+            Assert.assertEquals("line 9999", consumer.getHistory().get(9));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.getParent());
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void shouldNotBlockIfOutputFileCannotBeWritten() throws Exception {
+        final Path dir = Files.createTempDirectory("console-consumer");
+        // The parent of the output file is a regular file, so the output file cannot be created
+        final Path parent = Files.createFile(dir.resolve("parent"));
+        try {
+            final StringBuilder output = new StringBuilder();
+            for (int i = 0; i < 100_000; i++) {
+                output.append("line ").append(i).append('\n');
+            }
+            final ConsoleConsumer consumer = new ConsoleConsumer(new ChunkedInputStream(output.toString(), 1024), false,
+                    1, parent.resolve("console.log"), List.of());
+            consumer.run();
+            Assert.assertEquals(List.of("line 99999"), consumer.getHistory());
+        } finally {
+            Files.deleteIfExists(parent);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * Returns at most the chunk size on each read to simulate output arriving in pieces.
+     */
+    private static class ChunkedInputStream extends InputStream {
+        private final ByteArrayInputStream delegate;
+        private final int chunkSize;
+
+        private ChunkedInputStream(final String value, final int chunkSize) {
+            delegate = new ByteArrayInputStream(value.getBytes(Charset.defaultCharset()));
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read() {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            return delegate.read(b, off, Math.min(len, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.container;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link FastDirectoryCopy}.
+ */
+public class FastDirectoryCopyTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void copy() throws Exception {
+        final Path from = createServerDir(folder.newFolder("from").toPath());
+        final Path to = folder.getRoot().toPath().resolve("to");
+        FastDirectoryCopy.copy(from, to);
+
+        Assert.assertEquals("<server/>", Files.readString(to.resolve("configuration/standalone.xml")));
+        Assert.assertEquals("content", Files.readString(to.resolve("content/ab/cdef/content")));
+        // The copy must be independent of the source
+        Files.writeString(to.resolve("configuration/standalone.xml"), "<changed/>");
+        Assert.assertEquals("<server/>", Files.readString(from.resolve("configuration/standalone.xml")));
+    }
+
+    @Test
+    public void deleteInBackground() throws Exception {
+        final Path dir = createServerDir(folder.newFolder("base").toPath());
+        FastDirectoryCopy.deleteInBackground(dir);
+
+        Assert.assertTrue(Files.notExists(dir));
+        awaitDeleted(dir);
+    }
+
+    @Test
+    public void staleDirectoriesDeletedOnCopy() throws Exception {
+        final Path from = createServerDir(folder.newFolder("from").toPath());
+        final Path to = folder.getRoot().toPath().resolve("to");
+        // A directory moved aside by a JVM which exited before the delete completed
+        final Path stale = createServerDir(folder.getRoot().toPath().resolve("to.delete-1"));
+        final Path other = createServerDir(folder.getRoot().toPath().resolve("other.delete-1"));
+        FastDirectoryCopy.copy(from, to);
+
+        awaitDeleted(to);
+        Assert.assertTrue(Files.exists(to.resolve("configuration/standalone.xml")));
+        Assert.assertTrue("Only stale directories of the target should be deleted", Files.exists(other));
+        Assert.assertTrue(Files.notExists(stale));
+    }
+
+    private static Path createServerDir(final Path dir) throws IOException {
+        Files.createDirectories(dir.resolve("configuration"));
+        Files.writeString(dir.resolve("configuration/standalone.xml"), "<server/>", StandardCharsets.UTF_8);
+        Files.createDirectories(dir.resolve("content/ab/cdef"));
+        Files.writeString(dir.resolve("content/ab/cdef/content"), "content", StandardCharsets.UTF_8);
+        return dir;
+    }
+
+    private static void awaitDeleted(final Path dir) throws InterruptedException, IOException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+        while (System.nanoTime() < deadline) {
+            try (var stream = Files.list(dir.getParent())) {
+                if (stream.noneMatch(p -> p.getFileName().toString().startsWith(dir.getFileName() + ".delete-"))) {
+                    return;
+                }
+            }
+            TimeUnit.MILLISECONDS.sleep(50L);
+        }
+        Assert.fail("Directories moved aside for " + dir + " were not deleted");
+    }
+}
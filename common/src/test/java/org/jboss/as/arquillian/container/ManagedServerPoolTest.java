@@ -0,0 +1,83 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.container;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ManagedServerPool}.
+ */
+public class ManagedServerPoolTest {
+
+    @Test
+    public void sameConfigurationSameKey() {
+        Assert.assertEquals(ManagedServerPool.createKey(createConfig("-Xmx512m", "standalone.xml")),
+                ManagedServerPool.createKey(createConfig("-Xmx512m", "standalone.xml")));
+    }
+
+    @Test
+    public void launchArgumentsChangeKey() {
+        final String key = ManagedServerPool.createKey(createConfig("-Xmx512m", "standalone.xml"));
+        // Same management address, port and server home, but a different launch command
+        Assert.assertNotEquals(key, ManagedServerPool.createKey(createConfig("-Xmx1g", "standalone.xml")));
+        Assert.assertNotEquals(key, ManagedServerPool.createKey(createConfig("-Xmx512m", "standalone-full.xml")));
+    }
+
+    @Test
+    public void arrayPropertiesChangeKey() {
+        final TestConfiguration config = createConfig("-Xmx512m", "standalone.xml");
+        config.setWaitForPorts("8080 9990");
+        final TestConfiguration other = createConfig("-Xmx512m", "standalone.xml");
+        other.setWaitForPorts("8080 9990");
+        Assert.assertEquals(ManagedServerPool.createKey(config), ManagedServerPool.createKey(other));
+        other.setWaitForPorts("8080");
+        Assert.assertNotEquals(ManagedServerPool.createKey(config), ManagedServerPool.createKey(other));
+    }
+
+    @Test
+    public void deleteSnapshot() throws Exception {
+        final Path snapshot = Files.createTempFile("snapshot", ".xml");
+        ManagedServerPool.deleteSnapshot(snapshot.toString());
+        Assert.assertFalse(Files.exists(snapshot));
+        // Deleting a snapshot which no longer exists or was never taken is ignored
+        ManagedServerPool.deleteSnapshot(snapshot.toString());
+        ManagedServerPool.deleteSnapshot(null);
+    }
+
+    private static TestConfiguration createConfig(final String javaVmArguments, final String serverConfig) {
+        final TestConfiguration config = new TestConfiguration();
+        config.setManagementAddress("127.0.0.1");
+        config.setManagementPort(9990);
+        config.setJbossHome("/opt/wildfly");
+        config.setJavaVmArguments(javaVmArguments);
+        config.setServerConfig(serverConfig);
+        return config;
+    }
+
+    public static class TestConfiguration extends DistributionContainerConfiguration {
+        private String javaVmArguments;
+        private String serverConfig;
+
+        public String getJavaVmArguments() {
+            return javaVmArguments;
+        }
+
+        public void setJavaVmArguments(final String javaVmArguments) {
+            this.javaVmArguments = javaVmArguments;
+        }
+
+        public String getServerConfig() {
+            return serverConfig;
+        }
+
+        public void setServerConfig(final String serverConfig) {
+            this.serverConfig = serverConfig;
+        }
+    }
+}
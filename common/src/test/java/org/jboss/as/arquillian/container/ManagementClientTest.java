@@ -4,6 +4,23 @@
  */
 package org.jboss.as.arquillian.container;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jboss.arquillian.container.spi.client.protocol.metadata.HTTPContext;
+import org.jboss.arquillian.container.spi.client.protocol.metadata.ProtocolMetaData;
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.as.controller.client.OperationResponse;
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.Property;
+import org.jboss.threads.AsyncFuture;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -22,4 +39,128 @@ public class ManagementClientTest {
         String formattedIp = ManagementClient.formatIP(sourceIp);
         Assert.assertEquals(sourceIp, formattedIp);
     }
+
+    @Test
+    public void shouldReadProtocolMetaDataInSingleOperation() {
+        final TestClient client = new TestClient();
+        final ManagementClient managementClient = new ManagementClient(client, "localhost", 9990, "remote+http");
+        final Map<String, ProtocolMetaData> metaData = managementClient
+                .getProtocolMetaData(List.of("first.war", "second.war", "app.ear", "lib.jar"));
+
+        Assert.assertEquals(List.of("first.war", "second.war", "app.ear", "lib.jar"), List.copyOf(metaData.keySet()));
+        // One composite operation to initialize the client and one for the contexts of all the deployments
+        Assert.assertEquals(List.of(ClientConstants.COMPOSITE, ClientConstants.COMPOSITE), client.executed);
+        Assert.assertEquals(Set.of("/first/default", "/first/TestServlet"), servlets(metaData.get("first.war")));
+        Assert.assertEquals(Set.of("/second/default", "/second/TestServlet"), servlets(metaData.get("second.war")));
+        Assert.assertEquals(Set.of("/web/default", "/web/TestServlet"), servlets(metaData.get("app.ear")));
+        Assert.assertEquals(Set.of(), servlets(metaData.get("lib.jar")));
+    }
+
+    @Test
+    public void shouldResolveEachDeploymentIfCompositeFails() {
+        final TestClient client = new TestClient();
+        client.failComposite = true;
+        final ManagementClient managementClient = new ManagementClient(client, "localhost", 9990, "remote+http");
+        final Map<String, ProtocolMetaData> metaData = managementClient
+                .getProtocolMetaData(List.of("first.war", "app.ear"));
+
+        Assert.assertEquals(Set.of("/first/default", "/first/TestServlet"), servlets(metaData.get("first.war")));
+        Assert.assertEquals(Set.of("/web/default", "/web/TestServlet"), servlets(metaData.get("app.ear")));
+    }
+
+    private static Set<String> servlets(final ProtocolMetaData metaData) {
+        return metaData.getContexts(HTTPContext.class)
+                .iterator()
+                .next()
+                .getServlets()
+                .stream()
+                .map(servlet -> servlet.getContextRoot() + "/" + servlet.getName())
+                .collect(Collectors.toSet());
+    }
+
+    private static class TestClient implements ModelControllerClient {
+        private final List<String> executed = new ArrayList<>();
+        private boolean failComposite;
+        private boolean initialized;
+
+        @Override
+        public ModelNode execute(final ModelNode operation) {
+            final String name = operation.get(ClientConstants.OP).asString();
+            executed.add(name);
+            if (!initialized) {
+                initialized = true;
+                // Read the undertow subsystem, the subsystem names and the socket bindings
+                final ModelNode result = success(new ModelNode());
+                result.get(ClientConstants.RESULT, "step-1").set(success(new ModelNode().setEmptyObject()));
+                result.get(ClientConstants.RESULT, "step-2").set(success(new ModelNode().add("undertow")));
+                result.get(ClientConstants.RESULT, "step-3").set(success(new ModelNode().setEmptyList()));
+                return result;
+            }
+            if (ClientConstants.COMPOSITE.equals(name)) {
+                if (failComposite) {
+                    final ModelNode result = new ModelNode();
+                    result.get(ClientConstants.OUTCOME).set(ClientConstants.FAILED);
+                    result.get(ClientConstants.FAILURE_DESCRIPTION).set("composite failed");
+                    return result;
+                }
+                final ModelNode stepResults = new ModelNode();
+                int i = 1;
+                for (ModelNode step : operation.get(ClientConstants.STEPS).asList()) {
+                    stepResults.get("step-" + i++).set(readSubsystems(step));
+                }
+                return success(stepResults);
+            }
+            return readSubsystems(operation);
+        }
+
+        private static ModelNode readSubsystems(final ModelNode operation) {
+            final List<Property> address = Operations.getOperationAddress(operation).asPropertyList();
+            final String deploymentName = address.get(0).getValue().asString();
+            final boolean ear = deploymentName.endsWith(".ear");
+            final ModelNode subsystemAddress = new ModelNode().add(ClientConstants.DEPLOYMENT, deploymentName);
+            if (ear) {
+                subsystemAddress.add("subdeployment", "web.war");
+            }
+            subsystemAddress.add(ClientConstants.SUBSYSTEM, "undertow");
+            final ModelNode undertow = new ModelNode();
+            undertow.get("context-root").set("/" + (ear ? "web" : deploymentName.substring(0, deploymentName.length() - 4)));
+            undertow.get("servlet").add("TestServlet", new ModelNode().setEmptyObject());
+            final ModelNode subsystem = success(undertow);
+            subsystem.get(ClientConstants.OP_ADDR).set(subsystemAddress);
+            return success(new ModelNode().add(subsystem));
+        }
+
+        private static ModelNode success(final ModelNode result) {
+            final ModelNode response = new ModelNode();
+            response.get(ClientConstants.OUTCOME).set(ClientConstants.SUCCESS);
+            response.get(ClientConstants.RESULT).set(result);
+            return response;
+        }
+
+        @Override
+        public ModelNode execute(final Operation operation) {
+            return execute(operation.getOperation());
+        }
+
+        @Override
+        public OperationResponse executeOperation(final Operation operation, final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AsyncFuture<ModelNode> executeAsync(final Operation operation,
+                final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AsyncFuture<OperationResponse> executeOperationAsync(final Operation operation,
+                final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.container;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.as.controller.client.OperationResponse;
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.threads.AsyncFuture;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ServerSetupCoordinatorTest {
+
+    private ServerSetupCoordinator coordinator;
+
+    @After
+    public void end() {
+        if (coordinator != null) {
+            coordinator.end();
+        }
+    }
+
+    @Test
+    public void shouldMergeOperations() throws Exception {
+        final TestClient client = new TestClient();
+        coordinator = ServerSetupCoordinator.begin(new ManagementClient(client, "localhost", 9990, "remote+http"), null);
+        coordinator.addSteps("first", operation("a"));
+        coordinator.addSteps("second", composite(operation("b"), operation("c")));
+
+        Assert.assertEquals(Set.of("first", "second"), coordinator.pendingTasks());
+        coordinator.flush();
+        Assert.assertEquals(List.of(List.of("a", "b", "c")), client.executed);
+        Assert.assertEquals(Set.of(), coordinator.pendingTasks());
+    }
+
+    @Test
+    public void shouldTearDownEachTaskIfMergedOperationFails() {
+        final TestClient client = new TestClient();
+        coordinator = ServerSetupCoordinator.begin(new ManagementClient(client, "localhost", 9990, "remote+http"), null);
+        coordinator.addSteps("first", operation("a"));
+        coordinator.addSteps("second", composite(operation("fail"), operation("b")));
+        coordinator.addSteps("third", operation("c"));
+
+        coordinator.flushTearDown();
+        Assert.assertEquals(List.of(List.of("a", "fail", "b", "c"), List.of("a"), List.of("fail", "b"), List.of("c")),
+                client.executed);
+        Assert.assertEquals(Set.of(), coordinator.pendingTasks());
+    }
+
+    private static ModelNode operation(final String name) {
+        return Operations.createOperation(name);
+    }
+
+    private static ModelNode composite(final ModelNode... steps) {
+        final ModelNode op = Operations.createCompositeOperation();
+        for (ModelNode step : steps) {
+            op.get(ClientConstants.STEPS).add(step);
+        }
+        return op;
+    }
+
+    /**
+     * Records the names of the steps of each composite operation and fails any composite with a {@code fail} step.
+     */
+    private static class TestClient implements ModelControllerClient {
+        private final List<List<String>> executed = new ArrayList<>();
+
+        @Override
+        public ModelNode execute(final ModelNode operation) {
+            final List<String> names = operation.get(ClientConstants.STEPS).asList().stream()
+                    .map(Operations::getOperationName)
+                    .collect(Collectors.toList());
+            executed.add(names);
+            final ModelNode result = new ModelNode();
+            if (names.contains("fail")) {
+                result.get(ClientConstants.OUTCOME).set(ClientConstants.FAILED);
+                result.get(ClientConstants.FAILURE_DESCRIPTION).set("step failed");
+            } else {
+                result.get(ClientConstants.OUTCOME).set(ClientConstants.SUCCESS);
+            }
+            return result;
+        }
+
+        @Override
+        public ModelNode execute(final Operation operation) {
+            return execute(operation.getOperation());
+        }
+
+        @Override
+        public OperationResponse executeOperation(final Operation operation, final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AsyncFuture<ModelNode> executeAsync(final Operation operation,
+                final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AsyncFuture<OperationResponse> executeOperationAsync(final Operation operation,
+                final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
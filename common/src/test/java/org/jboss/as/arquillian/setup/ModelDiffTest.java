@@ -0,0 +1,104 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.setup;
+
+import java.util.List;
+
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.as.controller.client.OperationResponse;
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.threads.AsyncFuture;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ModelDiffTest {
+
+    @Test
+    public void shouldRevertAddedResourcesAndChangedAttributes() throws Exception {
+        final ModelNode baseline = createModel();
+        final ModelNode current = createModel();
+        current.get("system-property", "added", "value").set("test");
+        current.get("subsystem", "logging", "add-logging-api-dependencies").set(false);
+        current.get("subsystem", "logging", "use-deployment-logging-config").set(false);
+
+        final List<ModelNode> steps = ModelDiff.diff(new TestClient(), baseline, current);
+        Assert.assertNotNull(steps);
+        Assert.assertEquals(3, steps.size());
+        final ModelNode logging = Operations.createAddress("subsystem", "logging");
+        Assert.assertEquals(Operations.createWriteAttributeOperation(logging, "add-logging-api-dependencies", true),
+                steps.get(0));
+        Assert.assertEquals(Operations.createUndefineAttributeOperation(logging, "use-deployment-logging-config"),
+                steps.get(1));
+        Assert.assertEquals(Operations.createRemoveOperation(Operations.createAddress("system-property", "added")),
+                steps.get(2));
+    }
+
+    @Test
+    public void shouldIgnoreDeployments() throws Exception {
+        final ModelNode current = createModel();
+        current.get("deployment", "test.war", "enabled").set(true);
+        final List<ModelNode> steps = ModelDiff.diff(new TestClient(), createModel(), current);
+        Assert.assertNotNull(steps);
+        Assert.assertTrue(steps.isEmpty());
+    }
+
+    @Test
+    public void shouldNotRevertRemovedResources() throws Exception {
+        final ModelNode current = createModel();
+        current.get("subsystem").remove("logging");
+        Assert.assertNull(ModelDiff.diff(new TestClient(), createModel(), current));
+    }
+
+    private static ModelNode createModel() {
+        final ModelNode model = new ModelNode();
+        model.get("name").set("test");
+        model.get("deployment");
+        model.get("system-property");
+        model.get("subsystem", "logging", "add-logging-api-dependencies").set(true);
+        model.get("subsystem", "logging", "console-handler");
+        return model;
+    }
+
+    private static class TestClient implements ModelControllerClient {
+
+        @Override
+        public ModelNode execute(final ModelNode operation) {
+            Assert.assertEquals("read-children-types", operation.get(ClientConstants.OP).asString());
+            final ModelNode result = new ModelNode();
+            result.get(ClientConstants.OUTCOME).set(ClientConstants.SUCCESS);
+            if (operation.get(ClientConstants.OP_ADDR).asList().isEmpty()) {
+                result.get(ClientConstants.RESULT).add("deployment").add("subsystem").add("system-property");
+            } else {
+                result.get(ClientConstants.RESULT).add("console-handler");
+            }
+            return result;
+        }
+
+        @Override
+        public OperationResponse executeOperation(final Operation operation, final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AsyncFuture<ModelNode> executeAsync(final Operation operation,
+                final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AsyncFuture<OperationResponse> executeOperationAsync(final Operation operation,
+                final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
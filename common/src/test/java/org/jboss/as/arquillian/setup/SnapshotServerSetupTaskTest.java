@@ -0,0 +1,250 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.setup;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.arquillian.container.ManagementClient;
+import org.jboss.as.arquillian.container.RestartableServerManager;
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.as.controller.client.OperationResponse;
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.threads.AsyncFuture;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wildfly.plugin.tools.ContainerDescription;
+import org.wildfly.plugin.tools.DeploymentManager;
+
+public class SnapshotServerSetupTaskTest {
+
+    @Test
+    public void shouldRestoreIncrementally() throws Exception {
+        final TestServerManager serverManager = new TestServerManager(true);
+        tearDown(serverManager, new ModelNode().setEmptyObject());
+
+        Assert.assertEquals(List.of("composite"), serverManager.client.executed);
+        Assert.assertEquals(0, serverManager.restarts);
+    }
+
+    @Test
+    public void shouldRestartIfRestoreRequiresRestart() throws Exception {
+        final TestServerManager serverManager = new TestServerManager(true);
+        final ModelNode headers = new ModelNode();
+        headers.get("step-1", ClientConstants.RESPONSE_HEADERS, "process-state").set("restart-required");
+        tearDown(serverManager, headers);
+
+        // The composite persisted the reverted configuration, so the snapshot is not reloaded
+        Assert.assertEquals(List.of("composite"), serverManager.client.executed);
+        Assert.assertEquals(1, serverManager.restarts);
+    }
+
+    @Test
+    public void shouldRestoreSnapshotIfRestartNotSupported() throws Exception {
+        final TestServerManager serverManager = new TestServerManager(false);
+        final ModelNode headers = new ModelNode();
+        headers.get("step-1", ClientConstants.RESPONSE_HEADERS, "process-state").set("restart-required");
+        tearDown(serverManager, headers);
+
+        Assert.assertEquals(List.of("composite", "reload", "write-config"), serverManager.client.executed);
+        Assert.assertEquals(0, serverManager.restarts);
+    }
+
+    @Test
+    public void shouldFindProcessStateOfSteps() {
+        final ModelNode result = new ModelNode();
+        result.get(ClientConstants.RESPONSE_HEADERS, "process-state").set("reload-required");
+        result.get(ClientConstants.RESULT, "step-1", ClientConstants.OUTCOME).set(ClientConstants.SUCCESS);
+        Assert.assertEquals("reload-required", SnapshotServerSetupTask.getProcessState(result));
+        result.get(ClientConstants.RESULT, "step-2", ClientConstants.RESPONSE_HEADERS, "process-state")
+                .set("restart-required");
+        Assert.assertEquals("restart-required", SnapshotServerSetupTask.getProcessState(result));
+    }
+
+    private static void tearDown(final TestServerManager serverManager, final ModelNode stepResults) throws Exception {
+        final TestClient client = serverManager.client;
+        client.stepResults = stepResults;
+        final SnapshotServerSetupTask task = new SnapshotServerSetupTask() {
+            @Override
+            protected void doSetup(final ManagementClient managementClient, final String containerId) {
+                client.model.get("system-property", "added", "value").set("test");
+            }
+
+            @Override
+            protected boolean incrementalRestore() {
+                return true;
+            }
+        };
+        final Field field = SnapshotServerSetupTask.class.getDeclaredField("serverManager");
+        field.setAccessible(true);
+        field.set(task, serverManager);
+        final ManagementClient managementClient = new ManagementClient(client, "localhost", 9990, "remote+http");
+        task.setup(managementClient, "test");
+        client.executed.clear();
+        task.tearDown(managementClient, "test");
+    }
+
+    private static class TestServerManager implements RestartableServerManager {
+        private final TestClient client = new TestClient();
+        private final boolean restartSupported;
+        private int restarts;
+
+        private TestServerManager(final boolean restartSupported) {
+            this.restartSupported = restartSupported;
+        }
+
+        @Override
+        public boolean isRestartSupported() {
+            return restartSupported;
+        }
+
+        @Override
+        public void restart() {
+            restarts++;
+            client.processState = "running";
+        }
+
+        @Override
+        public ModelControllerClient client() {
+            return client;
+        }
+
+        @Override
+        public String serverState() {
+            return client.processState;
+        }
+
+        @Override
+        public String launchType() {
+            return "STANDALONE";
+        }
+
+        @Override
+        public String takeSnapshot() {
+            return "snapshot.xml";
+        }
+
+        @Override
+        public ContainerDescription containerDescription() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public DeploymentManager deploymentManager() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isRunning() {
+            return true;
+        }
+
+        @Override
+        public boolean waitFor(final long startupTimeout, final TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public void shutdown() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void shutdown(final long timeout) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void executeReload() {
+            executeReload(Operations.createOperation("reload"));
+        }
+
+        @Override
+        public void executeReload(final ModelNode reloadOp) {
+            client.execute(reloadOp);
+        }
+
+        @Override
+        public void reloadIfRequired() {
+        }
+
+        @Override
+        public void reloadIfRequired(final long timeout, final TimeUnit unit) {
+        }
+    }
+
+    private static class TestClient implements ModelControllerClient {
+        private final List<String> executed = new ArrayList<>();
+        private final ModelNode model;
+        private ModelNode stepResults;
+        private String processState = "running";
+
+        private TestClient() {
+            model = new ModelNode();
+            model.get("name").set("test");
+            model.get("system-property").setEmptyObject();
+        }
+
+        @Override
+        public ModelNode execute(final ModelNode operation) {
+            final String name = operation.get(ClientConstants.OP).asString();
+            final ModelNode result = new ModelNode();
+            result.get(ClientConstants.OUTCOME).set(ClientConstants.SUCCESS);
+            switch (name) {
+                case ClientConstants.READ_RESOURCE_OPERATION:
+                    result.get(ClientConstants.RESULT).set(model.clone());
+                    return result;
+                case "read-children-types":
+                    result.get(ClientConstants.RESULT).add("system-property");
+                    return result;
+                case ClientConstants.COMPOSITE:
+                    result.get(ClientConstants.RESULT).set(stepResults);
+                    for (String step : stepResults.keys()) {
+                        if (stepResults.get(step, ClientConstants.RESPONSE_HEADERS, "process-state").isDefined()) {
+                            processState = stepResults.get(step, ClientConstants.RESPONSE_HEADERS, "process-state")
+                                    .asString();
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+            executed.add(name);
+            return result;
+        }
+
+        @Override
+        public ModelNode execute(final Operation operation) {
+            return execute(operation.getOperation());
+        }
+
+        @Override
+        public OperationResponse executeOperation(final Operation operation, final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AsyncFuture<ModelNode> executeAsync(final Operation operation,
+                final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AsyncFuture<OperationResponse> executeOperationAsync(final Operation operation,
+                final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
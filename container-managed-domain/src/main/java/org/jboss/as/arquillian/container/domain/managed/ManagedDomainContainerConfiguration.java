@@ -46,6 +46,18 @@ public class ManagedDomainContainerConfiguration extends CommonDomainContainerCo
 
     private String cleanServerBaseDir;
 
+    private boolean fastCleanServerBaseDir = Boolean
+            .parseBoolean(System.getProperty("wildfly.arquillian.clean.dir.fast", "false"));
+
+    private boolean detectStartupFromConsole = Boolean
+            .parseBoolean(System.getProperty("wildfly.arquillian.startup.console", "false"));
+
+    private int consoleHistoryLines = Integer.getInteger("wildfly.arquillian.console.history", 200);
+
+    private String consoleOutputFile = System.getProperty("wildfly.arquillian.console.file");
+
+    private boolean consoleVirtualThread = Boolean.getBoolean("wildfly.arquillian.console.virtual.thread");
+
     public ManagedDomainContainerConfiguration() {
         // if no javaHome is set use java.home of already running jvm
         if (javaHome == null || javaHome.isEmpty()) {
@@ -254,4 +266,91 @@ public class ManagedDomainContainerConfiguration extends CommonDomainContainerCo
     public void setCleanServerBaseDir(String cleanServerBaseDir) {
         this.cleanServerBaseDir = cleanServerBaseDir;
     }
+
+    public boolean isFastCleanServerBaseDir() {
+        return fastCleanServerBaseDir;
+    }
+
+    /**
+     * Sets whether the clean server base directory is set up using the fastest copy the file system supports. The
+     * configuration and data directories are copied with reflinks when possible, otherwise the files are copied in
+     * parallel with the content repository hard linked. An existing clean directory is deleted in the background.
+     *
+     * @param fastCleanServerBaseDir {@code true} to use the fast copy
+     */
+    public void setFastCleanServerBaseDir(final boolean fastCleanServerBaseDir) {
+        this.fastCleanServerBaseDir = fastCleanServerBaseDir;
+    }
+
+    public boolean isDetectStartupFromConsole() {
+        return detectStartupFromConsole;
+    }
+
+    /**
+     * Sets whether the console output is used to detect when the domain has started. When enabled, the domain state is
+     * read each time the host controller or a server writes its boot complete message to the console. If no message is
+     * seen the state is polled once a second.
+     *
+     * @param detectStartupFromConsole {@code true} to use the console output to detect the domain has started
+     */
+    public void setDetectStartupFromConsole(final boolean detectStartupFromConsole) {
+        this.detectStartupFromConsole = detectStartupFromConsole;
+    }
+
+    /**
+     * The number of lines of the console output kept in memory, which are reported if the domain fails to start.
+     *
+     * @return the number of console lines to keep
+     */
+    public int getConsoleHistoryLines() {
+        return consoleHistoryLines;
+    }
+
+    /**
+     * Sets the number of lines of the console output kept in memory. The lines are reported if the domain fails to
+     * start. A value of {@code 0} disables the history.
+     *
+     * @param consoleHistoryLines the number of console lines to keep
+     */
+    public void setConsoleHistoryLines(final int consoleHistoryLines) {
+        this.consoleHistoryLines = consoleHistoryLines;
+    }
+
+    /**
+     * The file the console output of the domain is written to.
+     *
+     * @return the path to the file or {@code null} if the console output is not written to a file
+     */
+    public String getConsoleOutputFile() {
+        return consoleOutputFile;
+    }
+
+    /**
+     * Sets the file the console output of the domain is written to. The file is written in the background and is
+     * independent of {@linkplain #isOutputToConsole() writing the output to the console}.
+     *
+     * @param consoleOutputFile the path to the file or {@code null} to not write the console output to a file
+     */
+    public void setConsoleOutputFile(final String consoleOutputFile) {
+        this.consoleOutputFile = consoleOutputFile;
+    }
+
+    /**
+     * Indicates whether the console output of the domain is consumed on a virtual thread.
+     *
+     * @return {@code true} if a virtual thread is used, otherwise {@code false}
+     */
+    public boolean isConsoleVirtualThread() {
+        return consoleVirtualThread;
+    }
+
+    /**
+     * Sets whether the console output of the domain is consumed on a virtual thread. If the JVM does not support virtual
+     * threads, a daemon thread is used. The default is {@code false}.
+     *
+     * @param consoleVirtualThread {@code true} to use a virtual thread
+     */
+    public void setConsoleVirtualThread(final boolean consoleVirtualThread) {
+        this.consoleVirtualThread = consoleVirtualThread;
+    }
 }
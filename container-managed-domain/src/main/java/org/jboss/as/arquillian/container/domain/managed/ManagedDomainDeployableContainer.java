@@ -10,7 +10,6 @@ import static org.wildfly.core.launcher.ProcessHelper.processHasDied;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.Socket;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -19,13 +18,18 @@ import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import org.jboss.arquillian.container.spi.client.container.LifecycleException;
+import org.jboss.as.arquillian.container.ConsoleConsumer;
+import org.jboss.as.arquillian.container.FastDirectoryCopy;
 import org.jboss.as.arquillian.container.domain.CommonDomainDeployableContainer;
 import org.jboss.as.arquillian.container.domain.ParameterUtils;
 import org.jboss.as.controller.client.helpers.ClientConstants;
@@ -50,6 +54,7 @@ public class ManagedDomainDeployableContainer extends CommonDomainDeployableCont
 
     private Thread shutdownThread;
     private Process process;
+    private final List<Consumer<String>> consoleListeners = new CopyOnWriteArrayList<>();
 
     @Override
     public Class<ManagedDomainContainerConfiguration> getConfigurationClass() {
@@ -100,7 +105,11 @@ public class ManagedDomainDeployableContainer extends CommonDomainDeployableCont
             }
 
             if (config.isSetupCleanServerBaseDir() || config.getCleanServerBaseDir() != null) {
-                setupCleanServerDirectories(commandBuilder, config.getCleanServerBaseDir());
+                final long start = System.nanoTime();
+                setupCleanServerDirectories(commandBuilder, config.getCleanServerBaseDir(),
+                        config.isFastCleanServerBaseDir());
+                log.info(String.format("Set up clean server base directory %s in %d ms", commandBuilder.getBaseDirectory(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
             }
 
             // Previous versions of arquillian set the jboss.home.dir property in the JVM properties.
@@ -111,7 +120,11 @@ public class ManagedDomainDeployableContainer extends CommonDomainDeployableCont
 
             log.info("Starting container with: " + commandBuilder.build());
             final Process process = Launcher.of(commandBuilder).setRedirectErrorStream(true).launch();
-            new Thread(new ConsoleConsumer(process, config.isOutputToConsole())).start();
+            final String outputFile = config.getConsoleOutputFile();
+            final ConsoleConsumer consoleConsumer = new ConsoleConsumer(process.getInputStream(),
+                    config.isOutputToConsole(), config.getConsoleHistoryLines(),
+                    outputFile == null || outputFile.isBlank() ? null : Path.of(outputFile), consoleListeners)
+                    .start("wildfly-arquillian-domain-console-" + process.pid(), config.isConsoleVirtualThread());
             shutdownThread = addShutdownHook(process);
 
             long startupTimeout = getContainerConfiguration().getStartupTimeoutInSeconds();
@@ -125,15 +138,22 @@ public class ManagedDomainDeployableContainer extends CommonDomainDeployableCont
                 if (!serverAvailable) {
                     if (processHasDied(process))
                         break;
-                    Thread.sleep(sleep);
-                    timeout -= sleep;
-                    sleep = Math.max(sleep / 2, 100);
+                    if (config.isDetectStartupFromConsole()) {
+                        // Wake as soon as the host controller or a server reports it has booted
+                        before = System.currentTimeMillis();
+                        consoleConsumer.awaitBootMessage(Math.min(timeout, 1000L), TimeUnit.MILLISECONDS);
+                        timeout -= (System.currentTimeMillis() - before);
+                    } else {
+                        Thread.sleep(sleep);
+                        timeout -= sleep;
+                        sleep = Math.max(sleep / 2, 100);
+                    }
                 }
             }
             if (!serverAvailable) {
                 destroyProcess(process);
-                throw new TimeoutException(String.format("Managed Domain server was not started within [%d] s",
-                        config.getStartupTimeoutInSeconds()));
+                throw new TimeoutException(String.format("Managed Domain server was not started within [%d] s%s",
+                        config.getStartupTimeoutInSeconds(), formatHistory(consoleConsumer)));
             }
             this.process = process;
         } catch (Exception e) {
@@ -203,35 +223,33 @@ public class ManagedDomainDeployableContainer extends CommonDomainDeployableCont
     }
 
     /**
-     * Runnable that consumes the output of the process. If nothing consumes the output the AS will hang on some platforms
+     * Adds a listener which is notified of each line the domain writes to the console. Listeners are invoked on the
+     * thread consuming the console output and should return quickly. The listener is used for each domain launched
+     * after it has been added.
      *
-     * @author Stuart Douglas
+     * @param listener the listener to add
      */
-    private class ConsoleConsumer implements Runnable {
-        private final Process process;
-        private final boolean writeOutput;
-
-        private ConsoleConsumer(final Process process, final boolean writeOutput) {
-            this.process = process;
-            this.writeOutput = writeOutput;
-        }
+    public void addConsoleListener(final Consumer<String> listener) {
+        consoleListeners.add(listener);
+    }
 
-        @Override
-        @SuppressWarnings("UseOfSystemOutOrSystemErr")
-        public void run() {
-            final InputStream stream = process.getInputStream();
+    /**
+     * Removes a listener previously {@linkplain #addConsoleListener(Consumer) added}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeConsoleListener(final Consumer<String> listener) {
+        consoleListeners.remove(listener);
+    }
 
-            try {
-                byte[] buf = new byte[32];
-                int num;
-                // Do not try reading a line cos it considers '\r' end of line
-                while ((num = stream.read(buf)) != -1) {
-                    if (writeOutput)
-                        System.out.write(buf, 0, num);
-                }
-            } catch (IOException ignore) {
-            }
+    private static String formatHistory(final ConsoleConsumer consoleConsumer) {
+        final List<String> history = consoleConsumer.getHistory();
+        if (history.isEmpty()) {
+            return "";
         }
+        final String lineSeparator = System.lineSeparator();
+        return lineSeparator + "Last " + history.size() + " line(s) of the console output:" + lineSeparator
+                + String.join(lineSeparator, history);
     }
 
     /**
@@ -240,12 +258,22 @@ public class ManagedDomainDeployableContainer extends CommonDomainDeployableCont
      * @param cleanServerBaseDirPath the clean server base directory
      */
     private void setupCleanServerDirectories(final DomainCommandBuilder commandBuilder,
-            final String cleanServerBaseDirPath) throws IOException {
+            final String cleanServerBaseDirPath, final boolean fast) throws IOException {
         final Path cleanBase;
         if (cleanServerBaseDirPath != null) {
             cleanBase = Paths.get(cleanServerBaseDirPath);
+            if (fast) {
+                // Directories left behind by a previous run which exited before their delete completed
+                FastDirectoryCopy.deleteStale(cleanBase);
+            }
             if (Files.exists(cleanBase)) {
-                if (!deleteDir(cleanBase)) {
+                if (fast) {
+                    if (!isEmpty(cleanBase)) {
+                        log.warning(String.format(
+                                "Clean directory %s was not empty when copied. Previous data will be lost.", cleanBase));
+                    }
+                    FastDirectoryCopy.deleteInBackground(cleanBase);
+                } else if (!deleteDir(cleanBase)) {
                     log.warning(String.format("Clean directory %s was not empty when copied. Previous data will be lost.",
                             cleanBase));
                 }
@@ -264,11 +292,17 @@ public class ManagedDomainDeployableContainer extends CommonDomainDeployableCont
 
         final Path currentConfigDir = commandBuilder.getConfigurationDirectory();
         final Path configDir = cleanBase.resolve(CONFIG_DIR);
-        copyDir(currentConfigDir, configDir);
-
         final Path currentDataDir = commandBuilder.getBaseDirectory().resolve(DATA_DIR);
-        if (Files.exists(currentDataDir)) {
-            copyDir(currentDataDir, cleanBase.resolve(DATA_DIR));
+        if (fast) {
+            FastDirectoryCopy.copy(currentConfigDir, configDir);
+            if (Files.exists(currentDataDir)) {
+                FastDirectoryCopy.copy(currentDataDir, cleanBase.resolve(DATA_DIR));
+            }
+        } else {
+            copyDir(currentConfigDir, configDir);
+            if (Files.exists(currentDataDir)) {
+                copyDir(currentDataDir, cleanBase.resolve(DATA_DIR));
+            }
         }
         commandBuilder.setBaseDirectory(cleanBase);
         commandBuilder.setConfigurationDirectory(configDir);
@@ -298,6 +332,12 @@ public class ManagedDomainDeployableContainer extends CommonDomainDeployableCont
         });
     }
 
+    private static boolean isEmpty(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.findAny().isEmpty();
+        }
+    }
+
     private static boolean deleteDir(final Path toDelete) throws IOException {
         final AtomicBoolean empty = new AtomicBoolean(true);
         Files.walkFileTree(toDelete, new SimpleFileVisitor<>() {
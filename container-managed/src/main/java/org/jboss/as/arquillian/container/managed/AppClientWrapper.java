@@ -13,14 +13,23 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 import org.jboss.as.arquillian.container.ParameterUtils;
 import org.jboss.logging.Logger;
@@ -34,7 +43,10 @@ import org.wildfly.plugin.tools.server.ServerManager;
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
  */
 public class AppClientWrapper implements AutoCloseable {
-    private final BlockingQueue<String> outputQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<String> outputQueue;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong droppedLines = new AtomicLong();
+    private volatile CompletableFuture<Void> outputClosed = new CompletableFuture<>();
     private final ManagedContainerConfiguration config;
     private final Logger log;
     private final Lock lock;
@@ -54,6 +66,20 @@ public class AppClientWrapper implements AutoCloseable {
         this.config = config;
         this.log = log;
         lock = new ReentrantLock();
+        final int bufferLines = config.getClientOutputBufferLines();
+        outputQueue = bufferLines > 0 ? new LinkedBlockingQueue<>(bufferLines) : new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * A subscription to the output of the application client.
+     */
+    public interface Subscription extends AutoCloseable {
+
+        /**
+         * Stops notifying the subscriber of new output lines.
+         */
+        @Override
+        void close();
     }
 
     /**
@@ -123,6 +149,58 @@ public class AppClientWrapper implements AutoCloseable {
         return List.copyOf(lines);
     }
 
+    /**
+     * Subscribes to the lines the application client writes to {@code stdout}. The callback is invoked for each line
+     * which matches the filter on the thread reading the output, as soon as the line has been read. The callback
+     * should return quickly as the output is not read while it is invoked.
+     * <p>
+     * Lines passed to subscribers are still available from {@link #readAll(long)}.
+     * </p>
+     *
+     * @param filter   the filter for the lines the callback is invoked for
+     * @param callback the callback invoked with each matching line
+     *
+     * @return the subscription, which should be closed once the subscriber is no longer interested in the output
+     */
+    public Subscription subscribe(final Predicate<String> filter, final Consumer<String> callback) {
+        final Subscriber subscriber = new Subscriber(filter, callback);
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    /**
+     * Waits for the application client to write a line to {@code stdout} which matches the pattern. Lines which have
+     * already been written, but not yet {@linkplain #readAll(long) read}, are matched as well. Unlike
+     * {@link #readAll(long)}, this does not consume any output.
+     *
+     * @param pattern the pattern the line must match, a partial match is sufficient
+     * @param timeout the maximum time to wait
+     * @param unit    the time unit of the {@code timeout} argument
+     *
+     * @return the first matching line or an empty optional if no line matched before the timeout was reached or the
+     *             application client closed its output
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public Optional<String> awaitLine(final Pattern pattern, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        final Predicate<String> filter = (line) -> pattern.matcher(line).find();
+        final CompletableFuture<String> match = new CompletableFuture<>();
+        // Subscribe before checking the buffered lines so no line is missed
+        try (Subscription ignored = subscribe(filter, match::complete)) {
+            for (Object line : outputQueue.toArray()) {
+                if (filter.test((String) line)) {
+                    match.complete((String) line);
+                    break;
+                }
+            }
+            outputClosed.thenRun(() -> match.complete(null));
+            return Optional.ofNullable(match.get(timeout, unit));
+        } catch (ExecutionException | TimeoutException e) {
+            return Optional.empty();
+        }
+    }
+
     /**
      * Starts the application client in a new process and creates two thread to read the process output ({@code stdout})
      * and error streams ({@code stderr}).
@@ -135,11 +213,12 @@ public class AppClientWrapper implements AutoCloseable {
             if (process == null) {
                 process = new ProcessBuilder(getAppClientCommand())
                         .start();
+                outputClosed = new CompletableFuture<>();
                 executorService = Executors.newFixedThreadPool(2);
                 stdoutConsumer = executorService
-                        .submit(new LogConsumer(outputQueue, process.getInputStream(), Logger.Level.INFO, process.pid()));
+                        .submit(new LogConsumer(true, process.getInputStream(), Logger.Level.INFO, process.pid()));
                 stderrConsumer = executorService
-                        .submit(new LogConsumer(null, process.getErrorStream(), Logger.Level.ERROR, process.pid()));
+                        .submit(new LogConsumer(false, process.getErrorStream(), Logger.Level.ERROR, process.pid()));
             }
         } finally {
             lock.unlock();
@@ -198,14 +277,46 @@ public class AppClientWrapper implements AutoCloseable {
         return cmd;
     }
 
+    private void lineRead(final String line) {
+        // Drop the oldest lines if the buffer is full rather than blocking the application client
+        while (!outputQueue.offer(line)) {
+            if (outputQueue.poll() != null && droppedLines.getAndIncrement() == 0L) {
+                log.warn("The application client output buffer is full, the oldest lines are dropped");
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.accept(line);
+        }
+    }
+
+    private class Subscriber {
+        private final Predicate<String> filter;
+        private final Consumer<String> callback;
+
+        private Subscriber(final Predicate<String> filter, final Consumer<String> callback) {
+            this.filter = filter;
+            this.callback = callback;
+        }
+
+        void accept(final String line) {
+            try {
+                if (filter.test(line)) {
+                    callback.accept(line);
+                }
+            } catch (RuntimeException e) {
+                log.errorf(e, "Subscriber failed to process application client output: %s", line);
+            }
+        }
+    }
+
     private class LogConsumer implements Runnable {
-        private final BlockingQueue<String> queue;
+        private final boolean stdout;
         private final InputStreamReader reader;
         private final Logger.Level level;
         private final long pid;
 
-        private LogConsumer(final BlockingQueue<String> queue, final InputStream in, final Logger.Level level, final long pid) {
-            this.queue = queue;
+        private LogConsumer(final boolean stdout, final InputStream in, final Logger.Level level, final long pid) {
+            this.stdout = stdout;
             this.reader = new InputStreamReader(in, StandardCharsets.UTF_8);
             this.level = level;
             this.pid = pid;
@@ -213,8 +324,9 @@ public class AppClientWrapper implements AutoCloseable {
 
         @Override
         public void run() {
+            final CompletableFuture<Void> closed = outputClosed;
             final StringBuilder buffer = new StringBuilder();
-            final char[] inBuffer = new char[256];
+            final char[] inBuffer = new char[8192];
             int len;
             try {
                 while ((len = reader.read(inBuffer)) != -1) {
@@ -224,10 +336,7 @@ public class AppClientWrapper implements AutoCloseable {
                         final char c = inBuffer[i];
                         if (c == '\n') {
                             buffer.append(inBuffer, mark, i - mark);
-                            log.log(level, buffer.toString());
-                            if (queue != null) {
-                                queue.add(buffer.toString());
-                            }
+                            consume(buffer.toString());
                             buffer.setLength(0);
                             mark = i + 1;
                         }
@@ -236,10 +345,7 @@ public class AppClientWrapper implements AutoCloseable {
                 }
                 // If we're here, we should log the buffer if it's not empty
                 if (buffer.length() > 0) {
-                    log.log(level, buffer.toString());
-                    if (queue != null) {
-                        queue.add(buffer.toString());
-                    }
+                    consume(buffer.toString());
                 }
             } catch (IOException e) {
                 if (buffer.length() > 0) {
@@ -248,6 +354,17 @@ public class AppClientWrapper implements AutoCloseable {
                 } else {
                     log.errorf(e, "Failed to consume output from %s", pid);
                 }
+            } finally {
+                if (stdout) {
+                    closed.complete(null);
+                }
+            }
+        }
+
+        private void consume(final String line) {
+            log.log(level, line);
+            if (stdout) {
+                lineRead(line);
             }
         }
     }
@@ -42,6 +42,8 @@ public class ManagedContainerConfiguration extends DistributionContainerConfigur
     private boolean setupCleanServerBaseDir = false;
 
     private String cleanServerBaseDir;
+    private boolean fastCleanServerBaseDir = Boolean
+            .parseBoolean(System.getProperty("wildfly.arquillian.clean.dir.fast", "false"));
     private String yamlConfiguration;
 
     // Application client container specific settings
@@ -54,6 +56,8 @@ public class ManagedContainerConfiguration extends DistributionContainerConfigur
 
     private String clientArguments;
 
+    private int clientOutputBufferLines = Integer.getInteger("wildfly.arquillian.appclient.buffer.lines", 0);
+
     public ManagedContainerConfiguration() {
     }
 
@@ -187,6 +191,21 @@ public class ManagedContainerConfiguration extends DistributionContainerConfigur
         this.cleanServerBaseDir = cleanServerBaseDir;
     }
 
+    public boolean isFastCleanServerBaseDir() {
+        return fastCleanServerBaseDir;
+    }
+
+    /**
+     * Sets whether the clean server base directory is set up using the fastest copy the file system supports. The
+     * configuration and data directories are copied with reflinks when possible, otherwise the files are copied in
+     * parallel with the content repository hard linked. An existing clean directory is deleted in the background.
+     *
+     * @param fastCleanServerBaseDir {@code true} to use the fast copy
+     */
+    public void setFastCleanServerBaseDir(final boolean fastCleanServerBaseDir) {
+        this.fastCleanServerBaseDir = fastCleanServerBaseDir;
+    }
+
     public String getYamlConfiguration() {
         return yamlConfiguration;
     }
@@ -205,6 +224,26 @@ public class ManagedContainerConfiguration extends DistributionContainerConfigur
         this.clientArguments = clientArguments;
     }
 
+    /**
+     * The maximum number of application client output lines kept until they are {@linkplain AppClientWrapper#readAll(long)
+     * read}.
+     *
+     * @return the maximum number of lines, {@code 0} or less if the number of lines is not limited
+     */
+    public int getClientOutputBufferLines() {
+        return clientOutputBufferLines;
+    }
+
+    /**
+     * Sets the maximum number of application client output lines kept until they are read. Once the limit is reached,
+     * the oldest line is dropped for each new line. A value of {@code 0} or less does not limit the number of lines.
+     *
+     * @param clientOutputBufferLines the maximum number of lines
+     */
+    public void setClientOutputBufferLines(final int clientOutputBufferLines) {
+        this.clientOutputBufferLines = clientOutputBufferLines;
+    }
+
     public String getClientAppEar() {
         return clientAppEar;
     }
@@ -15,14 +15,17 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import org.jboss.arquillian.container.spi.client.container.LifecycleException;
 import org.jboss.arquillian.container.spi.context.annotation.ContainerScoped;
 import org.jboss.arquillian.core.api.InstanceProducer;
 import org.jboss.arquillian.core.api.annotation.Inject;
 import org.jboss.as.arquillian.container.CommonManagedDeployableContainer;
+import org.jboss.as.arquillian.container.FastDirectoryCopy;
 import org.jboss.as.arquillian.container.ParameterUtils;
 import org.jboss.logging.Logger;
 import org.wildfly.core.launcher.CommandBuilder;
@@ -110,7 +113,11 @@ public final class ManagedDeployableContainer extends CommonManagedDeployableCon
         // Create a clean server base to run the container; ARQ-638
         if (config.isSetupCleanServerBaseDir() || config.getCleanServerBaseDir() != null) {
             try {
-                setupCleanServerDirectories(commandBuilder, config.getCleanServerBaseDir());
+                final long start = System.nanoTime();
+                setupCleanServerDirectories(commandBuilder, config.getCleanServerBaseDir(),
+                        config.isFastCleanServerBaseDir());
+                log.infof("Set up clean server base directory %s in %d ms", commandBuilder.getBaseDirectory(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
             } catch (IOException e) {
                 throw new UncheckedIOException("Failed to setup the clean server directory.", e);
             }
@@ -203,12 +210,21 @@ public final class ManagedDeployableContainer extends CommonManagedDeployableCon
      * @param cleanServerBaseDirPath the clean server base directory
      */
     private void setupCleanServerDirectories(final StandaloneCommandBuilder commandBuilder,
-            final String cleanServerBaseDirPath) throws IOException {
+            final String cleanServerBaseDirPath, final boolean fast) throws IOException {
         final Path cleanBase;
         if (cleanServerBaseDirPath != null) {
             cleanBase = Paths.get(cleanServerBaseDirPath);
+            if (fast) {
+                // Directories left behind by a previous run which exited before their delete completed
+                FastDirectoryCopy.deleteStale(cleanBase);
+            }
             if (Files.exists(cleanBase)) {
-                if (!deleteDir(cleanBase)) {
+                if (fast) {
+                    if (!isEmpty(cleanBase)) {
+                        log.warnf("Clean directory %s was not empty when copied. Previous data will be lost.", cleanBase);
+                    }
+                    FastDirectoryCopy.deleteInBackground(cleanBase);
+                } else if (!deleteDir(cleanBase)) {
                     log.warnf("Clean directory %s was not empty when copied. Previous data will be lost.", cleanBase);
                 }
             }
@@ -226,11 +242,17 @@ public final class ManagedDeployableContainer extends CommonManagedDeployableCon
 
         final Path currentConfigDir = commandBuilder.getConfigurationDirectory();
         final Path configDir = cleanBase.resolve(CONFIG_DIR);
-        copyDir(currentConfigDir, configDir);
-
         final Path currentDataDir = commandBuilder.getBaseDirectory().resolve(DATA_DIR);
-        if (Files.exists(currentDataDir)) {
-            copyDir(currentDataDir, cleanBase.resolve(DATA_DIR));
+        if (fast) {
+            FastDirectoryCopy.copy(currentConfigDir, configDir);
+            if (Files.exists(currentDataDir)) {
+                FastDirectoryCopy.copy(currentDataDir, cleanBase.resolve(DATA_DIR));
+            }
+        } else {
+            copyDir(currentConfigDir, configDir);
+            if (Files.exists(currentDataDir)) {
+                copyDir(currentDataDir, cleanBase.resolve(DATA_DIR));
+            }
         }
         commandBuilder.setBaseDirectory(cleanBase);
         commandBuilder.setConfigurationDirectory(configDir);
@@ -252,6 +274,12 @@ public final class ManagedDeployableContainer extends CommonManagedDeployableCon
         });
     }
 
+    private static boolean isEmpty(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.findAny().isEmpty();
+        }
+    }
+
     private static boolean deleteDir(final Path toDelete) throws IOException {
         final AtomicBoolean empty = new AtomicBoolean(true);
         Files.walkFileTree(toDelete, new SimpleFileVisitor<>() {
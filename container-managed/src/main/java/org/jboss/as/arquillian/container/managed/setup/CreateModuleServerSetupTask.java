@@ -9,20 +9,18 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import javax.management.InstanceNotFoundException;
-import javax.management.MBeanException;
+import javax.management.JMException;
 import javax.management.MBeanServerConnection;
-import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
-import javax.management.ReflectionException;
-import javax.management.remote.JMXConnector;
-import javax.management.remote.JMXConnectorFactory;
 
 import org.jboss.arquillian.test.api.ArquillianResource;
 import org.jboss.as.arquillian.api.ServerSetupTask;
+import org.jboss.as.arquillian.container.JMXConnectionPool;
 import org.jboss.as.arquillian.container.ManagementClient;
+import org.jboss.as.arquillian.container.ServerSetupCoordinator;
 import org.jboss.logging.Logger;
 import org.wildfly.plugin.tools.server.ServerManager;
 import org.wildfly.testing.tools.modules.ModuleDescription;
@@ -32,6 +30,12 @@ import org.wildfly.testing.tools.modules.ModuleDescription;
  * If deleting the module fails, likely to happen on Windows given the resources are in-use by the class loader, a
  * {@linkplain Runtime#addShutdownHook(Thread) shutdown hook} will be added to delete the module after the JVM the tes
  * is executing in terminates.
+ * <p>
+ * If the modules are only used by deployments, and not referenced by any subsystem, {@link #isHotModules()} can
+ * return {@code true}. Any previously loaded version of the modules is then unloaded through the module loader MBeans
+ * during setup, so deployments see the new modules. Creating or deleting a module does not require a reload of the
+ * server, it is only reloaded if the setup or tear down left the server in a {@code reload-required} state.
+ * </p>
  *
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
  */
@@ -46,24 +50,28 @@ public abstract class CreateModuleServerSetupTask implements ServerSetupTask {
     @Override
     public final void setup(final ManagementClient managementClient, final String containerId) throws Exception {
         modules.addAll(moduleDescriptions());
+        if (isHotModules()) {
+            // Unload any stale version of the modules so the next deployment loads the new modules
+            try (JMXConnectionPool.Connection connection = acquireJmxConnection(managementClient)) {
+                unloadModule(connection.getMBeanServerConnection(), moduleNames());
+            }
+        }
         doSetup(managementClient, containerId, Set.copyOf(modules));
-        serverManager.reloadIfRequired();
+        reloadIfRequired();
     }
 
     @Override
     public final void tearDown(final ManagementClient managementClient, final String containerId) throws Exception {
         try {
-            try (JMXConnector connector = createJmxConnector(managementClient)) {
-                unloadModule(connector.getMBeanServerConnection(), modules.stream()
-                        .map(ModuleDescription::name)
-                        .collect(Collectors.toSet()));
+            try (JMXConnectionPool.Connection connection = acquireJmxConnection(managementClient)) {
+                unloadModule(connection.getMBeanServerConnection(), moduleNames());
             }
             for (ModuleDescription module : modules) {
                 module.close();
             }
         } finally {
             doTearDown(managementClient, containerId);
-            serverManager.reloadIfRequired();
+            reloadIfRequired();
         }
     }
 
@@ -95,6 +103,27 @@ public abstract class CreateModuleServerSetupTask implements ServerSetupTask {
     protected void doTearDown(final ManagementClient managementClient, final String containerId) throws Exception {
     }
 
+    /**
+     * Indicates whether the modules are only used by deployments and not referenced by any subsystem. If
+     * {@code true}, previously loaded versions of the modules are unloaded during setup. Otherwise, a module loaded
+     * before the setup, for example by a previous test, is still used by deployments until the server is restarted.
+     *
+     * @return {@code true} if the modules can be added and removed while the server is running, the default is
+     *             {@code false}
+     */
+    protected boolean isHotModules() {
+        return false;
+    }
+
+    /**
+     * The number seconds to wait for the server to reload if a reload is required after the setup or tear down.
+     *
+     * @return the number of seconds to wait for a reload, the default is 10 seconds
+     */
+    protected long timeout() {
+        return 10L;
+    }
+
     /**
      * The modules that should be created prior to a deployment.
      *
@@ -102,14 +131,33 @@ public abstract class CreateModuleServerSetupTask implements ServerSetupTask {
      */
     protected abstract Set<ModuleDescription> moduleDescriptions();
 
-    private static void unloadModule(final MBeanServerConnection connection, final Set<String> moduleNames)
-            throws MalformedObjectNameException, IOException, ReflectionException, InstanceNotFoundException, MBeanException {
-        for (var mbean : connection.queryMBeans(ObjectName.getInstance("jboss.modules:type=ModuleLoader,name=*"), null)) {
-            final String[] info = (String[]) connection.invoke(mbean.getObjectName(), "queryLoadedModuleNames", null, null);
+    private Set<String> moduleNames() {
+        return modules.stream()
+                .map(ModuleDescription::name)
+                .collect(Collectors.toSet());
+    }
+
+    private void reloadIfRequired() throws IOException {
+        final ServerSetupCoordinator coordinator = ServerSetupCoordinator.current();
+        if (coordinator == null) {
+            serverManager.reloadIfRequired(timeout(), TimeUnit.SECONDS);
+        } else {
+            coordinator.deferReload(timeout(), TimeUnit.SECONDS);
+        }
+    }
+
+    static void unloadModule(final MBeanServerConnection connection, final Set<String> moduleNames)
+            throws IOException, JMException {
+        if (moduleNames.isEmpty()) {
+            return;
+        }
+        for (ObjectName loader : connection.queryNames(ObjectName.getInstance("jboss.modules:type=ModuleLoader,name=*"),
+                null)) {
+            final String[] info = (String[]) connection.invoke(loader, "queryLoadedModuleNames", null, null);
             for (String module : info) {
                 if (moduleNames.contains(module)) {
                     // We need to unload the module so it can be deleted
-                    if (!((boolean) connection.invoke(mbean.getObjectName(), "unloadModule", new Object[] { module },
+                    if (!((boolean) connection.invoke(loader, "unloadModule", new Object[] { module },
                             new String[] { "java.lang.String" }))) {
                         LOGGER.errorf("Failed to unload module: %s", module);
                     }
@@ -118,9 +166,10 @@ public abstract class CreateModuleServerSetupTask implements ServerSetupTask {
         }
     }
 
-    private static JMXConnector createJmxConnector(final ManagementClient managementClient) throws IOException {
+    private static JMXConnectionPool.Connection acquireJmxConnection(final ManagementClient managementClient)
+            throws IOException {
         final Map<String, Object> env = Map.of("org.jboss.remoting-jmx.timeout", "600");
-        return JMXConnectorFactory.connect(managementClient.getRemoteJMXURL(), env);
+        return JMXConnectionPool.acquire(managementClient.getRemoteJMXURL(), env);
     }
 
 }
@@ -6,7 +6,9 @@ package org.jboss.as.arquillian.container.app;
 
 import java.io.File;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.container.test.api.RunAsClient;
@@ -64,6 +66,27 @@ public class AppClient2TestCase {
     @ArquillianResource
     private AppClientWrapper appClient;
 
+    /**
+     * Launch the EE Application client container and wait for its output without reading all the output.
+     */
+    @Test
+    @RunAsClient
+    @TargetsContainer("jboss-manual-client")
+    public void testAppClientAwaitLine() throws Exception {
+        try {
+            appClient.run();
+            final Optional<String> result = appClient.awaitLine(Pattern.compile("AppClientMain\\.(SUCCESS|FAILED)"), 10,
+                    TimeUnit.SECONDS);
+            Assert.assertTrue("AppClientMain result was not seen", result.isPresent());
+            Assert.assertTrue(result.get(), result.get().contains("AppClientMain.SUCCESS"));
+            appClient.waitForExit(10, TimeUnit.SECONDS);
+        } finally {
+            // Discard the output so it is not seen by other tests
+            appClient.readAll(100);
+            appClient.close();
+        }
+    }
+
     /**
      * Launch the EE Application client container using the same EAR to validate access to the deployed EJB
      * using the injected AppClientWrapper.
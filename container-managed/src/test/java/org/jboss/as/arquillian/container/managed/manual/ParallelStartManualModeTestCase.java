@@ -0,0 +1,93 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.jboss.as.arquillian.container.managed.manual;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.jboss.arquillian.container.test.api.ContainerController;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.as.arquillian.container.ManagementClient;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests a manually controlled container which is configured to start in parallel. Starting the container must still
+ * wait for the server to boot.
+ */
+@Category(ManualMode.class)
+@RunWith(Arquillian.class)
+@RunAsClient
+public class ParallelStartManualModeTestCase {
+    private static final String CONTAINER_ID = "parallel-start";
+
+    @ArquillianResource
+    @SuppressWarnings({ "unused", "StaticVariableMayNotBeInitialized" })
+    private static ContainerController controller;
+
+    @ArquillianResource
+    @SuppressWarnings({ "unused", "InstanceVariableMayNotBeInitialized" })
+    @TargetsContainer(CONTAINER_ID)
+    private ManagementClient client;
+
+    @Deployment(managed = false, name = "dep1")
+    @TargetsContainer(CONTAINER_ID)
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class)
+                // Required for JUnit when running in ARQ
+                .addClass(ManualMode.class);
+    }
+
+    @After
+    public void shutdown() {
+        if (controller.isStarted(CONTAINER_ID)) {
+            controller.stop(CONTAINER_ID);
+        }
+    }
+
+    @Test
+    public void startWaitsForServer() throws Exception {
+        controller.start(CONTAINER_ID);
+        // No deployment has been made, the server must be running once the start returns
+        Assert.assertEquals("running", readServerState());
+    }
+
+    @Test
+    public void failedStartReleasesServer() throws Exception {
+        try {
+            controller.start(CONTAINER_ID, Map.of("serverConfig", "does-not-exist.xml"));
+            Assert.fail("The container should have failed to start with a missing configuration file");
+        } catch (RuntimeException expected) {
+            // The process should have been destroyed
+        }
+        if (controller.isStarted(CONTAINER_ID)) {
+            controller.stop(CONTAINER_ID);
+        }
+        // A new server must be able to start, which fails if the previous process still holds the ports
+        controller.start(CONTAINER_ID);
+        Assert.assertEquals("running", readServerState());
+    }
+
+    private String readServerState() throws IOException {
+        final ModelNode op = Operations.createReadAttributeOperation(new ModelNode().setEmptyList(), "server-state");
+        final ModelNode result = client.getControllerClient().execute(op);
+        if (!Operations.isSuccessfulOutcome(result)) {
+            Assert.fail(Operations.getFailureDescription(result).asString());
+        }
+        return Operations.readResult(result).asString();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.jboss.as.arquillian.container.managed.setup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests unloading modules from the module loader MBeans in {@link CreateModuleServerSetupTask}.
+ */
+public class CreateModuleServerSetupTaskTest {
+
+    private MBeanServer server;
+
+    @Before
+    public void createServer() {
+        server = MBeanServerFactory.newMBeanServer();
+    }
+
+    @Test
+    public void unloadLoadedModules() throws Exception {
+        final TestModuleLoader bootLoader = register("boot", "org.wildfly.test.a", "org.jboss.as.server");
+        final TestModuleLoader deploymentLoader = register("deployment", "org.wildfly.test.b");
+
+        CreateModuleServerSetupTask.unloadModule(server, Set.of("org.wildfly.test.a", "org.wildfly.test.b",
+                "org.wildfly.test.c"));
+
+        Assert.assertEquals(List.of("org.wildfly.test.a"), bootLoader.unloaded);
+        Assert.assertEquals(Set.of("org.jboss.as.server"), bootLoader.loaded);
+        Assert.assertEquals(List.of("org.wildfly.test.b"), deploymentLoader.unloaded);
+        Assert.assertTrue(deploymentLoader.loaded.isEmpty());
+    }
+
+    @Test
+    public void noModules() throws Exception {
+        final TestModuleLoader loader = register("boot", "org.wildfly.test.a");
+        CreateModuleServerSetupTask.unloadModule(server, Set.of());
+        Assert.assertTrue(loader.unloaded.isEmpty());
+    }
+
+    private TestModuleLoader register(final String name, final String... modules) throws Exception {
+        final TestModuleLoader loader = new TestModuleLoader(modules);
+        server.registerMBean(loader, ObjectName.getInstance("jboss.modules:type=ModuleLoader,name=" + name));
+        return loader;
+    }
+
+    public interface TestModuleLoaderMBean {
+        String[] queryLoadedModuleNames();
+
+        boolean unloadModule(String name);
+    }
+
+    public static class TestModuleLoader implements TestModuleLoaderMBean {
+        private final Set<String> loaded;
+        private final List<String> unloaded = new ArrayList<>();
+
+        TestModuleLoader(final String... modules) {
+            loaded = new LinkedHashSet<>(List.of(modules));
+        }
+
+        @Override
+        public String[] queryLoadedModuleNames() {
+            return loaded.toArray(new String[0]);
+        }
+
+        @Override
+        public boolean unloadModule(final String name) {
+            unloaded.add(name);
+            return loaded.remove(name);
+        }
+    }
+}
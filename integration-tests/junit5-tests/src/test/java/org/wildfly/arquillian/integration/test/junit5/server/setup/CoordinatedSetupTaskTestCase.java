@@ -0,0 +1,256 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.arquillian.integration.test.junit5.server.setup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.as.arquillian.api.ServerSetup;
+import org.jboss.as.arquillian.api.ServerSetupTask;
+import org.jboss.as.arquillian.container.ManagementClient;
+import org.jboss.as.arquillian.setup.SnapshotServerSetupTask;
+import org.jboss.as.arquillian.setup.SystemPropertyServerSetupTask;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.testkit.engine.EngineTestKit;
+import org.junit.platform.testkit.engine.EventConditions;
+import org.wildfly.arquillian.junit.annotations.WildFlyArquillian;
+
+/**
+ * Tests {@linkplain ServerSetup#coordinated() coordinated} setup tasks.
+ */
+@WildFlyArquillian
+@RunAsClient
+public class CoordinatedSetupTaskTestCase {
+    private static final String BEFORE_SNAPSHOT = "coordinated.before.snapshot";
+    private static final String IN_SNAPSHOT = "coordinated.in.snapshot";
+    private static final String COMPOSITE = "coordinated.composite";
+    private static final String TRACKED = "coordinated.tracked";
+
+    // The tear down invocations of the setup tasks, the tests are executed in the same JVM
+    private static final List<String> TEAR_DOWNS = new CopyOnWriteArrayList<>();
+
+    @ArquillianResource
+    private ManagementClient client;
+
+    @Deployment(testable = false)
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class, "coordinated-setup-task-test.war")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeEach
+    public void clearTearDowns() {
+        TEAR_DOWNS.clear();
+    }
+
+    @Test
+    public void snapshotAfterOtherTask() throws Exception {
+        final var results = EngineTestKit.engine("junit-jupiter")
+                .selectors(DiscoverySelectors.selectClass(SnapshotAfterOtherTaskTests.class))
+                .execute();
+        results.testEvents().assertThatEvents().haveExactly(1, EventConditions.finishedSuccessfully());
+        // The snapshot must be restored before the task set up first is torn down, otherwise the restore adds the
+        // property removed by the tear down of the first task back
+        assertPropertyExists(IN_SNAPSHOT, false);
+        assertPropertyExists(BEFORE_SNAPSHOT, false);
+        Assertions.assertEquals(List.of(IN_SNAPSHOT, BEFORE_SNAPSHOT), TEAR_DOWNS);
+    }
+
+    @Test
+    public void snapshotFirst() throws Exception {
+        final var results = EngineTestKit.engine("junit-jupiter")
+                .selectors(DiscoverySelectors.selectClass(SnapshotFirstTests.class))
+                .execute();
+        results.testEvents().assertThatEvents().haveExactly(1, EventConditions.finishedSuccessfully());
+        assertPropertyExists(IN_SNAPSHOT, false);
+        assertPropertyExists(COMPOSITE, false);
+    }
+
+    @Test
+    public void compositeTasksMerged() throws Exception {
+        final var results = EngineTestKit.engine("junit-jupiter")
+                .selectors(DiscoverySelectors.selectClass(CompositeTests.class))
+                .execute();
+        // The second task checks the operations of the composite task were executed before its setup
+        results.testEvents().assertThatEvents().haveExactly(1, EventConditions.finishedSuccessfully());
+        assertPropertyExists(COMPOSITE, false);
+        assertPropertyExists(TRACKED, false);
+    }
+
+    @Test
+    public void failedCompositeOperation() throws Exception {
+        final var results = EngineTestKit.engine("junit-jupiter")
+                .selectors(DiscoverySelectors.selectClass(FailedCompositeTests.class))
+                .execute();
+        // No tests should have been executed
+        results.testEvents().assertThatEvents().isEmpty();
+        results.allEvents().assertStatistics((stats) -> stats.failed(1L));
+        // Both composite tasks were part of the failed composite operation, which was rolled back, so only the task
+        // executed before them is torn down
+        Assertions.assertEquals(List.of(TRACKED), TEAR_DOWNS);
+        assertPropertyExists(TRACKED, false);
+        assertPropertyExists(COMPOSITE, false);
+    }
+
+    private void assertPropertyExists(final String name, final boolean expected) throws IOException {
+        final ModelNode op = Operations.createReadResourceOperation(Operations.createAddress("system-property", name));
+        final ModelNode result = client.getControllerClient().execute(op);
+        Assertions.assertEquals(expected, Operations.isSuccessfulOutcome(result),
+                () -> String.format("Expected system property %s to %s", name, expected ? "exist" : "not exist"));
+    }
+
+    private static boolean propertyExists(final ManagementClient client, final String name) throws IOException {
+        final ModelNode op = Operations.createReadResourceOperation(Operations.createAddress("system-property", name));
+        return Operations.isSuccessfulOutcome(client.getControllerClient().execute(op));
+    }
+
+    /**
+     * Adds a system property without the coordinator and removes it on tear down.
+     */
+    public abstract static class PropertySetupTask implements ServerSetupTask {
+        private final String name;
+
+        PropertySetupTask(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void setup(final ManagementClient managementClient, final String containerId) throws Exception {
+            final ModelNode op = Operations.createAddOperation(Operations.createAddress("system-property", name));
+            op.get("value").set("true");
+            executeOperation(managementClient, op);
+        }
+
+        @Override
+        public void tearDown(final ManagementClient managementClient, final String containerId) throws Exception {
+            TEAR_DOWNS.add(name);
+            executeOperation(managementClient,
+                    Operations.createRemoveOperation(Operations.createAddress("system-property", name)));
+        }
+    }
+
+    public static class BeforeSnapshotSetupTask extends PropertySetupTask {
+        public BeforeSnapshotSetupTask() {
+            super(BEFORE_SNAPSHOT);
+        }
+    }
+
+    public static class TrackedSetupTask extends PropertySetupTask {
+        public TrackedSetupTask() {
+            super(TRACKED);
+        }
+    }
+
+    public static class AfterCompositeSetupTask extends TrackedSetupTask {
+        @Override
+        public void setup(final ManagementClient managementClient, final String containerId) throws Exception {
+            // Setup tasks which are not composite tasks are executed once the deferred operations have been executed
+            Assertions.assertTrue(propertyExists(managementClient, COMPOSITE),
+                    "The deferred operations should have been executed before this task");
+            super.setup(managementClient, containerId);
+        }
+    }
+
+    public static class InSnapshotSetupTask extends SnapshotServerSetupTask {
+        @Override
+        protected void doSetup(final ManagementClient managementClient, final String containerId) throws Exception {
+            final ModelNode op = Operations.createAddOperation(Operations.createAddress("system-property", IN_SNAPSHOT));
+            op.get("value").set("true");
+            executeOperation(managementClient, op);
+        }
+
+        @Override
+        protected void beforeRestore(final ManagementClient managementClient, final String containerId) {
+            TEAR_DOWNS.add(IN_SNAPSHOT);
+        }
+    }
+
+    public static class CompositeSetupTask extends SystemPropertyServerSetupTask {
+        public CompositeSetupTask() {
+            super(Map.of(COMPOSITE, "true"));
+        }
+
+        @Override
+        public void tearDown(final ManagementClient managementClient, final String containerId) throws Exception {
+            TEAR_DOWNS.add(COMPOSITE);
+            super.tearDown(managementClient, containerId);
+        }
+    }
+
+    public static class DuplicateCompositeSetupTask extends CompositeSetupTask {
+    }
+
+    @WildFlyArquillian
+    @RunAsClient
+    public abstract static class CoordinatedTests {
+
+        @ArquillianResource
+        private ManagementClient client;
+
+        @Deployment(testable = false)
+        public static WebArchive createDeployment() {
+            return ShrinkWrap.create(WebArchive.class, "inner-coordinated-setup-task-test.war")
+                    .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+        }
+
+        ManagementClient client() {
+            return client;
+        }
+    }
+
+    @ServerSetup(value = { BeforeSnapshotSetupTask.class, InSnapshotSetupTask.class }, coordinated = true)
+    public static class SnapshotAfterOtherTaskTests extends CoordinatedTests {
+
+        @Test
+        public void propertiesExist() throws Exception {
+            Assertions.assertTrue(propertyExists(client(), BEFORE_SNAPSHOT));
+            Assertions.assertTrue(propertyExists(client(), IN_SNAPSHOT));
+        }
+    }
+
+    @ServerSetup(value = { InSnapshotSetupTask.class, CompositeSetupTask.class }, coordinated = true)
+    public static class SnapshotFirstTests extends CoordinatedTests {
+
+        @Test
+        public void propertiesExist() throws Exception {
+            Assertions.assertTrue(propertyExists(client(), IN_SNAPSHOT));
+            Assertions.assertTrue(propertyExists(client(), COMPOSITE));
+        }
+    }
+
+    @ServerSetup(value = { CompositeSetupTask.class, AfterCompositeSetupTask.class }, coordinated = true)
+    public static class CompositeTests extends CoordinatedTests {
+
+        @Test
+        public void propertiesExist() throws Exception {
+            Assertions.assertTrue(propertyExists(client(), COMPOSITE));
+            Assertions.assertTrue(propertyExists(client(), TRACKED));
+        }
+    }
+
+    @ServerSetup(value = { TrackedSetupTask.class, CompositeSetupTask.class,
+            DuplicateCompositeSetupTask.class }, coordinated = true)
+    public static class FailedCompositeTests extends CoordinatedTests {
+
+        @Test
+        public void notExecuted() {
+            Assertions.fail("The setup tasks should have failed");
+        }
+    }
+}
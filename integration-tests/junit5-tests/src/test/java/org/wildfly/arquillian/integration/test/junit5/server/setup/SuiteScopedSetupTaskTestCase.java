@@ -0,0 +1,173 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.arquillian.integration.test.junit5.server.setup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.as.arquillian.api.ServerSetup;
+import org.jboss.as.arquillian.api.ServerSetupTask;
+import org.jboss.as.arquillian.container.ManagementClient;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.testkit.engine.EngineTestKit;
+import org.junit.platform.testkit.engine.EventConditions;
+import org.wildfly.arquillian.junit.annotations.WildFlyArquillian;
+
+/**
+ * Tests {@linkplain ServerSetup.Scope#SUITE suite scoped} setup tasks.
+ */
+@WildFlyArquillian
+@RunAsClient
+public class SuiteScopedSetupTaskTestCase {
+    private static final String SHARED = "suite.scoped.shared";
+
+    // The set up and tear down invocations of the setup tasks, the tests are executed in the same JVM
+    private static final List<String> SETUPS = new CopyOnWriteArrayList<>();
+    private static final List<String> TEAR_DOWNS = new CopyOnWriteArrayList<>();
+
+    @ArquillianResource
+    private ManagementClient client;
+
+    @Deployment(testable = false)
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class, "suite-scoped-setup-task-test.war")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeEach
+    public void clearInvocations() {
+        SETUPS.clear();
+        TEAR_DOWNS.clear();
+    }
+
+    @Test
+    public void sharedBetweenTestClasses() throws Exception {
+        final var results = EngineTestKit.engine("junit-jupiter")
+                .configurationParameter("junit.jupiter.testclass.order.default",
+                        ClassOrderer.OrderAnnotation.class.getName())
+                .selectors(DiscoverySelectors.selectClass(FirstSharedTests.class),
+                        DiscoverySelectors.selectClass(SecondSharedTests.class))
+                .execute();
+        results.testEvents().assertThatEvents().haveExactly(2, EventConditions.finishedSuccessfully());
+        // The setup task is executed once for both test classes and is torn down once the test suite has completed
+        Assertions.assertEquals(List.of(SHARED), SETUPS);
+        Assertions.assertEquals(List.of(SHARED), TEAR_DOWNS);
+        assertPropertyExists(false);
+    }
+
+    @Test
+    public void tornDownForDifferentSetup() throws Exception {
+        final var results = EngineTestKit.engine("junit-jupiter")
+                .configurationParameter("junit.jupiter.testclass.order.default",
+                        ClassOrderer.OrderAnnotation.class.getName())
+                .selectors(DiscoverySelectors.selectClass(FirstSharedTests.class),
+                        DiscoverySelectors.selectClass(DifferentSetupTests.class))
+                .execute();
+        // The test class with a different setup checks the shared setup task was torn down before its deployment
+        results.testEvents().assertThatEvents().haveExactly(2, EventConditions.finishedSuccessfully());
+        Assertions.assertEquals(List.of(SHARED), SETUPS);
+        Assertions.assertEquals(List.of(SHARED), TEAR_DOWNS);
+        assertPropertyExists(false);
+    }
+
+    private void assertPropertyExists(final boolean expected) throws IOException {
+        Assertions.assertEquals(expected, propertyExists(client),
+                () -> String.format("Expected system property %s to %s", SHARED, expected ? "exist" : "not exist"));
+    }
+
+    private static boolean propertyExists(final ManagementClient client) throws IOException {
+        final ModelNode op = Operations.createReadResourceOperation(Operations.createAddress("system-property", SHARED));
+        return Operations.isSuccessfulOutcome(client.getControllerClient().execute(op));
+    }
+
+    /**
+     * Adds a system property and removes it on tear down, recording each invocation.
+     */
+    public static class SharedSetupTask implements ServerSetupTask {
+
+        @Override
+        public void setup(final ManagementClient managementClient, final String containerId) throws Exception {
+            SETUPS.add(SHARED);
+            final ModelNode op = Operations.createAddOperation(Operations.createAddress("system-property", SHARED));
+            op.get("value").set("true");
+            executeOperation(managementClient, op);
+        }
+
+        @Override
+        public void tearDown(final ManagementClient managementClient, final String containerId) throws Exception {
+            TEAR_DOWNS.add(SHARED);
+            executeOperation(managementClient,
+                    Operations.createRemoveOperation(Operations.createAddress("system-property", SHARED)));
+        }
+    }
+
+    @WildFlyArquillian
+    @RunAsClient
+    public abstract static class ScopedTests {
+
+        @ArquillianResource
+        private ManagementClient client;
+
+        @Deployment(testable = false)
+        public static WebArchive createDeployment() {
+            return ShrinkWrap.create(WebArchive.class, "inner-suite-scoped-setup-task-test.war")
+                    .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+        }
+
+        ManagementClient client() {
+            return client;
+        }
+    }
+
+    @Order(1)
+    @ServerSetup(value = SharedSetupTask.class, scope = ServerSetup.Scope.SUITE)
+    public static class FirstSharedTests extends ScopedTests {
+
+        @Test
+        public void propertyExists() throws Exception {
+            Assertions.assertTrue(SuiteScopedSetupTaskTestCase.propertyExists(client()));
+            Assertions.assertEquals(List.of(SHARED), SETUPS);
+            Assertions.assertTrue(TEAR_DOWNS.isEmpty(), () -> "Expected no tear downs but found " + TEAR_DOWNS);
+        }
+    }
+
+    @Order(2)
+    @ServerSetup(value = SharedSetupTask.class, scope = ServerSetup.Scope.SUITE)
+    public static class SecondSharedTests extends ScopedTests {
+
+        @Test
+        public void propertyShared() throws Exception {
+            // The setup task of the previous test class is shared, so it has been neither torn down nor executed again
+            Assertions.assertTrue(SuiteScopedSetupTaskTestCase.propertyExists(client()));
+            Assertions.assertEquals(List.of(SHARED), SETUPS);
+            Assertions.assertTrue(TEAR_DOWNS.isEmpty(), () -> "Expected no tear downs but found " + TEAR_DOWNS);
+        }
+    }
+
+    @Order(2)
+    public static class DifferentSetupTests extends ScopedTests {
+
+        @Test
+        public void sharedTornDown() throws Exception {
+            Assertions.assertFalse(SuiteScopedSetupTaskTestCase.propertyExists(client()));
+            Assertions.assertEquals(List.of(SHARED), TEAR_DOWNS);
+        }
+    }
+}
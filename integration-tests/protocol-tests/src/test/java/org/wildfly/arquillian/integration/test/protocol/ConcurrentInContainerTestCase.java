@@ -0,0 +1,125 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.arquillian.integration.test.protocol;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.as.arquillian.api.ConcurrentTestMethods;
+import org.jboss.as.arquillian.container.ManagementClient;
+import org.jboss.as.arquillian.protocol.jmx.TestPlanListener;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TagFilter;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.testkit.engine.EngineTestKit;
+import org.junit.platform.testkit.engine.Events;
+
+/**
+ * Tests that only the test methods selected on the client are executed on the server for test classes annotated with
+ * {@link ConcurrentTestMethods}.
+ */
+@ExtendWith(ArquillianExtension.class)
+@RunAsClient
+public class ConcurrentInContainerTestCase {
+    private static final String EXCLUDED_TAG = "concurrent-excluded";
+    private static final String PROPERTY_PREFIX = "ConcurrentInContainerTestCase.";
+
+    @ArquillianResource
+    private ManagementClient client;
+
+    @Deployment(testable = false)
+    public static JavaArchive create() {
+        return ShrinkWrap.create(JavaArchive.class, ConcurrentInContainerTestCase.class.getSimpleName() + ".jar")
+                .addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Test
+    public void onlySelectedMethodsExecuted() throws Exception {
+        final LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+                .selectors(DiscoverySelectors.selectClass(ConcurrentTests.class))
+                .filters(TagFilter.excludeTags(EXCLUDED_TAG))
+                .build();
+        // The engine test kit does not notify launcher listeners, report the selected test methods like the launcher
+        // would so the test methods are submitted as a batch
+        final TestPlanListener testPlanListener = new TestPlanListener();
+        final TestPlan testPlan = LauncherFactory.create().discover(request);
+        testPlanListener.testPlanExecutionStarted(testPlan);
+        final Events events;
+        try {
+            events = EngineTestKit.execute("junit-jupiter", request).testEvents();
+        } finally {
+            testPlanListener.testPlanExecutionFinished(testPlan);
+        }
+        events.assertStatistics((stats) -> stats.failed(0L).succeeded(3L));
+
+        final ModelNode properties = readServerSystemProperties();
+        Assertions.assertTrue(properties.hasDefined(PROPERTY_PREFIX + "first"));
+        Assertions.assertTrue(properties.hasDefined(PROPERTY_PREFIX + "second"));
+        Assertions.assertTrue(properties.hasDefined(PROPERTY_PREFIX + "third"));
+        Assertions.assertFalse(properties.hasDefined(PROPERTY_PREFIX + "excluded"),
+                "A test method excluded on the client was executed on the server");
+    }
+
+    private ModelNode readServerSystemProperties() throws Exception {
+        final ModelNode address = Operations.createAddress("core-service", "platform-mbean", "type", "runtime");
+        final ModelNode result = client.getControllerClient()
+                .execute(Operations.createReadAttributeOperation(address, "system-properties"));
+        if (!Operations.isSuccessfulOutcome(result)) {
+            Assertions.fail("Failed to read the system properties: " + Operations.getFailureDescription(result).asString());
+        }
+        return Operations.readResult(result);
+    }
+
+    @ExtendWith(ArquillianExtension.class)
+    @ConcurrentTestMethods
+    public static class ConcurrentTests {
+
+        @Deployment
+        public static JavaArchive create() {
+            return ShrinkWrap.create(JavaArchive.class, ConcurrentTests.class.getSimpleName() + ".jar")
+                    .addClass(ConcurrentTests.class)
+                    .addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+        }
+
+        @Test
+        public void first() {
+            executed("first");
+        }
+
+        @Test
+        public void second() {
+            executed("second");
+        }
+
+        @Test
+        public void third() {
+            executed("third");
+        }
+
+        @Test
+        @Tag(EXCLUDED_TAG)
+        public void excluded() {
+            executed("excluded");
+        }
+
+        private static void executed(final String name) {
+            System.setProperty(PROPERTY_PREFIX + name, "true");
+        }
+    }
+}
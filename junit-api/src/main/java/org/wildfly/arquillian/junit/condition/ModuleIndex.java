@@ -0,0 +1,375 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.arquillian.junit.condition;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * A lazily populated index of the modules in a module directory.
+ * <p>
+ * A module is first resolved directly from its name in the module directory and in each layer and add-on of the
+ * module directory. Only if the module is not found this way, the module directory is walked. The walk happens at
+ * most once for the index.
+ * </p>
+ * <p>
+ * The index can be persisted between test runs by setting the {@code wildfly.arquillian.module.index.cache} system
+ * property to {@code true}. Only modules which were found are persisted. The persisted index is discarded when the last
+ * modified time of the module directory, a layer or an add-on changes, and a persisted module is discarded when the
+ * last modified time of its {@code module.xml} file changes. The cache directory defaults to
+ * {@code ${java.io.tmpdir}/wildfly-arquillian} and can be changed with the
+ * {@code wildfly.arquillian.module.index.cache.dir} system property.
+ * </p>
+ */
+class ModuleIndex implements ExtensionContext.Store.CloseableResource {
+    private static final String CACHE_PROPERTY = "wildfly.arquillian.module.index.cache";
+    private static final String CACHE_DIR_PROPERTY = "wildfly.arquillian.module.index.cache.dir";
+    private static final String ROOTS_KEY = "modules.roots";
+    private static final XMLInputFactory XML_INPUT_FACTORY;
+
+    static {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XML_INPUT_FACTORY = factory;
+    }
+
+    private final Path moduleDir;
+    private final List<Path> roots;
+    private final Map<String, Optional<ModuleDefinition>> definitions;
+    private final Path cacheFile;
+    private final String rootsKey;
+    private volatile List<Path> moduleXmlFiles;
+    private volatile boolean modified;
+
+    private ModuleIndex(final Path moduleDir, final Path cacheFile) throws IOException {
+        this.moduleDir = moduleDir;
+        this.roots = resolveRoots(moduleDir);
+        this.definitions = new ConcurrentHashMap<>();
+        this.cacheFile = cacheFile;
+        this.rootsKey = createRootsKey(moduleDir, roots);
+    }
+
+    /**
+     * Creates the index for the module directory.
+     *
+     * @param moduleDir the module directory
+     *
+     * @return the index
+     *
+     * @throws IOException if the module directory could not be read
+     */
+    static ModuleIndex create(final Path moduleDir) throws IOException {
+        final ModuleIndex index = new ModuleIndex(moduleDir, resolveCacheFile(moduleDir));
+        index.load();
+        return index;
+    }
+
+    /**
+     * Finds the module definition for the module name.
+     *
+     * @param moduleName the name of the module
+     *
+     * @return the module definition or an empty optional if the module was not found
+     *
+     * @throws IOException if the module could not be parsed
+     */
+    Optional<ModuleDefinition> find(final String moduleName) throws IOException {
+        Optional<ModuleDefinition> result = definitions.get(moduleName);
+        if (result == null) {
+            result = resolve(moduleName);
+            definitions.put(moduleName, result);
+            // Modules which are not found are not persisted as they may be added anywhere in the module directory
+            modified |= result.isPresent();
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        if (cacheFile == null || !modified) {
+            return;
+        }
+        final Properties properties = new Properties();
+        properties.setProperty(ROOTS_KEY, rootsKey);
+        try {
+            for (Map.Entry<String, Optional<ModuleDefinition>> entry : definitions.entrySet()) {
+                final String key = entry.getKey();
+                final Optional<ModuleDefinition> definition = entry.getValue();
+                if (definition.isPresent()) {
+                    final ModuleDefinition d = definition.get();
+                    properties.setProperty(key + ".path", d.path.toString());
+                    properties.setProperty(key + ".mtime", Long.toString(Files.getLastModifiedTime(d.path).toMillis()));
+                    properties.setProperty(key + ".name", d.name);
+                    properties.setProperty(key + ".version", d.version);
+                }
+            }
+            Files.createDirectories(cacheFile.getParent());
+            final Path tmp = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                properties.store(out, "Module index for " + moduleDir);
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ignore) {
+            // The cache is only an optimization
+        }
+    }
+
+    private Optional<ModuleDefinition> resolve(final String moduleName) throws IOException {
+        final String pathName = String.join(File.separator, moduleName.split("\\."));
+        // Resolve the module directly before walking the module directory
+        for (Path root : roots) {
+            final Path moduleXml = root.resolve(pathName).resolve("main").resolve("module.xml");
+            if (Files.isRegularFile(moduleXml)) {
+                return Optional.of(parse(moduleXml));
+            }
+        }
+        for (Path moduleXml : getModuleXmlFiles()) {
+            if (moduleXml.toString().contains(pathName)) {
+                return Optional.of(parse(moduleXml));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private List<Path> getModuleXmlFiles() throws IOException {
+        List<Path> result = moduleXmlFiles;
+        if (result == null) {
+            synchronized (this) {
+                result = moduleXmlFiles;
+                if (result == null) {
+                    try (Stream<Path> files = Files.walk(moduleDir)) {
+                        result = files.filter((f) -> f.getFileName().toString().equals("module.xml"))
+                                .collect(Collectors.toList());
+                    }
+                    moduleXmlFiles = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private void load() {
+        if (cacheFile == null || !Files.isRegularFile(cacheFile)) {
+            return;
+        }
+        final Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(cacheFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            return;
+        }
+        if (!rootsKey.equals(properties.getProperty(ROOTS_KEY))) {
+            return;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.endsWith(".path")) {
+                continue;
+            }
+            final String moduleName = key.substring(0, key.length() - 5);
+            final Path path = Path.of(properties.getProperty(key));
+            // Discard the module if its module.xml has been changed or removed
+            if (Long.toString(lastModified(path)).equals(properties.getProperty(moduleName + ".mtime"))) {
+                definitions.put(moduleName, Optional.of(new ModuleDefinition(path,
+                        properties.getProperty(moduleName + ".name", ""),
+                        properties.getProperty(moduleName + ".version", ""))));
+            }
+        }
+    }
+
+    /**
+     * Creates a key from the last modified times of the module directory, the layers and the add-ons. Adding or
+     * removing a layer or an add-on, or a top level directory in one of them, changes the key.
+     *
+     * @param moduleDir the module directory
+     * @param roots     the module roots
+     *
+     * @return the key for the persisted index
+     */
+    private static String createRootsKey(final Path moduleDir, final List<Path> roots) {
+        final StringBuilder key = new StringBuilder();
+        final Path system = moduleDir.resolve("system");
+        for (Path dir : List.of(system.resolve("layers"), system.resolve("add-ons"))) {
+            key.append(lastModified(dir)).append(',');
+        }
+        for (Path root : roots) {
+            key.append(moduleDir.relativize(root)).append('=').append(lastModified(root)).append(',');
+        }
+        return key.toString();
+    }
+
+    private static long lastModified(final Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException ignore) {
+            return -1L;
+        }
+    }
+
+    private static List<Path> resolveRoots(final Path moduleDir) throws IOException {
+        final List<Path> roots = new ArrayList<>();
+        roots.add(moduleDir);
+        final Path system = moduleDir.resolve("system");
+        // Overlay layers take precedence over the base layer
+        final List<Path> layers = listDirectories(system.resolve("layers"));
+        layers.sort((a, b) -> {
+            final boolean aBase = "base".equals(a.getFileName().toString());
+            final boolean bBase = "base".equals(b.getFileName().toString());
+            return aBase == bBase ? a.compareTo(b) : (aBase ? 1 : -1);
+        });
+        roots.addAll(layers);
+        roots.addAll(listDirectories(system.resolve("add-ons")));
+        return roots;
+    }
+
+    private static List<Path> listDirectories(final Path dir) throws IOException {
+        final List<Path> result = new ArrayList<>();
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, Files::isDirectory)) {
+                stream.forEach(result::add);
+            }
+        }
+        return result;
+    }
+
+    private static Path resolveCacheFile(final Path moduleDir) {
+        if (!Boolean.parseBoolean(SecurityActions.getSystemProperty(CACHE_PROPERTY))) {
+            return null;
+        }
+        final String dir = SecurityActions.getSystemProperty(CACHE_DIR_PROPERTY);
+        final Path cacheDir = dir == null || dir.isBlank()
+                ? Path.of(SecurityActions.getSystemProperty("java.io.tmpdir"), "wildfly-arquillian")
+                : Path.of(dir);
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            final byte[] hash = digest.digest(moduleDir.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8));
+            final StringBuilder name = new StringBuilder("module-index-");
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return cacheDir.resolve(name.append(".properties").toString());
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    private static ModuleDefinition parse(final Path moduleXmlFile) throws IOException {
+        String name = "";
+        String version = "";
+        try (InputStream in = Files.newInputStream(moduleXmlFile)) {
+            final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                int depth = 0;
+                boolean inResources = false;
+                boolean resourcesParsed = false;
+                while (reader.hasNext()) {
+                    final int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        final String localName = reader.getLocalName();
+                        if (depth == 1) {
+                            name = valueOf(reader.getAttributeValue(null, "name"));
+                        } else if (depth == 2 && !resourcesParsed && "resources".equals(localName)) {
+                            // Use only the first resources, which there should only be one of
+                            inResources = true;
+                        } else if (depth == 3 && inResources) {
+                            if ("artifact".equals(localName)) {
+                                // Use the Maven GAV where the third entry should be the version
+                                final String[] gav = valueOf(reader.getAttributeValue(null, "name")).split(":");
+                                if (gav.length > 2) {
+                                    version = sanitizeVersion(gav[2]);
+                                }
+                                break;
+                            } else if ("resource-root".equals(localName)) {
+                                final String path = valueOf(reader.getAttributeValue(null, "path"));
+                                final Path parent = moduleXmlFile.getParent();
+                                final Path jar = parent == null ? Path.of(path) : parent.resolve(path);
+                                try (JarFile jarFile = new JarFile(jar.toFile())) {
+                                    version = extractVersionFromManifest(jarFile);
+                                }
+                            }
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        if (depth == 2 && inResources) {
+                            inResources = false;
+                            resourcesParsed = true;
+                        }
+                        depth--;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to parse module XML file " + moduleXmlFile, e);
+        }
+        return new ModuleDefinition(moduleXmlFile, name, version);
+    }
+
+    private static String valueOf(final String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String extractVersionFromManifest(final JarFile jarFile) throws IOException {
+        final Manifest manifest = jarFile.getManifest();
+        final var version = manifest.getMainAttributes().getValue(Attributes.Name.IMPLEMENTATION_VERSION);
+        return sanitizeVersion(version);
+    }
+
+    private static String sanitizeVersion(final String version) {
+        if (version == null) {
+            return "";
+        }
+        // Skip the "-redhat" for our purposes
+        final int end = version.indexOf("-redhat");
+        if (end > 0) {
+            return version.substring(0, end);
+        }
+        return version;
+    }
+
+    /**
+     * The definition of a module parsed from its {@code module.xml} file.
+     */
+    static class ModuleDefinition {
+        final Path path;
+        final String name;
+        final String version;
+
+        private ModuleDefinition(final Path path, final String name, final String version) {
+            this.path = path;
+            this.name = name;
+            this.version = version;
+        }
+    }
+}
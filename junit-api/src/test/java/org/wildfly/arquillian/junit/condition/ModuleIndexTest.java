@@ -0,0 +1,99 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.arquillian.junit.condition;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the persisted {@link ModuleIndex}.
+ */
+@Tag("system.property")
+public class ModuleIndexTest {
+    private static final String MODULE_NAME = "org.wildfly.arquillian.test";
+
+    @TempDir
+    private Path tempDir;
+
+    private Path moduleDir;
+
+    @BeforeEach
+    public void enableCache() throws IOException {
+        moduleDir = Files.createDirectories(tempDir.resolve("modules"));
+        // The module directories of the base layer exist, so adding a module does not change the base layer
+        Files.createDirectories(moduleDir.resolve("system/layers/base/org/wildfly"));
+        System.setProperty("wildfly.arquillian.module.index.cache", "true");
+        System.setProperty("wildfly.arquillian.module.index.cache.dir", tempDir.resolve("cache").toString());
+    }
+
+    @AfterEach
+    public void disableCache() {
+        System.clearProperty("wildfly.arquillian.module.index.cache");
+        System.clearProperty("wildfly.arquillian.module.index.cache.dir");
+    }
+
+    @Test
+    public void missingModuleNotPersisted() throws Exception {
+        Assertions.assertTrue(find().isEmpty());
+        createModule("base", "1.0.0.Final");
+        assertVersion(find(), "1.0.0.Final");
+    }
+
+    @Test
+    public void changedModuleDiscarded() throws Exception {
+        createModule("base", "1.0.0.Final");
+        assertVersion(find(), "1.0.0.Final");
+        final Path moduleXml = createModule("base", "2.0.0.Final");
+        Files.setLastModifiedTime(moduleXml,
+                FileTime.fromMillis(Files.getLastModifiedTime(moduleXml).toMillis() + 10_000L));
+        assertVersion(find(), "2.0.0.Final");
+    }
+
+    @Test
+    public void addedLayerDiscardsIndex() throws Exception {
+        createModule("base", "1.0.0.Final");
+        assertVersion(find(), "1.0.0.Final");
+        // An overlay layer takes precedence over the base layer
+        createModule("overlay", "1.0.1.Final");
+        assertVersion(find(), "1.0.1.Final");
+    }
+
+    private Optional<ModuleIndex.ModuleDefinition> find() throws IOException {
+        final ModuleIndex index = ModuleIndex.create(moduleDir);
+        try {
+            return index.find(MODULE_NAME);
+        } finally {
+            // Persists the index
+            index.close();
+        }
+    }
+
+    private Path createModule(final String layer, final String version) throws IOException {
+        final Path dir = Files.createDirectories(moduleDir.resolve("system/layers").resolve(layer)
+                .resolve(MODULE_NAME.replace('.', '/')).resolve("main"));
+        return Files.writeString(dir.resolve("module.xml"), "<module xmlns=\"urn:jboss:module:1.9\" name=\""
+                + MODULE_NAME + "\">\n"
+                + "    <resources>\n"
+                + "        <artifact name=\"org.wildfly.arquillian:test:" + version + "\"/>\n"
+                + "    </resources>\n"
+                + "</module>\n");
+    }
+
+    private static void assertVersion(final Optional<ModuleIndex.ModuleDefinition> definition, final String version) {
+        Assertions.assertTrue(definition.isPresent(), () -> "Module " + MODULE_NAME + " was not found");
+        Assertions.assertEquals(version, definition.get().version);
+    }
+}
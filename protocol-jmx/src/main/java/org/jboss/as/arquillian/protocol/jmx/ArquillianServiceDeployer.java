@@ -6,7 +6,10 @@ package org.jboss.as.arquillian.protocol.jmx;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -22,9 +25,21 @@ import org.jboss.arquillian.core.api.annotation.Observes;
 import org.jboss.as.arquillian.container.ManagementClient;
 import org.jboss.as.arquillian.container.NetworkUtils;
 import org.jboss.as.arquillian.protocol.jmx.ExtendedJMXProtocol.ServiceArchiveHolder;
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.OperationBuilder;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.as.controller.client.OperationResponse;
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
 import org.jboss.logging.Logger;
 import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.ArchivePaths;
 import org.jboss.shrinkwrap.api.asset.ByteArrayAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.exporter.ZipExporter;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.wildfly.plugin.tools.ContainerDescription;
 
@@ -43,7 +58,11 @@ public class ArquillianServiceDeployer {
 
     private static final Logger log = Logger.getLogger(ArquillianServiceDeployer.class);
 
+    private static final String RESIDENT_PROPERTY = "wildfly.arquillian.service.resident";
+    private static final ArchivePath FINGERPRINT_PATH = ArchivePaths.create("META-INF/org.jboss.as.arquillian.fingerprint");
+
     private Set<String> serviceArchiveDeployed = new HashSet<String>();
+    private Set<String> residentDeployed = new HashSet<String>();
 
     public synchronized void doServiceDeploy(@Observes(precedence = 1) BeforeDeploy event, Container container,
             ServiceArchiveHolder archiveHolder) {
@@ -101,8 +120,7 @@ public class ArquillianServiceDeployer {
                 serviceArchive.addAsManifestResource(new ByteArrayAsset(bytes.toByteArray()),
                         "org.jboss.as.managementConnectionProps");
 
-                DeployableContainer<?> deployableContainer = container.getDeployableContainer();
-                deployableContainer.deploy(serviceArchive);
+                deployService(container, serviceArchive, isResident(props));
                 serviceArchiveDeployed.add(container.getName());
             } catch (Throwable th) {
                 log.error("Cannot deploy arquillian service", th);
@@ -113,6 +131,11 @@ public class ArquillianServiceDeployer {
     public synchronized void undeploy(@Observes BeforeStop event, Container container, ServiceArchiveHolder archiveHolder) {
         // clean up if we deployed to this container?
         if (serviceArchiveDeployed.contains(container.getName())) {
+            if (residentDeployed.remove(container.getName())) {
+                // leave the service deployed for the next run
+                serviceArchiveDeployed.remove(container.getName());
+                return;
+            }
             try {
                 Archive<?> serviceArchive = archiveHolder.getArchive();
                 log.infof("Undeploy arquillian service: %s", serviceArchive);
@@ -124,4 +147,113 @@ public class ArquillianServiceDeployer {
             }
         }
     }
+
+    /**
+     * Deploys the service archive unless the same archive is already deployed. The fingerprint of the archive is added
+     * to the archive itself, so the fingerprint of the deployed archive can be read back from the server. The archive
+     * is only uploaded if the fingerprints differ.
+     * <p>
+     * The resident mode assumes all clients of a server use the same version of the Arquillian service. A client with
+     * a different version replaces the deployment, which restarts the service for every other client using it.
+     * </p>
+     */
+    private void deployService(final Container container, final JavaArchive serviceArchive, final boolean resident)
+            throws Exception {
+        final ModelControllerClient client = managementClientInstance.get().getControllerClient();
+        final ModelNode address = Operations.createAddress(ClientConstants.DEPLOYMENT, serviceArchive.getName());
+        final String fingerprint = addFingerprint(serviceArchive);
+
+        final ModelNode result = client.execute(Operations.createReadResourceOperation(address));
+        final boolean deployed = Operations.isSuccessfulOutcome(result);
+        if (deployed && fingerprint.equals(readDeployedFingerprint(client, serviceArchive.getName()))) {
+            log.infof("Arquillian service %s is already deployed", serviceArchive.getName());
+            if (resident) {
+                residentDeployed.add(container.getName());
+            }
+            return;
+        }
+
+        if (deployed) {
+            log.debugf("Replacing outdated arquillian service %s", serviceArchive.getName());
+            replace(client, serviceArchive);
+        } else {
+            container.getDeployableContainer().deploy(serviceArchive);
+        }
+        if (resident) {
+            residentDeployed.add(container.getName());
+        }
+    }
+
+    /**
+     * Replaces the content of the deployment in a single operation, so the deployment does not go missing for other
+     * clients of the server as it would between an undeploy and a deploy.
+     */
+    private static void replace(final ModelControllerClient client, final JavaArchive archive) throws IOException {
+        final ModelNode op = Operations.createOperation(ClientConstants.DEPLOYMENT_FULL_REPLACE_OPERATION);
+        op.get(ClientConstants.NAME).set(archive.getName());
+        op.get(ClientConstants.RUNTIME_NAME).set(archive.getName());
+        op.get(ClientConstants.CONTENT).add().get(ClientConstants.INPUT_STREAM_INDEX).set(0);
+        op.get("enabled").set(true);
+        try (InputStream content = archive.as(ZipExporter.class).exportAsInputStream()) {
+            final ModelNode result = client.execute(OperationBuilder.create(op)
+                    .addInputStream(content)
+                    .build());
+            if (!Operations.isSuccessfulOutcome(result)) {
+                throw new IOException(String.format("Failed to replace %s: %s", archive.getName(),
+                        Operations.getFailureDescription(result).asString()));
+            }
+        }
+    }
+
+    /**
+     * Adds the fingerprint of the contents of the archive to the archive, replacing a previously added fingerprint.
+     *
+     * @param archive the archive to add the fingerprint to
+     *
+     * @return the fingerprint
+     */
+    static String addFingerprint(final JavaArchive archive) throws IOException, NoSuchAlgorithmException {
+        archive.delete(FINGERPRINT_PATH);
+        final String fingerprint = ServiceArchiveCache.fingerprint(archive);
+        archive.add(new StringAsset(fingerprint), FINGERPRINT_PATH);
+        return fingerprint;
+    }
+
+    /**
+     * Reads the fingerprint from the deployed archive.
+     *
+     * @param client         the client used to read the content
+     * @param deploymentName the name of the deployment
+     *
+     * @return the fingerprint or {@code null} if the deployment or fingerprint could not be read
+     */
+    static String readDeployedFingerprint(final ModelControllerClient client, final String deploymentName)
+            throws IOException {
+        final ModelNode op = Operations.createOperation("read-content",
+                Operations.createAddress(ClientConstants.DEPLOYMENT, deploymentName));
+        op.get("path").set(FINGERPRINT_PATH.get().substring(1));
+        try (OperationResponse response = client.executeOperation(Operation.Factory.create(op),
+                OperationMessageHandler.DISCARD)) {
+            final ModelNode result = response.getResponseNode();
+            if (!Operations.isSuccessfulOutcome(result)) {
+                // Either the deployment is not managed or it was deployed without a fingerprint
+                log.debugf("Could not read the fingerprint of %s: %s", deploymentName,
+                        Operations.getFailureDescription(result));
+                return null;
+            }
+            final OperationResponse.StreamEntry entry = response
+                    .getInputStream(Operations.readResult(result).get("uuid").asString());
+            if (entry == null) {
+                return null;
+            }
+            try (InputStream in = entry.getStream()) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+            }
+        }
+    }
+
+    private static boolean isResident(final Map<String, String> props) {
+        final String value = props.get("residentArquillianService");
+        return value == null ? Boolean.getBoolean(RESIDENT_PROPERTY) : Boolean.parseBoolean(value);
+    }
 }
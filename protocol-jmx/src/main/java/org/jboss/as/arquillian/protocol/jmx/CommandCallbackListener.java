@@ -0,0 +1,59 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.protocol.jmx;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import javax.management.MBeanServerConnection;
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+
+import org.jboss.arquillian.container.test.spi.command.Command;
+import org.jboss.arquillian.container.test.spi.command.CommandCallback;
+
+/**
+ * Handles the commands the test runner on the server sends as notifications and pushes the results back to the
+ * server.
+ */
+class CommandCallbackListener implements NotificationListener {
+    private final MBeanServerConnection connection;
+    private final ObjectName objectName;
+    private final CommandCallback callback;
+
+    CommandCallbackListener(final MBeanServerConnection connection, final ObjectName objectName,
+            final CommandCallback callback) {
+        this.connection = connection;
+        this.objectName = objectName;
+        this.callback = callback;
+    }
+
+    @Override
+    public void handleNotification(final Notification notification, final Object handback) {
+        if (!"arquillian-command".equals(notification.getType())) {
+            return;
+        }
+        final String eventId = notification.getMessage();
+        try {
+            final Command<?> command;
+            try (ObjectInputStream in = new ObjectInputStream(
+                    new ByteArrayInputStream((byte[]) notification.getUserData()))) {
+                command = (Command<?>) in.readObject();
+            }
+            callback.fired(command);
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(command);
+            }
+            connection.invoke(objectName, "push", new Object[] { eventId, bytes.toByteArray() },
+                    new String[] { String.class.getName(), byte[].class.getName() });
+        } catch (Exception e) {
+            throw new RuntimeException("Could not return command result for command " + eventId, e);
+        }
+    }
+}
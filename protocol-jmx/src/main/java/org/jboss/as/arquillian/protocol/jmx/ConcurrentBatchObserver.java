@@ -0,0 +1,30 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.protocol.jmx;
+
+import org.jboss.arquillian.core.api.Instance;
+import org.jboss.arquillian.core.api.annotation.Inject;
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.test.spi.event.suite.AfterClass;
+
+/**
+ * Closes the batch of concurrently executed test methods once a test class has completed. Otherwise the batch of the
+ * last test class would only be closed when the next test class is executed, leaving its notification listener
+ * registered and its results on the server.
+ *
+ * @see ConcurrentMethodExecutor
+ */
+public class ConcurrentBatchObserver {
+
+    @Inject
+    private Instance<ConcurrentMethodExecutor.CurrentBatch> currentBatchInst;
+
+    public void closeBatch(@Observes AfterClass event) {
+        final ConcurrentMethodExecutor.CurrentBatch currentBatch = currentBatchInst.get();
+        if (currentBatch != null) {
+            currentBatch.close();
+        }
+    }
+}
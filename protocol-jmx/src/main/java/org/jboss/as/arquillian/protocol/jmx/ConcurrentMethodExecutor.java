@@ -0,0 +1,240 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.protocol.jmx;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.management.MBeanServerConnection;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+
+import org.jboss.arquillian.container.test.spi.ContainerMethodExecutor;
+import org.jboss.arquillian.container.test.spi.command.CommandCallback;
+import org.jboss.arquillian.protocol.jmx.JMXTestRunnerMBean;
+import org.jboss.arquillian.test.spi.TestMethodExecutor;
+import org.jboss.arquillian.test.spi.TestResult;
+import org.jboss.as.arquillian.api.ConcurrentTestMethods;
+import org.jboss.logging.Logger;
+
+/**
+ * A method executor which submits the test methods of a class annotated with {@link ConcurrentTestMethods} as a
+ * single batch to the server. The server executes the test methods concurrently and each invocation retrieves the
+ * result of its test method.
+ * <p>
+ * Only the test methods the test runner selected are part of the batch. If the selection is not known, or a test
+ * method is conditionally enabled, the test method is executed by the delegate when it is invoked.
+ * </p>
+ * <p>
+ * Only a single batch is active at a time. Test methods which are not part of the batch are executed by the delegate
+ * once all test methods of the batch have completed, so commands sent from the server are never handled twice.
+ * </p>
+ *
+ * @see org.jboss.as.arquillian.service.ArquillianService.ExtendedJMXTestRunnerMBean
+ */
+class ConcurrentMethodExecutor implements ContainerMethodExecutor {
+    private static final Logger log = Logger.getLogger(ConcurrentMethodExecutor.class);
+
+    // The maximum time a single remote call waits for a result
+    private static final long AWAIT_TIMEOUT = 10_000L;
+    // Annotations evaluated by the test runner which may exclude a selected test method when it is invoked
+    private static final String[] CONDITIONAL_PREFIXES = { "Enabled", "Disabled", "Ignore" };
+
+    private final ContainerMethodExecutor delegate;
+    private final MBeanServerConnection connection;
+    private final CommandCallback callback;
+    private final Map<String, String> protocolProps;
+    private final CurrentBatch currentBatch;
+    private final long batchTimeout;
+
+    ConcurrentMethodExecutor(final ContainerMethodExecutor delegate, final MBeanServerConnection connection,
+            final CommandCallback callback, final Map<String, String> protocolProps,
+            final CurrentBatch currentBatch, final long batchTimeout) {
+        this.delegate = delegate;
+        this.connection = connection;
+        this.callback = callback;
+        this.protocolProps = protocolProps;
+        this.currentBatch = currentBatch;
+        this.batchTimeout = batchTimeout;
+    }
+
+    @Override
+    public TestResult invoke(final TestMethodExecutor testMethodExecutor) {
+        final Class<?> testClass = testMethodExecutor.getInstance().getClass();
+        final String className = testClass.getName();
+        final String methodName = testMethodExecutor.getMethodName();
+        Batch batch = currentBatch.get();
+        if (batch != null && !batch.className.equals(className)) {
+            // A new test class is being executed, results which were never retrieved are discarded
+            currentBatch.compareAndSet(batch, null);
+            batch.close();
+            batch = null;
+        }
+        if (batch == null && testClass.isAnnotationPresent(ConcurrentTestMethods.class)) {
+            final Set<String> methodNames = findTestMethods(testClass);
+            // A batch of a single test method would not be executed concurrently
+            if (methodNames.size() > 1 && methodNames.contains(methodName)) {
+                try {
+                    batch = new Batch(className, methodNames);
+                    batch.submit();
+                    currentBatch.set(batch);
+                } catch (Exception e) {
+                    log.warnf(e, "Failed to submit the test methods of %s, the test methods will not be executed concurrently",
+                            className);
+                    batch = null;
+                }
+            }
+        }
+        if (batch != null) {
+            if (batch.contains(methodName)) {
+                return batch.await(methodName);
+            }
+            batch.awaitAll();
+        }
+        return delegate.invoke(testMethodExecutor);
+    }
+
+    private static Set<String> findTestMethods(final Class<?> testClass) {
+        final Set<String> selected = SelectedTestMethods.get(testClass.getName());
+        if (selected == null) {
+            return Set.of();
+        }
+        final Set<String> methodNames = new TreeSet<>();
+        for (Method method : testClass.getMethods()) {
+            if (method.getParameterCount() == 0 && selected.contains(method.getName()) && !isConditional(method)) {
+                methodNames.add(method.getName());
+            }
+        }
+        return methodNames;
+    }
+
+    private static boolean isConditional(final Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            final String name = annotation.annotationType().getSimpleName();
+            for (String prefix : CONDITIONAL_PREFIXES) {
+                if (name.startsWith(prefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The batch of concurrently executed test methods, shared by all executors of the suite.
+     */
+    static final class CurrentBatch extends AtomicReference<Batch> {
+
+        /**
+         * Closes the current batch, if any, removing its notification listener and cancelling the test methods which
+         * were not retrieved.
+         */
+        void close() {
+            final Batch batch = getAndSet(null);
+            if (batch != null) {
+                batch.close();
+            }
+        }
+    }
+
+    /**
+     * The test methods of a test class which have been submitted to the server.
+     */
+    final class Batch {
+        private final MBeanServerConnection connection;
+        private final String className;
+        private final Set<String> pending;
+        private final Map<String, TestResult> completed;
+        private final ObjectName objectName;
+        private final NotificationListener listener;
+        private long deadline;
+
+        private Batch(final String className, final Set<String> methodNames) throws Exception {
+            this.connection = ConcurrentMethodExecutor.this.connection;
+            this.className = className;
+            this.pending = new TreeSet<>(methodNames);
+            this.completed = new HashMap<>();
+            this.objectName = new ObjectName(JMXTestRunnerMBean.OBJECT_NAME);
+            this.listener = new CommandCallbackListener(connection, objectName, callback);
+        }
+
+        private void submit() throws Exception {
+            // Commands sent by the test methods are handled for the lifetime of the batch
+            connection.addNotificationListener(objectName, listener, null, null);
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(batchTimeout);
+            try {
+                connection.invoke(objectName, "runTestMethods",
+                        new Object[] { className, pending.toArray(new String[0]), protocolProps },
+                        new String[] { String.class.getName(), String[].class.getName(), Map.class.getName() });
+            } catch (Exception e) {
+                connection.removeNotificationListener(objectName, listener);
+                throw e;
+            }
+        }
+
+        boolean contains(final String methodName) {
+            return pending.contains(methodName) || completed.containsKey(methodName);
+        }
+
+        TestResult await(final String methodName) {
+            TestResult result = completed.remove(methodName);
+            if (result == null) {
+                result = retrieve(methodName);
+            }
+            if (pending.isEmpty() && completed.isEmpty()) {
+                currentBatch.compareAndSet(this, null);
+                close();
+            }
+            return result;
+        }
+
+        void awaitAll() {
+            for (String methodName : pending.toArray(new String[0])) {
+                completed.put(methodName, retrieve(methodName));
+            }
+        }
+
+        void close() {
+            try {
+                connection.removeNotificationListener(objectName, listener);
+                if (!pending.isEmpty()) {
+                    connection.invoke(objectName, "cancelTestMethods", new Object[] { className },
+                            new String[] { String.class.getName() });
+                }
+            } catch (Exception e) {
+                log.debugf(e, "Failed to close the test method batch for %s", className);
+            }
+        }
+
+        private TestResult retrieve(final String methodName) {
+            pending.remove(methodName);
+            try {
+                byte[] bytes = null;
+                long remaining;
+                while (bytes == null && (remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())) > 0L) {
+                    bytes = (byte[]) connection.invoke(objectName, "awaitTestMethod",
+                            new Object[] { className, methodName, Math.min(remaining, AWAIT_TIMEOUT) },
+                            new String[] { String.class.getName(), String.class.getName(), long.class.getName() });
+                }
+                if (bytes == null) {
+                    // The remaining test methods are cancelled when the batch is closed
+                    return TestResult.failed(new TimeoutException(String.format(
+                            "Test method %s of %s did not complete within the batch timeout of %d seconds", methodName,
+                            className, batchTimeout)));
+                }
+                return TestResultCodec.decode(bytes);
+            } catch (Throwable t) {
+                return TestResult.failed(t);
+            }
+        }
+    }
+}
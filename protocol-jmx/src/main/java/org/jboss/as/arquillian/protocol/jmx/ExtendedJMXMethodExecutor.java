@@ -0,0 +1,71 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.protocol.jmx;
+
+import java.util.Map;
+
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+
+import org.jboss.arquillian.container.test.spi.ContainerMethodExecutor;
+import org.jboss.arquillian.container.test.spi.command.CommandCallback;
+import org.jboss.arquillian.protocol.jmx.JMXTestRunnerMBean;
+import org.jboss.arquillian.test.spi.TestMethodExecutor;
+import org.jboss.arquillian.test.spi.TestResult;
+import org.jboss.logging.Logger;
+
+/**
+ * A method executor which decodes results with the {@link TestResultCodec}. Otherwise it behaves like the
+ * {@link org.jboss.arquillian.protocol.jmx.JMXMethodExecutor}.
+ */
+class ExtendedJMXMethodExecutor implements ContainerMethodExecutor {
+    private static final Logger log = Logger.getLogger(ExtendedJMXMethodExecutor.class);
+
+    private final MBeanServerConnection connection;
+    private final CommandCallback callback;
+    private final Map<String, String> protocolProps;
+
+    ExtendedJMXMethodExecutor(final MBeanServerConnection connection, final CommandCallback callback,
+            final Map<String, String> protocolProps) {
+        this.connection = connection;
+        this.callback = callback;
+        this.protocolProps = protocolProps;
+    }
+
+    @Override
+    public TestResult invoke(final TestMethodExecutor testMethodExecutor) {
+        if (testMethodExecutor == null) {
+            throw new IllegalArgumentException("TestMethodExecutor null");
+        }
+        final String className = testMethodExecutor.getInstance().getClass().getName();
+        final String methodName = testMethodExecutor.getMethodName();
+        ObjectName objectName = null;
+        CommandCallbackListener listener = null;
+        TestResult result;
+        try {
+            objectName = new ObjectName(JMXTestRunnerMBean.OBJECT_NAME);
+            listener = new CommandCallbackListener(connection, objectName, callback);
+            connection.addNotificationListener(objectName, listener, null, null);
+            log.debugf("Invoke %s.%s", className, methodName);
+            final byte[] bytes = (byte[]) connection.invoke(objectName, "runTestMethod",
+                    new Object[] { className, methodName, protocolProps },
+                    new String[] { String.class.getName(), String.class.getName(), Map.class.getName() });
+            result = TestResultCodec.decode(bytes);
+        } catch (Throwable t) {
+            result = TestResult.failed(t);
+        } finally {
+            if (listener != null) {
+                try {
+                    connection.removeNotificationListener(objectName, listener);
+                } catch (Exception e) {
+                    log.error("Cannot remove notification listener", e);
+                }
+            }
+        }
+        result.setEnd(System.currentTimeMillis());
+        log.debugf("Result: %s", result);
+        return result;
+    }
+}
@@ -4,10 +4,19 @@
  */
 package org.jboss.as.arquillian.protocol.jmx;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
+import javax.management.MBeanServerConnection;
+
+import org.jboss.arquillian.container.spi.client.protocol.metadata.JMXContext;
+import org.jboss.arquillian.container.spi.client.protocol.metadata.ProtocolMetaData;
+import org.jboss.arquillian.container.test.spi.ContainerMethodExecutor;
 import org.jboss.arquillian.container.test.spi.client.deployment.DeploymentPackager;
+import org.jboss.arquillian.container.test.spi.command.CommandCallback;
 import org.jboss.arquillian.core.api.InstanceProducer;
 import org.jboss.arquillian.core.api.annotation.Inject;
 import org.jboss.arquillian.protocol.jmx.AbstractJMXProtocol;
@@ -26,10 +35,46 @@ public class ExtendedJMXProtocol extends AbstractJMXProtocol<ExtendedJMXProtocol
     @SuiteScoped
     private InstanceProducer<ServiceArchiveHolder> archiveHolderInst;
 
+    @Inject
+    @SuiteScoped
+    private InstanceProducer<ConcurrentMethodExecutor.CurrentBatch> currentBatchInst;
+
     public Class<ExtendedJMXProtocolConfiguration> getProtocolConfigurationClass() {
         return ExtendedJMXProtocolConfiguration.class;
     }
 
+    @Override
+    public ContainerMethodExecutor getExecutor(final ExtendedJMXProtocolConfiguration config,
+            final ProtocolMetaData metaData, final CommandCallback callback) {
+        if (!config.isCompactTestResults() && config.getTestMethodConcurrency() <= 1) {
+            return super.getExecutor(config, metaData, callback);
+        }
+        final Collection<JMXContext> contexts = metaData.getContexts(JMXContext.class);
+        if (contexts.isEmpty()) {
+            // Let the default executor report the missing connection
+            return super.getExecutor(config, metaData, callback);
+        }
+        final MBeanServerConnection connection = contexts.iterator().next().getConnection();
+        final Map<String, String> protocolProps = new HashMap<>();
+        protocolProps.put(ExtendedJMXProtocolConfiguration.PROPERTY_ENABLE_TCCL,
+                Boolean.toString(config.isEnableThreadContextClassLoader()));
+        protocolProps.put(ExtendedJMXProtocolConfiguration.PROPERTY_COMPACT_TEST_RESULTS,
+                Boolean.toString(config.isCompactTestResults()));
+        protocolProps.put(ExtendedJMXProtocolConfiguration.PROPERTY_TEST_METHOD_CONCURRENCY,
+                Integer.toString(config.getTestMethodConcurrency()));
+        final ContainerMethodExecutor executor = config.isCompactTestResults()
+                ? new ExtendedJMXMethodExecutor(connection, callback, protocolProps)
+                : super.getExecutor(config, metaData, callback);
+        if (config.getTestMethodConcurrency() > 1) {
+            if (currentBatchInst.get() == null) {
+                currentBatchInst.set(new ConcurrentMethodExecutor.CurrentBatch());
+            }
+            return new ConcurrentMethodExecutor(executor, connection, callback, protocolProps, currentBatchInst.get(),
+                    config.getTestMethodBatchTimeout());
+        }
+        return executor;
+    }
+
     @Override
     public DeploymentPackager getPackager() {
         if (archiveHolderInst.get() == null) {
@@ -16,8 +16,18 @@ public class ExtendedJMXProtocolConfiguration extends JMXProtocolConfiguration {
 
     public static final String PROPERTY_ENABLE_TCCL = "enableThreadContextClassLoader";
 
+    public static final String PROPERTY_TEST_METHOD_CONCURRENCY = "testMethodConcurrency";
+
+    public static final String PROPERTY_COMPACT_TEST_RESULTS = "compactTestResults";
+
     private boolean enableThreadContextClassLoader = true;
 
+    private boolean compactTestResults;
+
+    private int testMethodConcurrency;
+
+    private long testMethodBatchTimeout = 600L;
+
     public boolean isEnableThreadContextClassLoader() {
         return enableThreadContextClassLoader;
     }
@@ -25,4 +35,68 @@ public class ExtendedJMXProtocolConfiguration extends JMXProtocolConfiguration {
     public void setEnableThreadContextClassLoader(boolean enableThreadContextClassLoader) {
         this.enableThreadContextClassLoader = enableThreadContextClassLoader;
     }
+
+    /**
+     * Returns the maximum number of test methods executed concurrently on the server for test classes annotated with
+     * {@link org.jboss.as.arquillian.api.ConcurrentTestMethods}.
+     *
+     * @return the maximum number of concurrently executed test methods, a value less than two disables concurrent
+     *             execution
+     */
+    public int getTestMethodConcurrency() {
+        return testMethodConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of test methods executed concurrently on the server for test classes annotated with
+     * {@link org.jboss.as.arquillian.api.ConcurrentTestMethods}. The default is {@code 0} which disables concurrent
+     * execution.
+     *
+     * @param testMethodConcurrency the maximum number of concurrently executed test methods
+     */
+    public void setTestMethodConcurrency(final int testMethodConcurrency) {
+        this.testMethodConcurrency = testMethodConcurrency;
+    }
+
+    /**
+     * Returns the maximum number of seconds to wait for all test methods of a batch of concurrently executed test
+     * methods to complete.
+     *
+     * @return the timeout in seconds
+     */
+    public long getTestMethodBatchTimeout() {
+        return testMethodBatchTimeout;
+    }
+
+    /**
+     * Sets the maximum number of seconds to wait for all test methods of a batch of concurrently executed test
+     * methods to complete. Test methods which have not completed once the timeout has been reached fail. The default
+     * is 600 seconds.
+     *
+     * @param testMethodBatchTimeout the timeout in seconds
+     */
+    public void setTestMethodBatchTimeout(final long testMethodBatchTimeout) {
+        this.testMethodBatchTimeout = testMethodBatchTimeout;
+    }
+
+    /**
+     * Indicates whether test results are sent from the server with the compact encoding of the
+     * {@link TestResultCodec}.
+     *
+     * @return {@code true} if the compact encoding is used, otherwise {@code false}
+     */
+    public boolean isCompactTestResults() {
+        return compactTestResults;
+    }
+
+    /**
+     * Sets whether test results are sent from the server with the compact encoding of the {@link TestResultCodec}
+     * rather than as a Java serialized object. Only results of failed tests include a Java serialized throwable. The
+     * default is {@code false}.
+     *
+     * @param compactTestResults {@code true} to use the compact encoding
+     */
+    public void setCompactTestResults(final boolean compactTestResults) {
+        this.compactTestResults = compactTestResults;
+    }
 }
@@ -20,5 +20,6 @@ public class JMXProtocolClientExtension implements LoadableExtension {
         builder.service(Protocol.class, ExtendedJMXProtocol.class);
         builder.observer(ArquillianServiceDeployer.class);
         builder.observer(ServerKillerExtension.class);
+        builder.observer(ConcurrentBatchObserver.class);
     }
 }
@@ -14,7 +14,9 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -84,6 +86,33 @@ public class JMXProtocolPackager implements DeploymentPackager {
         services.add("deployment.arquillian-service");
     }
 
+    // The packages added to the service archive, each represented by one of its classes
+    private static final Class<?>[] SERVICE_PACKAGES = {
+            ArquillianService.class,
+            AbstractJMXProtocol.class,
+    };
+
+    private static final Class<?>[] SERVICE_CLASSES = {
+            ServerSetup.class,
+            ServerSetupTask.class,
+            ManagementClient.class,
+            Authentication.class,
+            NetworkUtils.class,
+            TestDescription.class,
+            TestResultCodec.class,
+    };
+
+    // The classes whose class path entries provide the classes and resources of the service archive
+    private static final Collection<Class<?>> SERVICE_SOURCES;
+
+    static {
+        final Set<Class<?>> sources = new LinkedHashSet<>(Arrays.asList(SERVICE_PACKAGES));
+        sources.addAll(Arrays.asList(SERVICE_CLASSES));
+        // The service activator and permissions resources
+        sources.add(JMXProtocolPackager.class);
+        SERVICE_SOURCES = Collections.unmodifiableSet(sources);
+    }
+
     private static final Logger log = Logger.getLogger(JMXProtocolPackager.class);
 
     private ServiceArchiveHolder archiveHolder;
@@ -99,7 +128,8 @@ public class JMXProtocolPackager implements DeploymentPackager {
         if (archiveHolder.getArchive() == null) {
             try {
                 Collection<Archive<?>> auxArchives = testDeployment.getAuxiliaryArchives();
-                JavaArchive archive = generateArquillianServiceArchive(auxArchives);
+                JavaArchive archive = ServiceArchiveCache.getOrCreate("arquillian-service", auxArchives, SERVICE_SOURCES,
+                        () -> generateArquillianServiceArchive(auxArchives));
 
                 for (ProtocolArchiveProcessor processor : protocolProcessors) {
                     processor.process(testDeployment, archive);
@@ -121,25 +151,26 @@ public class JMXProtocolPackager implements DeploymentPackager {
         final JavaArchive archive = ShrinkWrap.create(JavaArchive.class, "arquillian-service");
         log.debugf("Generating: %s", archive.getName());
 
-        archive.addPackage(ArquillianService.class.getPackage());
-        archive.addPackage(AbstractJMXProtocol.class.getPackage());
+        for (Class<?> type : SERVICE_PACKAGES) {
+            archive.addPackage(type.getPackage());
+        }
         // add the classes required for server setup
-        archive.addClasses(ServerSetup.class, ServerSetupTask.class, ManagementClient.class, Authentication.class,
-                NetworkUtils.class, TestDescription.class);
-
-        final Set<ModuleIdentifier> archiveDependencies = new LinkedHashSet<ModuleIdentifier>();
-        archiveDependencies.add(ModuleIdentifier.create("org.jboss.as.jmx"));
-        archiveDependencies.add(ModuleIdentifier.create("org.jboss.as.server"));
-        archiveDependencies.add(ModuleIdentifier.create("org.jboss.as.controller-client"));
-        archiveDependencies.add(ModuleIdentifier.create("org.jboss.jandex"));
-        archiveDependencies.add(ModuleIdentifier.create("org.jboss.logging"));
-        archiveDependencies.add(ModuleIdentifier.create("org.jboss.modules"));
-        archiveDependencies.add(ModuleIdentifier.create("org.jboss.dmr"));
-        archiveDependencies.add(ModuleIdentifier.create("org.jboss.msc"));
-        archiveDependencies.add(ModuleIdentifier.create("org.wildfly.security.manager"));
-        archiveDependencies.add(ModuleIdentifier.create("org.wildfly.common"));
-        archiveDependencies.add(ModuleIdentifier.create("org.wildfly.security.elytron"));
-        archiveDependencies.add(ModuleIdentifier.create("java.logging"));
+        archive.addClasses(SERVICE_CLASSES);
+
+        final Set<String> archiveDependencies = new LinkedHashSet<String>();
+        archiveDependencies.add("org.jboss.as.jmx");
+        archiveDependencies.add("org.jboss.as.server");
+        archiveDependencies.add("org.jboss.as.controller-client");
+        archiveDependencies.add("org.jboss.jandex");
+        archiveDependencies.add("org.jboss.logging");
+        archiveDependencies.add("org.jboss.modules");
+        archiveDependencies.add("org.jboss.dmr");
+        archiveDependencies.add("org.jboss.msc");
+        archiveDependencies.add("org.jboss.vfs");
+        archiveDependencies.add("org.wildfly.security.manager");
+        archiveDependencies.add("org.wildfly.common");
+        archiveDependencies.add("org.wildfly.security.elytron");
+        archiveDependencies.add("java.logging");
 
         // Merge the auxiliary archives and collect the loadable extensions
         final Set<String> loadableExtensions = new HashSet<String>();
@@ -155,7 +186,9 @@ public class JMXProtocolPackager implements DeploymentPackager {
                     Object extension = classLoader.loadClass(line).newInstance();
                     if (extension instanceof DependenciesProvider) {
                         DependenciesProvider provider = (DependenciesProvider) extension;
-                        archiveDependencies.addAll(provider.getDependencies());
+                        for (ModuleIdentifier dependency : provider.getDependencies()) {
+                            archiveDependencies.add(dependency.toString());
+                        }
                     }
                     line = br.readLine();
                 }
@@ -168,12 +201,12 @@ public class JMXProtocolPackager implements DeploymentPackager {
 
         // Generate the manifest with it's dependencies
         ManifestDescriptor manifest = Descriptors.create(ManifestDescriptor.class);
-        Iterator<ModuleIdentifier> itdep = archiveDependencies.iterator();
+        Iterator<String> itdep = archiveDependencies.iterator();
         StringBuilder depspec = new StringBuilder();
         while (itdep.hasNext()) {
-            ModuleIdentifier dep = itdep.next();
+            String dep = itdep.next();
             depspec.append(dep);
-            if (optionalDeps.contains(dep.getName())) {
+            if (optionalDeps.contains(dep)) {
                 depspec.append(" optional");
             }
             if (itdep.hasNext()) {
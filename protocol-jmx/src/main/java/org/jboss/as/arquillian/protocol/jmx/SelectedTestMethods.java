@@ -0,0 +1,47 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.protocol.jmx;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The test methods selected by the test runner on the client. Only selected test methods can be submitted to the
+ * server in a batch, as the server would otherwise execute test methods the client filtered out.
+ * <p>
+ * The selection is only known if the tests are executed by the JUnit Platform, which reports the selected test methods
+ * to the {@link TestPlanListener}.
+ * </p>
+ */
+final class SelectedTestMethods {
+    private static final Map<String, Map<String, Integer>> SELECTED = new ConcurrentHashMap<>();
+
+    private SelectedTestMethods() {
+    }
+
+    /**
+     * Returns the selected test methods of the test class.
+     *
+     * @param className the name of the test class
+     *
+     * @return the names of the selected test methods or {@code null} if the selection is not known
+     */
+    static Set<String> get(final String className) {
+        final Map<String, Integer> methods = SELECTED.get(className);
+        return methods == null ? null : Set.copyOf(methods.keySet());
+    }
+
+    static void add(final String className, final String methodName) {
+        SELECTED.computeIfAbsent(className, (key) -> new ConcurrentHashMap<>()).merge(methodName, 1, Integer::sum);
+    }
+
+    static void remove(final String className, final String methodName) {
+        SELECTED.computeIfPresent(className, (key, methods) -> {
+            methods.computeIfPresent(methodName, (name, count) -> count == 1 ? null : count - 1);
+            return methods.isEmpty() ? null : methods;
+        });
+    }
+}
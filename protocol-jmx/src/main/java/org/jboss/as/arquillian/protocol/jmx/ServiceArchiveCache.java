@@ -0,0 +1,279 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.jboss.as.arquillian.protocol.jmx;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jboss.logging.Logger;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
+import org.jboss.shrinkwrap.api.asset.Asset;
+import org.jboss.shrinkwrap.api.exporter.ZipExporter;
+import org.jboss.shrinkwrap.api.importer.ZipImporter;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+
+/**
+ * A persistent cache for the generated {@code arquillian-service} archive.
+ * <p>
+ * The archive is keyed by a hash of the auxiliary archives, which includes the remote loadable extensions they
+ * register, and of the class path entries the classes and resources added to the archive are loaded from. An unchanged
+ * test run imports the previously generated archive rather than generating it again.
+ * </p>
+ * <p>
+ * The cache is disabled by default and can be enabled with the {@code wildfly.arquillian.service.cache} system
+ * property. The cache directory defaults to {@code ${java.io.tmpdir}/wildfly-arquillian} and can be changed with the
+ * {@code wildfly.arquillian.service.cache.dir} system property. Cached archives which have not been used for
+ * {@code wildfly.arquillian.service.cache.max.age} days, which defaults to 7, are removed when a new archive is
+ * cached.
+ * </p>
+ * <p>
+ * The cache only avoids generating the archive. Uploading it is skipped by the {@link ArquillianServiceDeployer} when
+ * the server already has a deployment with the same fingerprint.
+ * </p>
+ */
+final class ServiceArchiveCache {
+    private static final Logger log = Logger.getLogger(ServiceArchiveCache.class);
+
+    private static final String ENABLED_PROPERTY = "wildfly.arquillian.service.cache";
+    private static final String DIR_PROPERTY = "wildfly.arquillian.service.cache.dir";
+    private static final String MAX_AGE_PROPERTY = "wildfly.arquillian.service.cache.max.age";
+
+    private ServiceArchiveCache() {
+    }
+
+    /**
+     * Returns the cached archive for the auxiliary archives. If the cache is disabled, the generator is invoked. If
+     * there is no cached archive, the generator is invoked and the result is stored in the cache.
+     *
+     * @param name        the name of the archive
+     * @param auxArchives the auxiliary archives the archive is generated from
+     * @param sources     the classes whose class path entries provide the classes and resources added to the archive
+     * @param generator   the generator for the archive
+     *
+     * @return the archive
+     *
+     * @throws Exception if the archive could not be generated
+     */
+    static JavaArchive getOrCreate(final String name, final Collection<Archive<?>> auxArchives,
+            final Collection<Class<?>> sources, final Callable<JavaArchive> generator) throws Exception {
+        if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return generator.call();
+        }
+        final long start = System.currentTimeMillis();
+        final String hash;
+        try {
+            hash = hash(auxArchives, sources);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.debugf(e, "Failed to hash the auxiliary archives, the %s archive will not be cached", name);
+            return generator.call();
+        }
+        final Path file = getCacheDir().resolve(name + "-" + hash + ".jar");
+        if (Files.isRegularFile(file)) {
+            try {
+                final JavaArchive archive = ShrinkWrap.create(ZipImporter.class, name)
+                        .importFrom(file.toFile())
+                        .as(JavaArchive.class);
+                // Record the use so the entry is not pruned while it's still in use
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                log.debugf("Reused cached archive %s in %d ms", file, (System.currentTimeMillis() - start));
+                return archive;
+            } catch (IOException | RuntimeException e) {
+                log.warnf(e, "Failed to import cached archive %s, the archive will be generated", file);
+            }
+        }
+        final JavaArchive archive = generator.call();
+        store(archive, file);
+        prune(name, file);
+        return archive;
+    }
+
+    /**
+     * Deletes the cached archives with the same name which have not been used within the maximum age.
+     */
+    private static void prune(final String name, final Path current) {
+        final long maxAge = TimeUnit.DAYS.toMillis(Long.getLong(MAX_AGE_PROPERTY, 7L));
+        final long oldest = System.currentTimeMillis() - maxAge;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(current.getParent(), name + "-*")) {
+            for (Path entry : entries) {
+                if (!entry.equals(current) && Files.getLastModifiedTime(entry).toMillis() < oldest) {
+                    log.debugf("Deleting unused cached archive %s", entry);
+                    Files.deleteIfExists(entry);
+                }
+            }
+        } catch (IOException e) {
+            log.debugf(e, "Failed to prune the cached %s archives", name);
+        }
+    }
+
+    private static void store(final Archive<?> archive, final Path file) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            // Export to a temporary file first so concurrent runs never see a partially written archive
+            tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            archive.as(ZipExporter.class).exportTo(tmp.toFile(), true);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debugf("Cached archive %s", file);
+        } catch (IOException | RuntimeException e) {
+            log.warnf(e, "Failed to cache archive %s", file);
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignore) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a fingerprint of the paths and contents of the archive. Archives with the same contents have the same
+     * fingerprint regardless of where they were generated.
+     *
+     * @param archive the archive to create the fingerprint for
+     *
+     * @return the hex encoded fingerprint
+     *
+     * @throws IOException              if the contents of the archive could not be read
+     * @throws NoSuchAlgorithmException if the hash algorithm is not available
+     */
+    static String fingerprint(final Archive<?> archive) throws IOException, NoSuchAlgorithmException {
+        final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        hash(digest, archive, new byte[8192]);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Returns the directory cached files are stored in.
+     *
+     * @return the cache directory
+     */
+    static Path getCacheDir() {
+        final String dir = System.getProperty(DIR_PROPERTY);
+        if (dir == null || dir.isBlank()) {
+            return Paths.get(System.getProperty("java.io.tmpdir"), "wildfly-arquillian");
+        }
+        return Paths.get(dir);
+    }
+
+    private static String hash(final Collection<? extends Archive<?>> archives, final Collection<Class<?>> sources)
+            throws IOException, NoSuchAlgorithmException {
+        final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        final byte[] buffer = new byte[8192];
+        // The generated archive contains classes from these class path entries, so any change must not use the cache
+        final Set<URL> locations = new LinkedHashSet<>();
+        for (Class<?> source : sources) {
+            final CodeSource codeSource = source.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null) {
+                throw new IOException("Could not determine the location of " + source.getName());
+            }
+            locations.add(codeSource.getLocation());
+        }
+        for (URL location : locations) {
+            final Path path;
+            try {
+                path = Paths.get(location.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                throw new IOException("Could not resolve the location " + location, e);
+            }
+            hash(digest, path, buffer);
+        }
+        for (Archive<?> archive : archives) {
+            digest.update(archive.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            hash(digest, archive, buffer);
+        }
+        return toHex(digest.digest());
+    }
+
+    private static void hash(final MessageDigest digest, final Path path, final byte[] buffer) throws IOException {
+        if (Files.isDirectory(path)) {
+            final List<Path> files;
+            try (Stream<Path> walk = Files.walk(path)) {
+                files = walk.filter(Files::isRegularFile)
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                digest.update(path.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                hash(digest, file, buffer);
+            }
+        } else {
+            try (InputStream in = Files.newInputStream(path)) {
+                int len;
+                while ((len = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, len);
+                }
+            }
+            digest.update((byte) 0);
+        }
+    }
+
+    /**
+     * Hex encodes the bytes.
+     *
+     * @param bytes the bytes to encode
+     *
+     * @return the hex encoded bytes
+     */
+    static String toHex(final byte[] bytes) {
+        final StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            result.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return result.toString();
+    }
+
+    private static void hash(final MessageDigest digest, final Archive<?> archive, final byte[] buffer)
+            throws IOException {
+        final Map<ArchivePath, Node> contents = archive.getContent();
+        final ArchivePath[] paths = contents.keySet().toArray(new ArchivePath[0]);
+        Arrays.sort(paths, Comparator.comparing(ArchivePath::get));
+        for (ArchivePath path : paths) {
+            digest.update(path.get().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            final Asset asset = contents.get(path).getAsset();
+            if (asset instanceof ArchiveAsset) {
+                hash(digest, ((ArchiveAsset) asset).getArchive(), buffer);
+            } else if (asset != null) {
+                try (InputStream in = asset.openStream()) {
+                    int len;
+                    while ((len = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, len);
+                    }
+                }
+            }
+            digest.update((byte) 0);
+        }
+    }
+}
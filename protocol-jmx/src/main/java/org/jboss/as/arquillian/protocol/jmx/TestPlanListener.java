@@ -0,0 +1,59 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.protocol.jmx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+/**
+ * Records the test methods selected by the JUnit Platform in the {@link SelectedTestMethods}. The listener is
+ * registered with the {@code ServiceLoader} and is only used if the JUnit Platform launcher is on the class path.
+ * <p>
+ * Only tests known when the test plan is created are recorded. Test templates, like parameterized or repeated tests,
+ * are only known once they are executed and are never part of a batch.
+ * </p>
+ */
+public class TestPlanListener implements TestExecutionListener {
+    private final Map<TestPlan, List<MethodSource>> recorded = new ConcurrentHashMap<>();
+
+    @Override
+    public void testPlanExecutionStarted(final TestPlan testPlan) {
+        final List<MethodSource> sources = new ArrayList<>();
+        for (TestIdentifier root : testPlan.getRoots()) {
+            for (TestIdentifier identifier : testPlan.getDescendants(root)) {
+                if (!identifier.isTest()) {
+                    continue;
+                }
+                final TestSource source = identifier.getSource().orElse(null);
+                if (source instanceof MethodSource) {
+                    final MethodSource methodSource = (MethodSource) source;
+                    if (methodSource.getMethodParameterTypes().isEmpty()) {
+                        SelectedTestMethods.add(methodSource.getClassName(), methodSource.getMethodName());
+                        sources.add(methodSource);
+                    }
+                }
+            }
+        }
+        recorded.put(testPlan, sources);
+    }
+
+    @Override
+    public void testPlanExecutionFinished(final TestPlan testPlan) {
+        final List<MethodSource> sources = recorded.remove(testPlan);
+        if (sources != null) {
+            for (MethodSource source : sources) {
+                SelectedTestMethods.remove(source.getClassName(), source.getMethodName());
+            }
+        }
+    }
+}
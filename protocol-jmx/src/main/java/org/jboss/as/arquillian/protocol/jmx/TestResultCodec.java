@@ -0,0 +1,134 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.protocol.jmx;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+
+import org.jboss.arquillian.test.spi.TestResult;
+
+/**
+ * Encodes and decodes {@link TestResult test results} sent from the server to the client.
+ * <p>
+ * The compact encoding starts with a fixed header of a magic byte, the version and the status. A result without a
+ * throwable is followed by the start and end time and the optional description. Only a result with a throwable is
+ * written with Java serialization, which then follows the header.
+ * </p>
+ * <p>
+ * Decoding accepts both the compact encoding and a Java serialized {@link TestResult}, so a server which does not
+ * support the compact encoding can still be used.
+ * </p>
+ *
+ * @see ExtendedJMXProtocolConfiguration#PROPERTY_COMPACT_TEST_RESULTS
+ */
+public final class TestResultCodec {
+
+    private static final byte MAGIC = 0x57;
+    private static final byte VERSION = 1;
+    private static final byte SERIALIZED = 0;
+    private static final byte COMPACT = 1;
+    private static final TestResult.Status[] STATUS = TestResult.Status.values();
+
+    private TestResultCodec() {
+    }
+
+    /**
+     * Encodes the test result with the compact encoding.
+     *
+     * @param result the result to encode
+     *
+     * @return the encoded result
+     */
+    public static byte[] encode(final TestResult result) {
+        final boolean compact = result.getThrowable() == null && result.getExceptionProxy() == null;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(compact ? 32 : 1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(result.getStatus().ordinal());
+            if (compact) {
+                out.writeByte(COMPACT);
+                out.writeLong(result.getStart());
+                out.writeLong(result.getEnd());
+                final String description = result.getDescription();
+                out.writeBoolean(description != null);
+                if (description != null) {
+                    out.writeUTF(description);
+                }
+            } else {
+                out.writeByte(SERIALIZED);
+                out.flush();
+                try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+                    objectOut.writeObject(result);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a test result in either the compact encoding or as a Java serialized object.
+     *
+     * @param bytes the encoded result
+     *
+     * @return the test result
+     *
+     * @throws IOException            if the result could not be decoded
+     * @throws ClassNotFoundException if a class of a serialized result could not be found
+     */
+    public static TestResult decode(final byte[] bytes) throws IOException, ClassNotFoundException {
+        if (bytes.length == 0 || bytes[0] != MAGIC) {
+            return readObject(new ByteArrayInputStream(bytes));
+        }
+        final ByteArrayInputStream in = new ByteArrayInputStream(bytes);
+        final DataInputStream dataIn = new DataInputStream(in);
+        dataIn.readByte();
+        final byte version = dataIn.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported test result encoding version " + version);
+        }
+        final TestResult.Status status = STATUS[dataIn.readUnsignedByte()];
+        if (dataIn.readByte() == SERIALIZED) {
+            return readObject(in);
+        }
+        final long start = dataIn.readLong();
+        final long end = dataIn.readLong();
+        final String description = dataIn.readBoolean() ? dataIn.readUTF() : null;
+        final TestResult result = createResult(status, description);
+        result.setStart(start);
+        result.setEnd(end);
+        return result;
+    }
+
+    private static TestResult createResult(final TestResult.Status status, final String description) {
+        switch (status) {
+            case PASSED:
+                return TestResult.passed(description);
+            case SKIPPED:
+                return TestResult.skipped(description);
+            default:
+                // A failed result without a throwable has an empty description
+                final TestResult result = TestResult.failed(null);
+                if (description != null) {
+                    result.addDescription(description);
+                }
+                return result;
+        }
+    }
+
+    private static TestResult readObject(final ByteArrayInputStream in) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objectIn = new ObjectInputStream(in)) {
+            return (TestResult) objectIn.readObject();
+        }
+    }
+}
@@ -6,7 +6,6 @@ package org.jboss.as.arquillian.service;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -39,6 +38,9 @@ public final class ArquillianConfig implements Service {
     private final Supplier<DeploymentUnit> deploymentUnitSupplier;
     private final ServiceName serviceName;
     private final Map<String, TestClassInfo> testClasses;
+    // Both are fixed once the deployment is installed and are created on first use
+    private volatile ContextManager contextManager;
+    private volatile ClassLoader moduleClassLoader;
 
     ArquillianConfig(final ServiceName serviceName, final Map<String, TestClassInfo> testClasses,
             final Supplier<ArquillianService> arquillianServiceSupplier,
@@ -62,10 +64,54 @@ public final class ArquillianConfig implements Service {
         return deploymentUnitSupplier.get();
     }
 
+    /**
+     * Returns the context manager for the deployment. The setup actions of a deployment do not change once the
+     * deployment is installed, so the sorted actions are shared by all test methods.
+     *
+     * @return the context manager
+     */
+    ContextManager getContextManager() {
+        ContextManager result = contextManager;
+        if (result == null) {
+            synchronized (this) {
+                result = contextManager;
+                if (result == null) {
+                    result = contextManager = new ContextManagerBuilder(this).addAll(getDeploymentUnit()).build();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the class loader of the deployments module.
+     *
+     * @return the module class loader or {@code null} if the deployment has no module
+     */
+    ClassLoader getModuleClassLoader() {
+        ClassLoader result = moduleClassLoader;
+        if (result == null) {
+            final Module module = getDeploymentUnit().getAttachment(Attachments.MODULE);
+            if (module != null) {
+                result = moduleClassLoader = module.getClassLoader();
+            }
+        }
+        return result;
+    }
+
     ServiceName getServiceName() {
         return serviceName;
     }
 
+    /**
+     * Returns the names of the test classes in this config.
+     *
+     * @return the test class names
+     */
+    Set<String> getTestClassNames() {
+        return testClasses.keySet();
+    }
+
     /**
      * Gets whether this config supports the given test class.
      *
@@ -100,8 +146,10 @@ public final class ArquillianConfig implements Service {
         if (!testClasses.containsKey(className))
             throw new ClassNotFoundException("Class '" + className + "' not found in: " + testClasses);
 
-        final Module module = deploymentUnitSupplier.get().getAttachment(Attachments.MODULE);
-        Class<?> testClass = module.getClassLoader().loadClass(className);
+        final ClassLoader classLoader = getModuleClassLoader();
+        if (classLoader == null)
+            throw new ClassNotFoundException("No module found for: " + getDeploymentUnit().getName());
+        Class<?> testClass = classLoader.loadClass(className);
 
         for (ArquillianConfigServiceCustomizer customizer : serviceCustomizers) {
             customizer.customizeLoadClass(deploymentUnitSupplier.get(), testClass);
@@ -120,6 +168,8 @@ public final class ArquillianConfig implements Service {
 
     @Override
     public void stop(final StopContext context) {
+        contextManager = null;
+        moduleClassLoader = null;
         context.getController().setMode(Mode.REMOVE);
         arquillianServiceSupplier.get().unregisterArquillianConfig(this);
         for (final String testClass : testClasses.keySet()) {
@@ -149,7 +199,7 @@ public final class ArquillianConfig implements Service {
         TestClassInfo(final TestDescription testDescription, final Set<String> methods) {
             this.allMethods = false;
             this.testDescription = testDescription;
-            this.methods = new HashSet<>(methods);
+            this.methods = Set.copyOf(methods);
         }
 
         private boolean supportsMethod(final String methodName) {
@@ -5,7 +5,10 @@
 
 package org.jboss.as.arquillian.service;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -22,6 +25,7 @@ import org.jboss.jandex.AnnotationTarget;
 import org.jboss.jandex.ClassInfo;
 import org.jboss.jandex.DotName;
 import org.jboss.logging.Logger;
+import org.jboss.vfs.VirtualFile;
 
 /**
  * Uses the annotation index to check whether there is a class annotated
@@ -54,6 +58,17 @@ class ArquillianConfigBuilder {
     private static final AttachmentKey<Map<String, ArquillianConfig.TestClassInfo>> CLASSES = AttachmentKey
             .create(Map.class);
 
+    private static final int MAX_CACHED_DEPLOYMENTS = 64;
+
+    // The test classes found in managed deployments, keyed by the content hash and deployment unit name
+    private static final Map<String, Map<String, ArquillianConfig.TestClassInfo>> CACHE = new LinkedHashMap<>(16, 0.75f,
+            true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Map<String, ArquillianConfig.TestClassInfo>> eldest) {
+            return size() > MAX_CACHED_DEPLOYMENTS;
+        }
+    };
+
     ArquillianConfigBuilder() {
     }
 
@@ -73,8 +88,17 @@ class ArquillianConfigBuilder {
     }
 
     static void handleParseAnnotations(final DeploymentUnit deploymentUnit) {
+        handleParseAnnotations(deploymentUnit, deploymentUnit.getAttachment(Attachments.COMPOSITE_ANNOTATION_INDEX));
+    }
 
-        final CompositeIndex compositeIndex = deploymentUnit.getAttachment(Attachments.COMPOSITE_ANNOTATION_INDEX);
+    /**
+     * Parses the test classes from the index. The index is passed in as it is removed from the deployment unit in a
+     * later phase, which may have happened if the parsing is not done on the deployment thread.
+     *
+     * @param deploymentUnit the deployment unit
+     * @param compositeIndex the composite annotation index of the deployment unit or {@code null} if not found
+     */
+    static void handleParseAnnotations(final DeploymentUnit deploymentUnit, final CompositeIndex compositeIndex) {
         if (compositeIndex == null) {
             log.warnf("Cannot find composite annotation index in: %s", deploymentUnit);
             return;
@@ -85,6 +109,20 @@ class ArquillianConfigBuilder {
             return;
         }
 
+        // The test classes only depend on the deployment content, so a redeployment of the same content can reuse them
+        final String cacheKey = getCacheKey(deploymentUnit);
+        if (cacheKey != null) {
+            final Map<String, ArquillianConfig.TestClassInfo> cached;
+            synchronized (CACHE) {
+                cached = CACHE.get(cacheKey);
+            }
+            if (cached != null) {
+                log.debugf("Using cached test classes for %s", deploymentUnit);
+                deploymentUnit.putAttachment(CLASSES, cached);
+                return;
+            }
+        }
+
         // Got JUnit?
         final DotName runWithName = DotName.createSimple(CLASS_NAME_JUNIT_RUNNER);
         final List<AnnotationInstance> runWithList = new ArrayList<>(compositeIndex.getAnnotations(runWithName));
@@ -100,6 +138,8 @@ class ArquillianConfigBuilder {
         // Get Test Class Names
         final Map<String, ArquillianConfig.TestClassInfo> testClasses = new LinkedHashMap<>();
         final TestDescription testDescription = TestDescription.from(deploymentUnit);
+        // Test classes often share a base class, so the methods of each class are only collected once per scan
+        final Map<DotName, Set<String>> methodCache = new HashMap<>();
         // JUnit
         for (AnnotationInstance instance : runWithList) {
             final AnnotationTarget target = instance.target();
@@ -107,30 +147,66 @@ class ArquillianConfigBuilder {
                 final ClassInfo classInfo = (ClassInfo) target;
                 final String testClassName = classInfo.name().toString();
                 testClasses.put(testClassName,
-                        getTestMethods(compositeIndex, classInfo, testDescription));
+                        getTestMethods(compositeIndex, classInfo, testDescription, methodCache));
             }
         }
         // TestNG
         for (final ClassInfo classInfo : testNgTests) {
-            testClasses.put(classInfo.name().toString(), getTestMethods(compositeIndex, classInfo, testDescription));
+            testClasses.put(classInfo.name().toString(),
+                    getTestMethods(compositeIndex, classInfo, testDescription, methodCache));
         }
         deploymentUnit.putAttachment(CLASSES, testClasses);
+        if (cacheKey != null) {
+            synchronized (CACHE) {
+                CACHE.put(cacheKey, testClasses);
+            }
+        }
+    }
+
+    /**
+     * Creates the key for the cache of test classes. Managed deployment content is stored in the content repository
+     * in a path made of its hash, so the path identifies the content. Unmanaged content may change without its path
+     * changing and is not cached.
+     *
+     * @param deploymentUnit the deployment unit
+     *
+     * @return the cache key or {@code null} if the deployment is not managed content
+     */
+    private static String getCacheKey(final DeploymentUnit deploymentUnit) {
+        final DeploymentUnit topLevel = deploymentUnit.getParent() == null ? deploymentUnit : deploymentUnit.getParent();
+        final VirtualFile contents = topLevel.getAttachment(Attachments.DEPLOYMENT_CONTENTS);
+        if (contents == null) {
+            return null;
+        }
+        // The content repository stores the content in <repository>/<first 2 chars of hash>/<rest of hash>/content
+        final Path path = Paths.get(contents.getPathName());
+        final Path hashDir = path.getParent();
+        if (hashDir == null || hashDir.getParent() == null || !"content".equals(String.valueOf(path.getFileName()))
+                || hashDir.getParent().getFileName() == null
+                || hashDir.getParent().getFileName().toString().length() != 2) {
+            return null;
+        }
+        return hashDir.getParent().getFileName().toString() + hashDir.getFileName() + '/' + getName(deploymentUnit);
     }
 
     private static ArquillianConfig.TestClassInfo getTestMethods(final CompositeIndex compositeIndex, final ClassInfo classInfo,
-            final TestDescription testDescription) {
+            final TestDescription testDescription, final Map<DotName, Set<String>> methodCache) {
         // Record all methods which can operate on this deployment.
-        final Set<String> methods = new HashSet<>();
         final String deploymentName = testDescription.arquillianDeploymentName().orElse(null);
-        findAllMethods(compositeIndex, classInfo, deploymentName, methods);
-        return new ArquillianConfig.TestClassInfo(testDescription, Set.copyOf(methods));
+        return new ArquillianConfig.TestClassInfo(testDescription,
+                findAllMethods(compositeIndex, classInfo, deploymentName, methodCache));
     }
 
-    private static void findAllMethods(final CompositeIndex compositeIndex, final ClassInfo classInfo,
-            final String deploymentName, final Set<String> methods) {
+    private static Set<String> findAllMethods(final CompositeIndex compositeIndex, final ClassInfo classInfo,
+            final String deploymentName, final Map<DotName, Set<String>> methodCache) {
         if (classInfo == null) {
-            return;
+            return Set.of();
         }
+        Set<String> cached = methodCache.get(classInfo.name());
+        if (cached != null) {
+            return cached;
+        }
+        final Set<String> methods = new HashSet<>();
         classInfo.methods().forEach(methodInfo -> {
             // If the @OperateOnDeployment method is present, it must match the test descriptions deployment
             if (methodInfo.hasAnnotation(OPERATE_ON_DEPLOYMENT)) {
@@ -145,10 +221,15 @@ class ArquillianConfigBuilder {
             }
         });
         if (classInfo.superName() != null && !classInfo.superName().toString().equals(Object.class.getName())) {
-            findAllMethods(compositeIndex, compositeIndex.getClassByName(classInfo.superName()), deploymentName, methods);
+            methods.addAll(findAllMethods(compositeIndex, compositeIndex.getClassByName(classInfo.superName()),
+                    deploymentName, methodCache));
         }
         // Interfaces can have default methods, we'll check those too
         classInfo.interfaceNames()
-                .forEach(name -> findAllMethods(compositeIndex, compositeIndex.getClassByName(name), deploymentName, methods));
+                .forEach(name -> methods.addAll(
+                        findAllMethods(compositeIndex, compositeIndex.getClassByName(name), deploymentName, methodCache)));
+        cached = Set.copyOf(methods);
+        methodCache.put(classInfo.name(), cached);
+        return cached;
     }
 }
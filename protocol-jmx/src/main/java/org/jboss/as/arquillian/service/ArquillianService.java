@@ -6,26 +6,51 @@
 package org.jboss.as.arquillian.service;
 
 import static org.jboss.as.server.deployment.Services.JBOSS_DEPLOYMENT;
-
+import static org.jboss.as.server.deployment.Services.JBOSS_DEPLOYMENT_SUB_UNIT;
+import static org.jboss.as.server.deployment.Services.JBOSS_DEPLOYMENT_UNIT;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import javax.management.MBeanServer;
 
 import org.jboss.arquillian.container.test.spi.TestRunner;
+import org.jboss.arquillian.container.test.spi.util.TestRunners;
 import org.jboss.arquillian.protocol.jmx.JMXTestRunner;
+import org.jboss.arquillian.protocol.jmx.JMXTestRunnerMBean;
 import org.jboss.arquillian.test.spi.TestResult;
 import org.jboss.as.arquillian.protocol.jmx.ExtendedJMXProtocolConfiguration;
+import org.jboss.as.arquillian.protocol.jmx.TestResultCodec;
 import org.jboss.as.jmx.MBeanServerService;
 import org.jboss.as.server.deployment.Attachments;
 import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.Phase;
+import org.jboss.as.server.deployment.annotation.CompositeIndex;
 import org.jboss.logging.Logger;
-import org.jboss.modules.Module;
 import org.jboss.msc.Service;
 import org.jboss.msc.service.LifecycleEvent;
 import org.jboss.msc.service.LifecycleListener;
@@ -50,12 +75,17 @@ public class ArquillianService implements Service {
     public static final String TEST_CLASS_PROPERTY = "org.jboss.as.arquillian.testClass";
     public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("arquillian", "testrunner");
     private static final Logger log = Logger.getLogger("org.jboss.as.arquillian");
+    // The maximum number of test methods executed concurrently across all batches
+    private static final int MAX_TEST_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
 
     private final Supplier<MBeanServer> mBeanServerSupplier;
     private final Consumer<ArquillianService> arquillianServiceConsumer;
-    private final Set<ArquillianConfig> deployedTests = new HashSet<>();
-    private volatile JMXTestRunner jmxTestRunner;
-    private volatile LifecycleListener listener;
+    // The deployed tests indexed by the test class name
+    private final Map<String, Set<ArquillianConfig>> deployedTests = new ConcurrentHashMap<>();
+    // Completed when a config for the test class name is registered
+    private final Map<String, CompletableFuture<Void>> registrations = new ConcurrentHashMap<>();
+    private volatile ExtendedJMXTestRunner jmxTestRunner;
+    private volatile ArquillianListener listener;
 
     private ArquillianService(final Supplier<MBeanServer> mBeanServerSupplier,
             final Consumer<ArquillianService> arquillianServiceConsumer) {
@@ -93,26 +123,39 @@ public class ArquillianService implements Service {
         try {
             if (jmxTestRunner != null) {
                 jmxTestRunner.unregisterMBean(mBeanServerSupplier.get());
+                jmxTestRunner.shutdown();
             }
         } catch (Exception ex) {
             log.errorf(ex, "Cannot stop Arquillian Test Runner");
         }
 
         context.getController().getServiceContainer().removeListener(listener);
+        listener.shutdown();
     }
 
     void registerArquillianConfig(final ArquillianConfig arqConfig) {
-        synchronized (deployedTests) {
-            log.debugf("Register Arquillian config: %s", arqConfig.getServiceName());
-            deployedTests.add(arqConfig);
-            deployedTests.notifyAll();
+        log.debugf("Register Arquillian config: %s", arqConfig.getServiceName());
+        for (String className : arqConfig.getTestClassNames()) {
+            deployedTests.computeIfAbsent(className, name -> new CopyOnWriteArraySet<>()).add(arqConfig);
+            final CompletableFuture<Void> registration = registrations.remove(className);
+            if (registration != null) {
+                registration.complete(null);
+            }
         }
     }
 
     void unregisterArquillianConfig(final ArquillianConfig arqConfig) {
-        synchronized (deployedTests) {
-            log.debugf("Unregister Arquillian config: %s", arqConfig.getServiceName());
-            deployedTests.remove(arqConfig);
+        log.debugf("Unregister Arquillian config: %s", arqConfig.getServiceName());
+        final ExtendedJMXTestRunner jmxTestRunner = this.jmxTestRunner;
+        for (String className : arqConfig.getTestClassNames()) {
+            deployedTests.computeIfPresent(className, (name, configs) -> {
+                configs.remove(arqConfig);
+                return configs.isEmpty() ? null : configs;
+            });
+            // Discard the results of a batch the client never retrieved
+            if (jmxTestRunner != null) {
+                jmxTestRunner.cancelTestMethods(className);
+            }
         }
     }
 
@@ -121,13 +164,42 @@ public class ArquillianService implements Service {
     }
 
     private ArquillianConfig getArquillianConfig(final String className, String methodName, final long timeout) {
-        synchronized (deployedTests) {
-            if (methodName == null && deployedTests.size() > 1) {
-                log.warn(
-                        "An attempt was made to lookup an Arquillian configuration with more than one deployed test. This may result in unexpected behavior.");
+        log.debugf("Getting Arquillian config for: %s", className);
+        ArquillianConfig arqConfig = findArquillianConfig(className, methodName);
+        if (arqConfig != null) {
+            return arqConfig;
+        }
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        long remaining = deadline - System.nanoTime();
+        while (remaining > 0L) {
+            final CompletableFuture<Void> registration = registrations.computeIfAbsent(className,
+                    name -> new CompletableFuture<>());
+            // Check again as the config may have been registered before the registration future was created
+            arqConfig = findArquillianConfig(className, methodName);
+            if (arqConfig != null) {
+                return arqConfig;
+            }
+            try {
+                log.debugf("Waiting on Arquillian config for: %s", className);
+                registration.get(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | TimeoutException ignore) {
             }
-            log.debugf("Getting Arquillian config for: %s", className);
-            for (ArquillianConfig arqConfig : deployedTests) {
+            arqConfig = findArquillianConfig(className, methodName);
+            if (arqConfig != null) {
+                return arqConfig;
+            }
+            remaining = deadline - System.nanoTime();
+        }
+        throw new IllegalStateException("Cannot obtain Arquillian config for: " + className);
+    }
+
+    private ArquillianConfig findArquillianConfig(final String className, final String methodName) {
+        final Set<ArquillianConfig> configs = deployedTests.get(className);
+        if (configs != null) {
+            for (ArquillianConfig arqConfig : configs) {
                 // A test class with methods annotated with @OperateOnDeployment may be packaged in multiple
                 // deployments and thus multiple ArquillianConfig instances that recognize that class name
                 // may be present. But different configs will support different test methods.
@@ -140,34 +212,77 @@ public class ArquillianService implements Service {
                 //
                 // For other calls, the target method is available, so we should find the config that supports
                 // that specific method.
-                boolean supports = methodName == null ? arqConfig.supports(className)
-                        : arqConfig.supports(className, methodName);
+                boolean supports = methodName == null || arqConfig.supports(className, methodName);
                 if (supports) {
                     log.debugf("Found Arquillian config for class %s and method %s", className, methodName);
                     return arqConfig;
                 }
             }
-
-            if (timeout <= 0) {
-                throw new IllegalStateException("Cannot obtain Arquillian config for: " + className);
-            }
-
-            try {
-                log.debugf("Waiting on Arquillian config for: %s", className);
-                deployedTests.wait(timeout);
-            } catch (InterruptedException e) {
-                // ignore
-            }
         }
-        return getArquillianConfig(className, methodName, -1);
+        return null;
     }
 
-    private class ExtendedJMXTestRunner extends JMXTestRunner {
+    /**
+     * The management interface of the test runner. In addition to the operations of the {@link JMXTestRunnerMBean},
+     * it allows a batch of test methods to be executed concurrently.
+     */
+    public interface ExtendedJMXTestRunnerMBean extends JMXTestRunnerMBean {
+
+        /**
+         * Submits the test methods for concurrent execution. The number of test methods executed at the same time is
+         * limited by the {@link ExtendedJMXProtocolConfiguration#PROPERTY_TEST_METHOD_CONCURRENCY} protocol property.
+         *
+         * @param className     the name of the test class
+         * @param methodNames   the names of the test methods to execute
+         * @param protocolProps the protocol properties
+         */
+        void runTestMethods(String className, String[] methodNames, Map<String, String> protocolProps);
+
+        /**
+         * Waits for the result of a test method submitted with
+         * {@link #runTestMethods(String, String[], Map)}. Once returned, the result is discarded.
+         *
+         * @param className  the name of the test class
+         * @param methodName the name of the test method
+         * @param timeout    the maximum time to wait in milliseconds
+         *
+         * @return the serialized test result or {@code null} if the test method did not complete in time
+         */
+        byte[] awaitTestMethod(String className, String methodName, long timeout);
+
+        /**
+         * Discards the results of all test methods of the test class which have not been retrieved.
+         *
+         * @param className the name of the test class
+         */
+        void cancelTestMethods(String className);
+
+        /**
+         * Returns the time the deployment listener spent handling service events on the MSC threads since the
+         * service was started.
+         *
+         * @return the time in milliseconds
+         */
+        long getDeploymentListenerTime();
+    }
+
+    private class ExtendedJMXTestRunner extends JMXTestRunner implements ExtendedJMXTestRunnerMBean {
         private final ThreadLocal<ArquillianConfig> configHolder;
+        private final ExtendedTestClassLoader testClassLoader;
+        // The results of concurrently executed test methods indexed by the class and method name
+        private final Map<String, CompletableFuture<byte[]>> batchResults = new ConcurrentHashMap<>();
+        // Shared by all batches, created when the first batch is submitted
+        private ExecutorService executor;
 
         ExtendedJMXTestRunner(final ThreadLocal<ArquillianConfig> configHolder) {
-            super(new ExtendedTestClassLoader(configHolder));
+            this(configHolder, new ExtendedTestClassLoader(configHolder));
+        }
+
+        private ExtendedJMXTestRunner(final ThreadLocal<ArquillianConfig> configHolder,
+                final ExtendedTestClassLoader testClassLoader) {
+            super(testClassLoader);
             this.configHolder = configHolder;
+            this.testClassLoader = testClassLoader;
         }
 
         @Override
@@ -180,14 +295,17 @@ public class ArquillianService implements Service {
                 configHolder.set(config);
                 ClassLoader runWithClassLoader = ClassLoader.getSystemClassLoader();
                 if (Boolean.parseBoolean(protocolProps.get(ExtendedJMXProtocolConfiguration.PROPERTY_ENABLE_TCCL))) {
-                    DeploymentUnit depUnit = config.getDeploymentUnit();
-                    Module module = depUnit.getAttachment(Attachments.MODULE);
-                    if (module != null) {
-                        runWithClassLoader = module.getClassLoader();
+                    final ClassLoader moduleClassLoader = config.getModuleClassLoader();
+                    if (moduleClassLoader != null) {
+                        runWithClassLoader = moduleClassLoader;
                     }
                 }
                 ClassLoader tccl = WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(runWithClassLoader);
                 try {
+                    if (Boolean.parseBoolean(
+                            protocolProps.get(ExtendedJMXProtocolConfiguration.PROPERTY_COMPACT_TEST_RESULTS))) {
+                        return TestResultCodec.encode(runTestMethodInternal(className, methodName, protocolProps));
+                    }
                     return super.runTestMethod(className, methodName, protocolProps);
                 } finally {
                     WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(tccl);
@@ -200,6 +318,33 @@ public class ArquillianService implements Service {
             }
         }
 
+        /**
+         * Runs the test method like {@link JMXTestRunner#runTestMethod(String, String, Map)}, but returns the result
+         * so it can be encoded with the {@link TestResultCodec}.
+         */
+        private TestResult runTestMethodInternal(final String className, final String methodName,
+                final Map<String, String> protocolProps) {
+            setCurrentCall(className + methodName);
+            TestResult result = null;
+            try {
+                // Resolve the test runner the same way the JMXTestRunner does
+                final TestRunner runner = TestRunners.getTestRunner(getClass().getClassLoader());
+                log.debugf("Load test class: %s", className);
+                final Class<?> testClass = testClassLoader.loadTestClass(className);
+                log.debugf("Execute: %s.%s", className, methodName);
+                result = doRunTestMethod(runner, testClass, methodName, protocolProps);
+            } catch (Throwable t) {
+                result = TestResult.failed(t);
+                result.setEnd(System.currentTimeMillis());
+            } finally {
+                log.debugf("Result: %s", result);
+                if (result != null && result.getStatus() == TestResult.Status.FAILED) {
+                    log.errorf(result.getThrowable(), "Failed: %s.%s", className, methodName);
+                }
+            }
+            return result;
+        }
+
         @Override
         protected TestResult doRunTestMethod(TestRunner runner, Class<?> testClass, String methodName,
                 Map<String, String> protocolProps) {
@@ -210,10 +355,9 @@ public class ArquillianService implements Service {
                 if (config == null) {
                     config = getArquillianConfig(testClass.getName(), methodName, 30000L);
                 }
-                DeploymentUnit depUnit = config.getDeploymentUnit();
-                Module module = depUnit.getAttachment(Attachments.MODULE);
-                if (module != null) {
-                    runWithClassLoader = module.getClassLoader();
+                final ClassLoader moduleClassLoader = config.getModuleClassLoader();
+                if (moduleClassLoader != null) {
+                    runWithClassLoader = moduleClassLoader;
                 }
             }
             ClassLoader tccl = WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(runWithClassLoader);
@@ -224,11 +368,105 @@ public class ArquillianService implements Service {
             }
         }
 
+        @Override
+        public void runTestMethods(final String className, final String[] methodNames,
+                final Map<String, String> protocolProps) {
+            int concurrency = 1;
+            final String value = protocolProps.get(ExtendedJMXProtocolConfiguration.PROPERTY_TEST_METHOD_CONCURRENCY);
+            if (value != null) {
+                concurrency = Math.max(1, Math.min(methodNames.length, Integer.parseInt(value)));
+            }
+            log.debugf("Running test methods %s of %s with a concurrency of %d", Arrays.asList(methodNames), className,
+                    concurrency);
+            final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+            for (String methodName : methodNames) {
+                final CompletableFuture<byte[]> result = new CompletableFuture<>();
+                batchResults.put(batchKey(className, methodName), result);
+                tasks.add(() -> {
+                    if (result.isDone()) {
+                        // The batch has been cancelled
+                        return;
+                    }
+                    try {
+                        // Each invocation sets up and tears down its own ContextManager
+                        result.complete(runTestMethod(className, methodName, protocolProps));
+                    } catch (Throwable t) {
+                        result.complete(toByteArray(TestResult.failed(t)));
+                    }
+                });
+            }
+            // Each worker executes the test methods of the batch one after another, which limits the concurrency of the
+            // batch while the threads are shared with other batches
+            final ExecutorService executor = getExecutor();
+            for (int i = 0; i < concurrency; i++) {
+                executor.execute(() -> {
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        task.run();
+                    }
+                });
+            }
+        }
+
+        @Override
+        public byte[] awaitTestMethod(final String className, final String methodName, final long timeout) {
+            final String key = batchKey(className, methodName);
+            final CompletableFuture<byte[]> result = batchResults.get(key);
+            if (result == null) {
+                throw new IllegalStateException("Test method " + methodName + " of " + className + " was not submitted");
+            }
+            try {
+                final byte[] bytes = result.get(timeout, TimeUnit.MILLISECONDS);
+                batchResults.remove(key);
+                return bytes;
+            } catch (TimeoutException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | CancellationException e) {
+                batchResults.remove(key);
+                return toByteArray(TestResult.failed(e.getCause() == null ? e : e.getCause()));
+            }
+        }
+
+        @Override
+        public void cancelTestMethods(final String className) {
+            final String prefix = batchKey(className, "");
+            batchResults.entrySet().removeIf(entry -> {
+                if (entry.getKey().startsWith(prefix)) {
+                    entry.getValue().cancel(false);
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        @Override
+        public long getDeploymentListenerTime() {
+            final ArquillianListener listener = ArquillianService.this.listener;
+            return listener == null ? 0L : listener.getTime();
+        }
+
+        synchronized void shutdown() {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+            batchResults.values().forEach(result -> result.cancel(false));
+            batchResults.clear();
+        }
+
+        private synchronized ExecutorService getExecutor() {
+            if (executor == null) {
+                executor = createExecutor(MAX_TEST_THREADS);
+            }
+            return executor;
+        }
+
         private ContextManager setupContextManager(final ArquillianConfig config, final Map<String, Object> properties) {
             try {
-                final DeploymentUnit depUnit = config.getDeploymentUnit();
-                final ContextManagerBuilder builder = new ContextManagerBuilder(config).addAll(depUnit);
-                ContextManager contextManager = builder.build();
+                final ContextManager contextManager = config.getContextManager();
                 contextManager.setup(properties);
                 return contextManager;
             } catch (Throwable t) {
@@ -237,6 +475,39 @@ public class ArquillianService implements Service {
         }
     }
 
+    private static String batchKey(final String className, final String methodName) {
+        return className + '#' + methodName;
+    }
+
+    private static byte[] toByteArray(final Object obj) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(obj);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ExecutorService createExecutor(final int threads) {
+        ThreadFactory threadFactory;
+        try {
+            // Use virtual threads if the JVM supports them
+            final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builderType.getMethod("name", String.class, long.class).invoke(builder, "arquillian-test-", 1L);
+            threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            final AtomicInteger count = new AtomicInteger();
+            threadFactory = task -> {
+                final Thread thread = new Thread(task, "arquillian-test-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
     class ExtendedTestClassLoader implements JMXTestRunner.TestClassLoader {
         private final ThreadLocal<ArquillianConfig> configHolder;
 
@@ -263,43 +534,169 @@ public class ArquillianService implements Service {
     // TODO: 2) or this listener based solution will be replaced with WildFly Extension based solution
     private static class ArquillianListener implements LifecycleListener {
         private final ServiceTarget serviceTarget;
+        private final ExecutorService executor;
+        // The state of each deployment unit, keyed by the name of the deployment unit service
+        private final Map<ServiceName, DeploymentUnitState> units = new ConcurrentHashMap<>();
+        private final LongAdder listenerTime = new LongAdder();
 
         private ArquillianListener(final ServiceTarget serviceTarget) {
             this.serviceTarget = serviceTarget;
+            final AtomicInteger count = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+                    task -> {
+                        final Thread thread = new Thread(task, "arquillian-listener-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
         }
 
         @Override
         public void handleEvent(final ServiceController<?> controller, final LifecycleEvent event) {
-            final ServiceName serviceName = controller.getName();
-            if (!JBOSS_DEPLOYMENT.isParentOf(serviceName))
+            // Filter on the cheapest checks first as this is invoked for every service transition
+            if (event != LifecycleEvent.DOWN && event != LifecycleEvent.UP && event != LifecycleEvent.REMOVED) {
+                return;
+            }
+            final long start = System.nanoTime();
+            try {
+                final ServiceName serviceName = controller.getName();
+                if (!JBOSS_DEPLOYMENT.isParentOf(serviceName))
+                    return;
+                if (event == LifecycleEvent.REMOVED) {
+                    // The deployment unit is gone, any parsing or installation not yet started is no longer needed
+                    final DeploymentUnitState state = units.remove(serviceName);
+                    if (state != null) {
+                        state.remove();
+                    }
+                    return;
+                }
+                final ServiceName unitName = serviceName.getParent();
+                if (!isDeploymentUnit(unitName))
+                    return;
+                final DeploymentUnitState state = units.computeIfAbsent(unitName, DeploymentUnitState::new);
+                if (event == LifecycleEvent.DOWN && serviceName.equals(state.dependenciesName)) {
+                    // DOWN event can happen multiple times during service lifecycle so this is handled
+                    // in ArquillianConfigBuilder.handleParseAnnotations(depUnit) method below.
+                    final DeploymentUnit depUnit = getDeploymentUnit(controller.getServiceContainer().getService(unitName));
+                    // The index is removed from the deployment unit in a later phase, so it's retrieved here
+                    final CompositeIndex index = depUnit.getAttachment(Attachments.COMPOSITE_ANNOTATION_INDEX);
+                    state.parse(depUnit, () -> ArquillianConfigBuilder.handleParseAnnotations(depUnit, index), executor);
+                } else if (event == LifecycleEvent.UP && serviceName.equals(state.installName)) {
+                    // Install the config once the parsing is complete rather than waiting for it on the MSC thread
+                    state.install(controller, this::installConfig, executor);
+                }
+            } finally {
+                listenerTime.add(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Returns the time spent handling events on the MSC threads.
+         *
+         * @return the time in milliseconds
+         */
+        long getTime() {
+            return TimeUnit.NANOSECONDS.toMillis(listenerTime.sum());
+        }
+
+        void shutdown() {
+            executor.shutdownNow();
+            units.values().forEach(DeploymentUnitState::remove);
+            units.clear();
+            log.debugf("Time spent in the Arquillian deployment listener: %d ms", getTime());
+        }
+
+        private void installConfig(final DeploymentUnitState state, final ServiceController<?> installController) {
+            final DeploymentUnit depUnit = state.depUnit;
+            Map<String, ArquillianConfig.TestClassInfo> testClasses = ArquillianConfigBuilder.getClasses(depUnit);
+            if (testClasses != null) {
+                String duName = ArquillianConfigBuilder.getName(depUnit);
+                ServiceName arqConfigSN = ServiceName.JBOSS.append("arquillian", "config", duName);
+                ServiceBuilder<ArquillianConfig> builder = (ServiceBuilder<ArquillianConfig>) serviceTarget
+                        .addService(arqConfigSN);
+                ArquillianConfig arqConfig = new ArquillianConfig(arqConfigSN, testClasses,
+                        builder.requires(ArquillianService.SERVICE_NAME),
+                        builder.requires(state.unitName));
+                arqConfig.addDeps(builder, installController);
+                builder.setInstance(arqConfig);
+                builder.install();
+                log.infof("Arquillian deployment detected: %s", arqConfig);
+            }
+        }
+
+        private static boolean isDeploymentUnit(final ServiceName name) {
+            final ServiceName parent = name.getParent();
+            if (parent == null) {
+                return false;
+            }
+            // jboss.deployment.unit."name" or jboss.deployment.subunit."parent"."name"
+            return JBOSS_DEPLOYMENT_UNIT.equals(parent) || JBOSS_DEPLOYMENT_SUB_UNIT.equals(parent.getParent());
+        }
+
+        @SuppressWarnings("deprecation")
+        private static DeploymentUnit getDeploymentUnit(final ServiceController<?> unitController) {
+            // The deployment unit is only available as the value of its service, this is the single place it's read
+            return (DeploymentUnit) unitController.getValue();
+        }
+    }
+
+    /**
+     * The state of a deployment unit between the parsing of its annotations and the installation of its config. The
+     * service names are created once per deployment unit, so the events of other services are filtered by comparing
+     * the service names.
+     */
+    private static class DeploymentUnitState {
+        private final ServiceName unitName;
+        private final ServiceName dependenciesName;
+        private final ServiceName installName;
+        private DeploymentUnit depUnit;
+        private CompletableFuture<Void> parsing;
+        private boolean removed;
+
+        private DeploymentUnitState(final ServiceName unitName) {
+            this.unitName = unitName;
+            dependenciesName = unitName.append(Phase.DEPENDENCIES.toString());
+            installName = unitName.append(Phase.INSTALL.toString());
+        }
+
+        synchronized void parse(final DeploymentUnit depUnit, final Runnable task, final ExecutorService executor) {
+            this.depUnit = depUnit;
+            final CompletableFuture<Void> previous = parsing == null ? CompletableFuture.completedFuture(null)
+                    : parsing.exceptionally(t -> null);
+            parsing = previous.thenRunAsync(task, executor);
+        }
+
+        synchronized void install(final ServiceController<?> installController,
+                final BiConsumer<DeploymentUnitState, ServiceController<?>> installer, final ExecutorService executor) {
+            final CompletableFuture<Void> future = parsing == null ? CompletableFuture.completedFuture(null) : parsing;
+            parsing = null;
+            if (depUnit == null) {
+                // The annotations were not parsed, so there are no test classes
                 return;
-            final String simpleName = serviceName.getSimpleName();
-
-            if (event == LifecycleEvent.DOWN && simpleName.equals(Phase.DEPENDENCIES.toString())) {
-                // DOWN event can happen multiple times during service lifecycle so this is handled
-                // in ArquillianConfigBuilder.handleParseAnnotations(depUnit) method below.
-                ServiceName parentName = serviceName.getParent();
-                ServiceController<?> parentController = controller.getServiceContainer().getService(parentName);
-                DeploymentUnit depUnit = (DeploymentUnit) parentController.getValue(); // TODO: eliminate deprecated API usage
-                ArquillianConfigBuilder.handleParseAnnotations(depUnit);
-            } else if (event == LifecycleEvent.UP && simpleName.equals(Phase.INSTALL.toString())) {
-                ServiceName parentName = serviceName.getParent();
-                ServiceController<?> parentController = controller.getServiceContainer().getService(parentName);
-                DeploymentUnit depUnit = (DeploymentUnit) parentController.getValue(); // TODO: eliminate deprecated API usage
-                Map<String, ArquillianConfig.TestClassInfo> testClasses = ArquillianConfigBuilder.getClasses(depUnit);
-                if (testClasses != null) {
-                    String duName = ArquillianConfigBuilder.getName(depUnit);
-                    ServiceName arqConfigSN = ServiceName.JBOSS.append("arquillian", "config", duName);
-                    ServiceBuilder<ArquillianConfig> builder = (ServiceBuilder<ArquillianConfig>) serviceTarget
-                            .addService(arqConfigSN);
-                    ArquillianConfig arqConfig = new ArquillianConfig(arqConfigSN, testClasses,
-                            builder.requires(ArquillianService.SERVICE_NAME),
-                            builder.requires(parentController.getName()));
-                    arqConfig.addDeps(builder, controller);
-                    builder.setInstance(arqConfig);
-                    builder.install();
-                    log.infof("Arquillian deployment detected: %s", arqConfig);
+            }
+            future.whenCompleteAsync((ignore, t) -> {
+                synchronized (this) {
+                    if (removed || t instanceof CancellationException) {
+                        return;
+                    }
+                    if (t != null) {
+                        log.errorf(t instanceof CompletionException && t.getCause() != null ? t.getCause() : t,
+                                "Failed to parse the Arquillian deployment %s", unitName);
+                        return;
+                    }
+                    try {
+                        installer.accept(this, installController);
+                    } catch (RuntimeException e) {
+                        log.errorf(e, "Failed to install the Arquillian config for %s", unitName);
+                    }
                 }
+            }, executor);
+        }
+
+        synchronized void remove() {
+            removed = true;
+            if (parsing != null) {
+                parsing.cancel(false);
+                parsing = null;
             }
         }
     }
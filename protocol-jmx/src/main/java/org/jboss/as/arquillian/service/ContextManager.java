@@ -11,10 +11,7 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 
-import org.jboss.as.server.deployment.Attachments;
-import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.SetupAction;
-import org.jboss.modules.Module;
 import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
@@ -50,9 +47,7 @@ public class ContextManager {
      */
     public void setup(final Map<String, Object> properties) {
         final List<SetupAction> successfulActions = new ArrayList<SetupAction>();
-        final DeploymentUnit depUnit = config.getDeploymentUnit();
-        final Module module = depUnit.getAttachment(Attachments.MODULE);
-        ClassLoader tccl = WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(module.getClassLoader());
+        ClassLoader tccl = WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(config.getModuleClassLoader());
         try {
             for (final SetupAction action : setupActions) {
                 try {
@@ -86,9 +81,7 @@ public class ContextManager {
     public void teardown(final Map<String, Object> properties) {
         Throwable exceptionToThrow = null;
         final ListIterator<SetupAction> itr = setupActions.listIterator(setupActions.size());
-        final DeploymentUnit depUnit = config.getDeploymentUnit();
-        final Module module = depUnit.getAttachment(Attachments.MODULE);
-        ClassLoader tccl = WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(module.getClassLoader());
+        ClassLoader tccl = WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(config.getModuleClassLoader());
         try {
             while (itr.hasPrevious()) {
                 final SetupAction action = itr.previous();
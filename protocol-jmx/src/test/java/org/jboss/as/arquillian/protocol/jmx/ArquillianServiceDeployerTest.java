@@ -0,0 +1,144 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.protocol.jmx;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.as.controller.client.OperationResponse;
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.threads.AsyncFuture;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ArquillianServiceDeployerTest {
+
+    @Test
+    public void fingerprintIsStable() throws Exception {
+        final JavaArchive archive = createArchive("content");
+        final String fingerprint = ArquillianServiceDeployer.addFingerprint(archive);
+        // Adding the fingerprint again must not include the previous fingerprint
+        Assertions.assertEquals(fingerprint, ArquillianServiceDeployer.addFingerprint(archive));
+        Assertions.assertEquals(fingerprint, ArquillianServiceDeployer.addFingerprint(createArchive("content")));
+        Assertions.assertNotEquals(fingerprint, ArquillianServiceDeployer.addFingerprint(createArchive("changed")));
+    }
+
+    @Test
+    public void readDeployedFingerprint() throws Exception {
+        final JavaArchive archive = createArchive("content");
+        final String fingerprint = ArquillianServiceDeployer.addFingerprint(archive);
+        Assertions.assertEquals(fingerprint,
+                ArquillianServiceDeployer.readDeployedFingerprint(new DeploymentClient(archive), archive.getName()));
+    }
+
+    @Test
+    public void readMissingFingerprint() throws Exception {
+        // Deployed by a version which did not add the fingerprint
+        final JavaArchive archive = createArchive("content");
+        Assertions.assertNull(
+                ArquillianServiceDeployer.readDeployedFingerprint(new DeploymentClient(archive), archive.getName()));
+        // Not deployed at all
+        Assertions.assertNull(ArquillianServiceDeployer.readDeployedFingerprint(new DeploymentClient(null), archive.getName()));
+    }
+
+    private static JavaArchive createArchive(final String content) {
+        return ShrinkWrap.create(JavaArchive.class, "arquillian-service")
+                .addAsManifestResource(new StringAsset(content), "test.txt");
+    }
+
+    /**
+     * A client which implements the {@code read-content} operation for a single deployment.
+     */
+    private static class DeploymentClient implements ModelControllerClient {
+        private final JavaArchive deployment;
+
+        private DeploymentClient(final JavaArchive deployment) {
+            this.deployment = deployment;
+        }
+
+        @Override
+        public OperationResponse executeOperation(final Operation operation, final OperationMessageHandler messageHandler) {
+            final ModelNode op = operation.getOperation();
+            Assertions.assertEquals("read-content", Operations.getOperationName(op));
+            final String name = op.get(ClientConstants.OP_ADDR).get(0).get(ClientConstants.DEPLOYMENT).asString();
+            final Node node = deployment == null || !deployment.getName().equals(name) ? null
+                    : deployment.get(op.get("path").asString());
+            final ModelNode response = new ModelNode();
+            if (node == null || node.getAsset() == null) {
+                response.get(ClientConstants.OUTCOME).set(ClientConstants.FAILED);
+                response.get(ClientConstants.FAILURE_DESCRIPTION).set("Not found");
+                return OperationResponse.Factory.createSimple(response);
+            }
+            response.get(ClientConstants.OUTCOME).set(ClientConstants.SUCCESS);
+            response.get(ClientConstants.RESULT, "uuid").set("content");
+            return new OperationResponse() {
+                @Override
+                public ModelNode getResponseNode() {
+                    return response;
+                }
+
+                @Override
+                public List<StreamEntry> getInputStreams() {
+                    return List.of(getInputStream("content"));
+                }
+
+                @Override
+                public StreamEntry getInputStream(final String uuid) {
+                    final InputStream in = node.getAsset().openStream();
+                    return new StreamEntry() {
+                        @Override
+                        public String getUUID() {
+                            return uuid;
+                        }
+
+                        @Override
+                        public String getMimeType() {
+                            return "application/octet-stream";
+                        }
+
+                        @Override
+                        public InputStream getStream() {
+                            return in;
+                        }
+
+                        @Override
+                        public void close() throws IOException {
+                            in.close();
+                        }
+                    };
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+        @Override
+        public AsyncFuture<ModelNode> executeAsync(final Operation operation, final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AsyncFuture<OperationResponse> executeOperationAsync(final Operation operation,
+                final OperationMessageHandler messageHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.jboss.as.arquillian.protocol.jmx;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ServiceArchiveCacheTest {
+    private static final Collection<Class<?>> SOURCES = List.of(ServiceArchiveCache.class);
+
+    @TempDir
+    private Path cacheDir;
+
+    @BeforeEach
+    public void enableCache() {
+        System.setProperty("wildfly.arquillian.service.cache", "true");
+        System.setProperty("wildfly.arquillian.service.cache.dir", cacheDir.toString());
+    }
+
+    @AfterEach
+    public void disableCache() {
+        System.clearProperty("wildfly.arquillian.service.cache");
+        System.clearProperty("wildfly.arquillian.service.cache.dir");
+    }
+
+    @Test
+    public void reuseCachedArchive() throws Exception {
+        final AtomicInteger generated = new AtomicInteger();
+        final List<Archive<?>> auxArchives = List.of(createAuxArchive("content"));
+        final JavaArchive first = ServiceArchiveCache.getOrCreate("test-service", auxArchives, SOURCES,
+                () -> generate(generated, "content"));
+        final JavaArchive second = ServiceArchiveCache.getOrCreate("test-service", auxArchives, SOURCES,
+                () -> generate(generated, "content"));
+        Assertions.assertEquals(1, generated.get(), "Expected the second archive to be imported from the cache");
+        Assertions.assertEquals(ServiceArchiveCache.fingerprint(first), ServiceArchiveCache.fingerprint(second));
+    }
+
+    @Test
+    public void changedAuxiliaryArchive() throws Exception {
+        final AtomicInteger generated = new AtomicInteger();
+        ServiceArchiveCache.getOrCreate("test-service", List.of(createAuxArchive("content")), SOURCES,
+                () -> generate(generated, "content"));
+        ServiceArchiveCache.getOrCreate("test-service", List.of(createAuxArchive("changed")), SOURCES,
+                () -> generate(generated, "changed"));
+        Assertions.assertEquals(2, generated.get(), "Expected a changed auxiliary archive to generate a new archive");
+    }
+
+    @Test
+    public void pruneUnusedArchives() throws Exception {
+        final Path unused = Files.createFile(cacheDir.resolve("test-service-unused.jar"));
+        Files.setLastModifiedTime(unused,
+                FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(30L)));
+        final Path recent = Files.createFile(cacheDir.resolve("test-service-recent.jar"));
+        final Path other = Files.createFile(cacheDir.resolve("other-unused.jar"));
+        Files.setLastModifiedTime(other, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(30L)));
+
+        ServiceArchiveCache.getOrCreate("test-service", List.of(createAuxArchive("content")), SOURCES,
+                () -> generate(new AtomicInteger(), "content"));
+
+        Assertions.assertTrue(Files.notExists(unused), "Expected the unused archive to be deleted");
+        Assertions.assertTrue(Files.exists(recent), "Expected the recently used archive to be kept");
+        Assertions.assertTrue(Files.exists(other), "Expected archives with a different name to be kept");
+    }
+
+    private static JavaArchive createAuxArchive(final String content) {
+        return ShrinkWrap.create(JavaArchive.class, "aux.jar")
+                .addAsResource(new StringAsset(content), "aux.txt");
+    }
+
+    private static JavaArchive generate(final AtomicInteger generated, final String content) {
+        generated.incrementAndGet();
+        return ShrinkWrap.create(JavaArchive.class, "test-service")
+                .addAsResource(new StringAsset(content), "service.txt");
+    }
+}
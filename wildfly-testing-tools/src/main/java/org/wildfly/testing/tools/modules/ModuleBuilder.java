@@ -5,21 +5,44 @@
 
 package org.wildfly.testing.tools.modules;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 
 import javax.xml.stream.XMLStreamException;
 
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
 import org.jboss.shrinkwrap.api.asset.Asset;
 import org.jboss.shrinkwrap.api.exporter.ZipExporter;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
@@ -30,6 +53,11 @@ import org.wildfly.testing.tools.xml.CloseableXMLStreamWriter;
  * <p>
  * This will create a JAR based on the classes and generate a module.xml file.
  * </p>
+ * <p>
+ * In {@linkplain #parallel() parallel} mode, or when building modules with {@link #buildAll(ModuleBuilder...)}, the
+ * JARs are exported in parallel on a bounded executor. A JAR is not exported again if a JAR with identical contents
+ * already exists in the module directory.
+ * </p>
  *
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
  */
@@ -41,7 +69,9 @@ public class ModuleBuilder {
     private final JavaArchive jar;
     private final Set<String> resourcePaths;
     private final Set<JavaArchive> resources;
+    private final Set<Path> resourceFiles;
     private final Set<ModuleDependency> dependencies;
+    private boolean parallel;
 
     private ModuleBuilder(final String name, final JavaArchive jar, final Path modulePath) {
         this.name = name;
@@ -49,6 +79,7 @@ public class ModuleBuilder {
         this.jar = jar;
         dependencies = new LinkedHashSet<>();
         resources = new LinkedHashSet<>();
+        resourceFiles = new LinkedHashSet<>();
         this.resourcePaths = new LinkedHashSet<>();
     }
 
@@ -313,6 +344,30 @@ public class ModuleBuilder {
         return this;
     }
 
+    /**
+     * Adds a resource root library which already exists on the file system to the module. The library is linked, or
+     * copied if linking is not supported, into the module directory.
+     *
+     * @param resource the path to the library
+     *
+     * @return this builder
+     */
+    public ModuleBuilder addResource(final Path resource) {
+        this.resourceFiles.add(resource);
+        return this;
+    }
+
+    /**
+     * Exports the JARs of the module in parallel when the module is {@linkplain #build() built}. A JAR is not exported
+     * again if a JAR with identical contents already exists in the module directory.
+     *
+     * @return this builder
+     */
+    public ModuleBuilder parallel() {
+        this.parallel = true;
+        return this;
+    }
+
     /**
      * Adds a resource path to be added to the root resource.
      *
@@ -365,6 +420,9 @@ public class ModuleBuilder {
      * @return a task to clean up the module
      */
     public ModuleDescription build() {
+        if (parallel) {
+            return buildAll(this).get(0);
+        }
         try {
             final Path mp = modulePath;
             final Path moduleDir = mp.resolve(name.replace('.', File.separatorChar)).resolve("main");
@@ -379,8 +437,81 @@ public class ModuleBuilder {
         }
     }
 
+    /**
+     * Builds the modules together. The {@code module.xml} files are written first, then the JARs of all modules are
+     * exported in parallel on a bounded executor. A JAR is not exported again if a JAR with identical contents already
+     * exists in the module directory. Resources which already exist on the file system are linked or copied.
+     *
+     * @param builders the builders for the modules
+     *
+     * @return the descriptions of the modules in the same order as the builders
+     *
+     * @see #build()
+     */
+    public static List<ModuleDescription> buildAll(final ModuleBuilder... builders) {
+        final List<ModuleDescription> result = new ArrayList<>(builders.length);
+        final ExecutorService executor = createExecutor();
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (ModuleBuilder builder : builders) {
+                final Path moduleDir = builder.modulePath.resolve(builder.name.replace('.', File.separatorChar))
+                        .resolve("main");
+                Files.createDirectories(moduleDir);
+                builder.writeModuleXml(moduleDir);
+                futures.add(executor.submit(() -> exportIfChanged(builder.jar, moduleDir.resolve(builder.jar.getName()))));
+                for (JavaArchive resource : builder.resources) {
+                    futures.add(executor.submit(() -> exportIfChanged(resource, moduleDir.resolve(resource.getName()))));
+                }
+                for (Path resource : builder.resourceFiles) {
+                    futures.add(executor.submit(() -> linkOrCopy(resource, moduleDir.resolve(resource.getFileName()))));
+                }
+                result.add(new ModuleDescription(builder.name, builder.modulePath, moduleDir));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while building modules", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private void createModule(final Path moduleDir) throws IOException {
         Files.createDirectories(moduleDir);
+        writeModuleXml(moduleDir);
+        for (JavaArchive resource : resources) {
+            // Create the JAR
+            try (
+                    OutputStream out = Files.newOutputStream(moduleDir.resolve(resource.getName()),
+                            StandardOpenOption.CREATE_NEW)) {
+                resource.as(ZipExporter.class).exportTo(out);
+            }
+        }
+        for (Path resource : resourceFiles) {
+            linkOrCopy(resource, moduleDir.resolve(resource.getFileName()));
+        }
+
+        // Create the JAR
+        try (OutputStream out = Files.newOutputStream(moduleDir.resolve(jar.getName()), StandardOpenOption.CREATE_NEW)) {
+            jar.as(ZipExporter.class).exportTo(out);
+        }
+    }
+
+    private void writeModuleXml(final Path moduleDir) throws IOException {
         try (CloseableXMLStreamWriter writer = CloseableXMLStreamWriter
                 .of(Files.newBufferedWriter(moduleDir.resolve("module.xml")))) {
             writer.writeStartDocument("utf-8", "1.0");
@@ -398,13 +529,10 @@ public class ModuleBuilder {
             for (JavaArchive resource : resources) {
                 writer.writeEmptyElement("resource-root");
                 writer.writeAttribute("path", resource.getName());
-
-                // Create the JAR
-                try (
-                        OutputStream out = Files.newOutputStream(moduleDir.resolve(resource.getName()),
-                                StandardOpenOption.CREATE_NEW)) {
-                    resource.as(ZipExporter.class).exportTo(out);
-                }
+            }
+            for (Path resource : resourceFiles) {
+                writer.writeEmptyElement("resource-root");
+                writer.writeAttribute("path", resource.getFileName().toString());
             }
             writer.writeEndElement();
 
@@ -466,10 +594,116 @@ public class ModuleBuilder {
         } catch (XMLStreamException e) {
             throw new IOException(e);
         }
+    }
 
-        // Create the JAR
-        try (OutputStream out = Files.newOutputStream(moduleDir.resolve(jar.getName()), StandardOpenOption.CREATE_NEW)) {
-            jar.as(ZipExporter.class).exportTo(out);
+    private static ExecutorService createExecutor() {
+        final int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+        final AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, (r) -> {
+            final Thread thread = new Thread(r, "module-builder-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Void exportIfChanged(final JavaArchive archive, final Path target) throws IOException {
+        if (Files.exists(target)) {
+            final byte[] archiveHash = hash(archive);
+            if (archiveHash != null && Arrays.equals(archiveHash, hash(target))) {
+                return null;
+            }
+        }
+        // Export to a temporary file first so a failed export never leaves a partial JAR behind
+        final Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 65536)) {
+                archive.as(ZipExporter.class).exportTo(out);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return null;
+    }
+
+    private static Void linkOrCopy(final Path source, final Path target) throws IOException {
+        if (Files.exists(target) && Files.isSameFile(source, target)) {
+            return null;
+        }
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return null;
+    }
+
+    /**
+     * Hashes the file entries of the archive. Returns {@code null} if the archive contains nested archives, which
+     * cannot be compared with an exported JAR.
+     */
+    private static byte[] hash(final JavaArchive archive) throws IOException {
+        final Map<String, Asset> entries = new TreeMap<>();
+        for (Map.Entry<ArchivePath, Node> entry : archive.getContent().entrySet()) {
+            final Asset asset = entry.getValue().getAsset();
+            if (asset instanceof ArchiveAsset) {
+                return null;
+            }
+            if (asset != null) {
+                entries.put(entry.getKey().get().substring(1), asset);
+            }
+        }
+        final MessageDigest digest = createDigest();
+        final byte[] buffer = new byte[8192];
+        for (Map.Entry<String, Asset> entry : entries.entrySet()) {
+            try (InputStream in = entry.getValue().openStream()) {
+                update(digest, entry.getKey(), in, buffer);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static byte[] hash(final Path jar) throws IOException {
+        try (ZipFile zipFile = new ZipFile(jar.toFile())) {
+            final Map<String, ZipEntry> entries = new TreeMap<>();
+            final Enumeration<? extends ZipEntry> e = zipFile.entries();
+            while (e.hasMoreElements()) {
+                final ZipEntry entry = e.nextElement();
+                if (!entry.isDirectory()) {
+                    entries.put(entry.getName(), entry);
+                }
+            }
+            final MessageDigest digest = createDigest();
+            final byte[] buffer = new byte[8192];
+            for (Map.Entry<String, ZipEntry> entry : entries.entrySet()) {
+                try (InputStream in = zipFile.getInputStream(entry.getValue())) {
+                    update(digest, entry.getKey(), in, buffer);
+                }
+            }
+            return digest.digest();
+        } catch (ZipException e) {
+            // Not a valid JAR, it will be replaced
+            return new byte[0];
+        }
+    }
+
+    private static void update(final MessageDigest digest, final String name, final InputStream in, final byte[] buffer)
+            throws IOException {
+        digest.update(name.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        int len;
+        while ((len = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, len);
+        }
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
@@ -12,6 +12,7 @@ import java.nio.file.FileSystemNotFoundException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -19,6 +20,7 @@ import java.util.stream.Stream;
 
 import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.exporter.ZipExporter;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -198,6 +200,56 @@ public class ModuleBuilderTest {
         assertDeleted(moduleDescription);
     }
 
+    @Test
+    public void buildAllModules(final TestInfo testInfo) throws Exception {
+        final String moduleName = createModuleName(testInfo);
+        final JavaArchive resource = ShrinkWrap.create(JavaArchive.class, "resource.jar")
+                .addAsManifestResource(EmptyAsset.INSTANCE, "resource.txt");
+        final Path resourceFile = Files.createTempFile("module-builder-test", ".jar");
+        Files.delete(resourceFile);
+        ShrinkWrap.create(JavaArchive.class)
+                .addAsManifestResource(EmptyAsset.INSTANCE, "file.txt")
+                .as(ZipExporter.class)
+                .exportTo(resourceFile.toFile());
+        try {
+            final var descriptions = ModuleBuilder.buildAll(
+                    ModuleBuilder.of(moduleName + ".one")
+                            .addManifestResource(EmptyAsset.INSTANCE, "beans.xml")
+                            .addResource(resource)
+                            .addResource(resourceFile),
+                    ModuleBuilder.of(moduleName + ".two")
+                            .addManifestResource(EmptyAsset.INSTANCE, "beans.xml"));
+            Assertions.assertEquals(2, descriptions.size());
+            final ModuleDescription one = descriptions.get(0);
+            parseAndAssert(one, Set.of("test-module.jar", "resource.jar", resourceFile.getFileName().toString()),
+                    Set.of());
+            parseAndAssert(descriptions.get(1), Set.of("test-module.jar"), Set.of());
+            try (FileSystem fs = jarFs(one.modulePath().resolve(resourceFile.getFileName()))) {
+                Assertions.assertTrue(Files.exists(fs.getPath("/META-INF/file.txt")), "Could not find META-INF/file.txt");
+            }
+
+            // Building the module again with the same contents should not export the JAR again
+            final Path resourceJar = one.modulePath().resolve("resource.jar");
+            final var lastModified = Files.getLastModifiedTime(resourceJar);
+            Files.setLastModifiedTime(resourceJar, FileTime.fromMillis(lastModified.toMillis() - 60_000L));
+            final var expected = Files.getLastModifiedTime(resourceJar);
+            ModuleBuilder.of(moduleName + ".one")
+                    .addManifestResource(EmptyAsset.INSTANCE, "beans.xml")
+                    .addResource(resource)
+                    .addResource(resourceFile)
+                    .parallel()
+                    .build();
+            Assertions.assertEquals(expected, Files.getLastModifiedTime(resourceJar),
+                    "The unchanged resource JAR should not have been exported again");
+
+            // Both modules share a parent directory, delete the second one first
+            descriptions.get(1).close();
+            assertDeleted(one);
+        } finally {
+            Files.deleteIfExists(resourceFile);
+        }
+    }
+
     @Test
     // Always run this last
     @Order(Integer.MAX_VALUE)